@@ -0,0 +1,100 @@
+package com.asctutorial.bench;
+
+import com.asctutorial.util.DatabaseConnection;
+import com.asctutorial.util.SyntheticDataGenerator;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Fills an empty embedded database (db.backend=h2, created and migrated by
+ * DatabaseConnection) with a deterministic synthetic dataset of the
+ * requested size, using SyntheticDataGenerator with fixed options.
+ *
+ * Skew is 0, so tutors, students and session sizes are spread evenly and
+ * every session gets registrationsPerSession students. SystemIDs start with
+ * the managers, then the students; the first {@code tutors} students are
+ * also tutors. Every user's password is "pass".
+ */
+public class BenchmarkDataset {
+
+    static final int MANAGERS = 3;
+    static final int SUBJECTS = 5;
+    static final int LANGUAGES = 4;
+    static final String PASSWORD = "pass";
+
+    final int students;
+    final int tutors;
+    final int sessions;
+    final int registrationsPerSession;
+
+    private int firstStudentId;
+    private String[] userNames; // student index -> UserName
+
+    BenchmarkDataset(int students, int tutors, int sessions, int registrationsPerSession) {
+        this.students = students;
+        this.tutors = Math.min(tutors, students);
+        this.sessions = sessions;
+        this.registrationsPerSession = Math.min(registrationsPerSession, students - 1);
+    }
+
+    /**
+     * Points DatabaseConnection at a fresh in-memory database. Must run before
+     * anything touches DatabaseConnection.
+     */
+    static void useEmbeddedDatabase(String name) {
+        System.setProperty("db.backend", "h2");
+        System.setProperty("db.h2.url", "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        System.setProperty("db.h2.seed", "false");
+    }
+
+    int firstStudentId() {
+        return firstStudentId;
+    }
+
+    int firstTutorId() {
+        return firstStudentId;
+    }
+
+    void create(long seed) throws SQLException, IOException {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(SyntheticDataGenerator.Options.parse(
+                "students=" + students,
+                "tutors=" + tutors,
+                "managers=" + MANAGERS,
+                "sessions=" + sessions,
+                "registrations=" + (long) sessions * registrationsPerSession,
+                "subjects=" + SUBJECTS,
+                "languages=" + LANGUAGES,
+                "skew=0",
+                "seed=" + seed,
+                "password=" + PASSWORD));
+        generator.generate();
+        firstStudentId = generator.getFirstStudentId();
+        loadUserNames();
+    }
+
+    /**
+     * Generated user names are random; read them once so login benchmarks don't query for them.
+     */
+    private void loadUserNames() throws SQLException {
+        userNames = new String[students];
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT SystemID, UserName FROM Person WHERE SystemID BETWEEN ? AND ?")) {
+            ps.setInt(1, firstStudentId);
+            ps.setInt(2, firstStudentId + students - 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    userNames[rs.getInt(1) - firstStudentId] = rs.getString(2);
+                }
+            }
+        }
+    }
+
+    String userName(int systemId) {
+        return userNames[systemId - firstStudentId];
+    }
+}
@@ -0,0 +1,225 @@
+package com.asctutorial.bench;
+
+import com.asctutorial.app.PersonInfo;
+import com.asctutorial.util.AttendanceRollup;
+import com.asctutorial.util.DatabaseConnection;
+import com.asctutorial.util.ScheduleConflictException;
+import com.asctutorial.util.ScheduleIndex;
+import com.asctutorial.util.SessionFilter;
+import com.asctutorial.util.SessionKey;
+import com.asctutorial.util.SessionQueries;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency of the data-access paths behind the login screen and dashboards,
+ * measured against an embedded database.
+ *
+ * <pre>
+ *   mvn -pl asc-tutorial-bench -am package
+ *   java -jar asc-tutorial-bench/target/benchmarks.jar -p sessions=200000 -p students=20000
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataAccessBenchmarks {
+
+    @State(Scope.Benchmark)
+    public static class Dataset {
+        @Param({"2000"})
+        public int students;
+
+        @Param({"100"})
+        public int tutors;
+
+        @Param({"20000"})
+        public int sessions;
+
+        @Param({"5"})
+        public int registrationsPerSession;
+
+        @Param({"42"})
+        public long seed;
+
+        BenchmarkDataset data;
+        SessionKey middleKey;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            BenchmarkDataset.useEmbeddedDatabase("bench");
+            data = new BenchmarkDataset(students, tutors, sessions, registrationsPerSession);
+            data.create(seed);
+
+            // a cursor half way through the history, for the keyset page benchmark
+            List<Object[]> page = SessionQueries.loadManagerSessionPageAt(SessionFilter.all(false), sessions / 2, 1);
+            middleKey = SessionKey.ofRow(page.get(0));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Picker {
+        final SplittableRandom random = new SplittableRandom(7);
+
+        int student(Dataset d) {
+            return d.data.firstStudentId() + random.nextInt(d.data.students);
+        }
+
+        int tutor(Dataset d) {
+            return d.data.firstTutorId() + random.nextInt(d.data.tutors);
+        }
+    }
+
+    /**
+     * Includes the PBKDF2 check. Run with -t N to simulate a sign-in burst
+     * against the db.auth.threads cap.
+     */
+    @Benchmark
+    public PersonInfo login(Dataset d, Picker p) throws Exception {
+        return DatabaseConnection.authenticateAndGetPerson(
+                d.data.userName(p.student(d)), BenchmarkDataset.PASSWORD);
+    }
+
+    @Benchmark
+    public int managerSessionCount(Dataset d) throws Exception {
+        return SessionQueries.countManagerSessions(SessionFilter.all(true));
+    }
+
+    @Benchmark
+    public List<Object[]> managerSessionsFirstPage(Dataset d) throws Exception {
+        return SessionQueries.loadManagerSessionPage(SessionFilter.all(false), null, false, 100);
+    }
+
+    @Benchmark
+    public List<Object[]> managerSessionsKeysetPage(Dataset d) throws Exception {
+        return SessionQueries.loadManagerSessionPage(SessionFilter.all(false), d.middleKey, false, 100);
+    }
+
+    /**
+     * First page of a search by subject and date range (the typeahead's query).
+     */
+    @Benchmark
+    public List<Object[]> managerFilteredFirstPage(Dataset d, Picker p) throws Exception {
+        LocalDate from = LocalDate.now().minusYears(2).plusDays(p.random.nextInt(3 * 365));
+        SessionFilter filter = new SessionFilter(false, Date.valueOf(from), Date.valueOf(from.plusDays(90)),
+                1 + p.random.nextInt(BenchmarkDataset.SUBJECTS), null, null, null);
+        return SessionQueries.loadManagerSessionPage(filter, null, false, 100);
+    }
+
+    @Benchmark
+    public List<Object[]> tutorSessions(Dataset d, Picker p) throws Exception {
+        return SessionQueries.loadTutorSessions(p.tutor(d));
+    }
+
+    @Benchmark
+    public List<Object[]> studentSessions(Dataset d, Picker p) throws Exception {
+        return SessionQueries.loadStudentSessions(p.student(d));
+    }
+
+    /**
+     * Sessions booked by {@link #bookingTransaction}, cancelled again after
+     * each iteration so the tables don't grow while it is measured. Every
+     * booking gets its own hour, after the generated schedule ends, so none
+     * can collide with another booking or with the dataset.
+     */
+    @State(Scope.Benchmark)
+    public static class Bookings {
+        private static final int HOURS = 12;
+
+        final AtomicLong nextSlot = new AtomicLong();
+        final Queue<Integer> created = new ConcurrentLinkedQueue<>();
+        final LocalDate firstDay = LocalDate.now().plusYears(1);
+
+        Date date(long slot) {
+            return Date.valueOf(firstDay.plusDays(slot / HOURS));
+        }
+
+        Time time(long slot) {
+            return Time.valueOf((8 + slot % HOURS) + ":00:00");
+        }
+
+        @TearDown(Level.Iteration)
+        public void cancelBooked() throws Exception {
+            List<Integer> ids = new ArrayList<>(created);
+            created.clear();
+            SessionQueries.cancelSessions(ids);
+        }
+    }
+
+    /**
+     * Outcome counts per iteration. Conflicts should stay at 0; any there
+     * are mean the refusal path is being timed instead of the booking.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class BookingOutcomes {
+        public long booked;
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            booked = 0;
+            conflicts = 0;
+        }
+    }
+
+    @Benchmark
+    public int bookingTransaction(Dataset d, Picker p, Bookings b, BookingOutcomes outcomes) throws Exception {
+        long slot = b.nextSlot.getAndIncrement();
+        try {
+            int sessionId = SessionQueries.createAppointment(
+                    p.student(d), p.tutor(d), 1 + p.random.nextInt(BenchmarkDataset.SUBJECTS),
+                    1 + p.random.nextInt(BenchmarkDataset.LANGUAGES),
+                    b.date(slot), b.time(slot), "Room 101");
+            b.created.add(sessionId);
+            outcomes.booked++;
+            return sessionId;
+        } catch (ScheduleConflictException e) {
+            outcomes.conflicts++;
+            return -1;
+        }
+    }
+
+    /**
+     * In-memory double-booking pre-check (after the first call per student, no database work).
+     */
+    @Benchmark
+    public Integer studentConflictCheck(Dataset d, Picker p) throws Exception {
+        LocalDate date = LocalDate.now().minusYears(2).plusDays(p.random.nextInt(4 * 365));
+        return ScheduleIndex.findStudentConflict(p.student(d), Date.valueOf(date),
+                Time.valueOf((8 + p.random.nextInt(10)) + ":00:00"), -1);
+    }
+
+    /**
+     * Manager attendance report per tutor over all weeks (sums rollup rows, no Attend scan).
+     */
+    @Benchmark
+    public List<AttendanceRollup.Row> attendanceByTutor(Dataset d) throws Exception {
+        return AttendanceRollup.report(AttendanceRollup.Dimension.TUTOR, null, null);
+    }
+}
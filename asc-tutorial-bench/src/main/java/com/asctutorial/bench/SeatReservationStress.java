@@ -0,0 +1,126 @@
+package com.asctutorial.bench;
+
+import com.asctutorial.util.DatabaseConnection;
+import com.asctutorial.util.SeatReservations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Many parallel bookers against a few sessions: checks that no session ends
+ * up with more registrations than StudLim and reports reservation throughput.
+ * Exits with status 1 when a session is overbooked or its counter is off.
+ *
+ * <pre>
+ *   java -cp asc-tutorial-bench/target/benchmarks.jar com.asctutorial.bench.SeatReservationStress \
+ *        [threads=32] [attempts=20000] [hotSessions=4] [seats=25]
+ * </pre>
+ */
+public class SeatReservationStress {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int attempts = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int hotSessions = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int seats = args.length > 3 ? Integer.parseInt(args[3]) : 25;
+
+        BenchmarkDataset.useEmbeddedDatabase("stress");
+        // no pre-registered students, so every seat below is up for grabs
+        BenchmarkDataset data = new BenchmarkDataset(5000, 50, 100, 0);
+        data.create(42);
+        setSeatLimit(hotSessions, seats);
+
+        Map<SeatReservations.Result, AtomicInteger> outcomes = new EnumMap<>(SeatReservations.Result.class);
+        for (SeatReservations.Result r : SeatReservations.Result.values()) {
+            outcomes.put(r, new AtomicInteger());
+        }
+        AtomicInteger errors = new AtomicInteger();
+        AtomicLong next = new AtomicLong();
+        CountDownLatch go = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                go.await();
+                long i;
+                while ((i = next.getAndIncrement()) < attempts) {
+                    // students repeat across attempts, so duplicate bookings are exercised too
+                    int student = data.firstStudentId() + (int) (i * 7919 % data.students);
+                    int session = 1 + (int) (i % hotSessions);
+                    try {
+                        outcomes.get(SeatReservations.reserve(student, session)).incrementAndGet();
+                    } catch (SQLException e) {
+                        errors.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long start = System.nanoTime();
+        go.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        System.out.printf("%d attempts on %d sessions x %d seats, %d threads: %.0f reservations/s%n",
+                attempts, hotSessions, seats, threads, attempts / seconds);
+        outcomes.forEach((result, count) -> System.out.printf("  %-18s %d%n", result, count.get()));
+        System.out.printf("  %-18s %d%n", "errors", errors.get());
+
+        boolean ok = verify(hotSessions, seats);
+        System.out.println(ok ? "OK: no session overbooked" : "FAILED");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static void setSeatLimit(int hotSessions, int seats) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "UPDATE Session SET StudLim = ?, RegisteredCount = 0 WHERE SessionID <= ?")) {
+            ps.setInt(1, seats);
+            ps.setInt(2, hotSessions);
+            ps.executeUpdate();
+        }
+    }
+
+    private static boolean verify(int hotSessions, int seats) throws SQLException {
+        String sql = """
+                SELECT s.SessionID, s.StudLim, s.RegisteredCount, COUNT(a.SystemID) AS Attendees
+                FROM Session s
+                LEFT JOIN Attend a ON a.SessionID = s.SessionID
+                WHERE s.SessionID <= ?
+                GROUP BY s.SessionID, s.StudLim, s.RegisteredCount
+                ORDER BY s.SessionID
+                """;
+        boolean ok = true;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, hotSessions);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int attendees = rs.getInt("Attendees");
+                    int counter = rs.getInt("RegisteredCount");
+                    System.out.printf("  session %d: %d/%d registered (counter %d)%n",
+                            rs.getInt("SessionID"), attendees, seats, counter);
+                    ok &= attendees <= rs.getInt("StudLim") && attendees == counter;
+                }
+            }
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,178 @@
+package com.asctutorial.app;
+
+import com.asctutorial.util.ChangeLog;
+import com.asctutorial.util.DatabaseConnection;
+import com.asctutorial.util.ReferenceDataCache;
+
+import javax.swing.Timer;
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Polls the ChangeLog for one dashboard and hands it the changes made since
+ * the last poll (by any desk, this one included), so the window can patch
+ * its tables instead of reloading them.
+ *
+ * Versions are AUTO_INCREMENT values and can become visible out of order
+ * (a transaction that took version 10 may commit after 11). The poller
+ * therefore keeps re-reading from the oldest version it has not seen for up
+ * to GAP_TIMEOUT_MILLIS before giving that version up as rolled back.
+ *
+ * Reference data caches are invalidated here for every window; the
+ * dashboard's callback only has to deal with its own tables.
+ */
+class ChangePoller {
+
+    private static final long POLL_MILLIS = Long.parseLong(
+            DatabaseConnection.getConfig().getProperty("db.changes.pollMs", "3000"));
+    private static final int BATCH_LIMIT = 500;
+    private static final long GAP_TIMEOUT_MILLIS = 30_000;
+    private static final int MAX_TRACKED_GAP = 10_000; // bigger jumps are id reservations, not transactions
+
+    private final WindowTasks tasks;
+    private final Consumer<List<ChangeLog.Change>> onChanges;
+    private final Runnable onOverflow;
+    private final Timer timer;
+
+    // EDT only
+    private long baseline = -1;                              // every version <= this has been handled
+    private final Map<Long, Long> gaps = new HashMap<>();    // unseen version -> first noticed at
+    private final Set<Long> seen = new HashSet<>();          // handled versions above the baseline
+    private boolean polling = false;
+
+    /**
+     * @param onChanges  called on the EDT with new changes, oldest first
+     * @param onOverflow called instead when too much changed for patching to be worth it;
+     *                   the window should reload
+     */
+    ChangePoller(Window owner, WindowTasks tasks,
+                 Consumer<List<ChangeLog.Change>> onChanges, Runnable onOverflow) {
+        this.tasks = tasks;
+        this.onChanges = onChanges;
+        this.onOverflow = onOverflow;
+        this.timer = new Timer((int) POLL_MILLIS, e -> poll());
+        this.timer.setRepeats(true);
+
+        owner.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                timer.stop();
+            }
+        });
+    }
+
+    /**
+     * Records the current log position, then runs {@code initialLoad} and
+     * starts polling. Reading the position first means nothing committed
+     * while the window loads can be missed.
+     */
+    void start(Runnable initialLoad) {
+        tasks.runQuietly(
+                ChangeLog::latestVersion,
+                version -> {
+                    baseline = version;
+                    initialLoad.run();
+                    timer.start();
+                },
+                ex -> {
+                    // no change log (e.g. schema not migrated): the window still works, just not live
+                    ex.printStackTrace();
+                    initialLoad.run();
+                }
+        );
+    }
+
+    private void poll() {
+        if (polling || baseline < 0) {
+            return;
+        }
+        polling = true;
+        long from = baseline;
+        tasks.runQuietly(
+                () -> ChangeLog.since(from, BATCH_LIMIT),
+                changes -> {
+                    polling = false;
+                    apply(changes);
+                },
+                ex -> {
+                    // try again next tick; a dropped connection shouldn't spam dialogs
+                    polling = false;
+                    ex.printStackTrace();
+                }
+        );
+    }
+
+    private void apply(List<ChangeLog.Change> changes) {
+        if (changes.size() >= BATCH_LIMIT) {
+            skipTo(changes.get(changes.size() - 1).getVersion());
+            invalidateReferenceData(changes);
+            onOverflow.run();
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long expected = baseline + 1;
+        List<ChangeLog.Change> fresh = new ArrayList<>();
+        for (ChangeLog.Change change : changes) {
+            long version = change.getVersion();
+            for (long v = Math.max(expected, version - MAX_TRACKED_GAP); v < version; v++) {
+                if (!seen.contains(v)) {
+                    gaps.putIfAbsent(v, now);
+                }
+            }
+            expected = Math.max(expected, version + 1);
+            if (seen.add(version)) {
+                gaps.remove(version);
+                if (change.getEntity() != null) {
+                    fresh.add(change);
+                }
+            }
+        }
+        gaps.values().removeIf(noticed -> now - noticed > GAP_TIMEOUT_MILLIS);
+        advanceBaseline();
+
+        if (!fresh.isEmpty()) {
+            invalidateReferenceData(fresh);
+            onChanges.accept(fresh);
+        }
+    }
+
+    /**
+     * Moves the baseline up to the newest version seen, or to just below the
+     * oldest open gap. Every unseen version below the newest seen one is in
+     * {@code gaps} until it times out, so anything else below it was handled.
+     */
+    private void advanceBaseline() {
+        long newestSeen = seen.stream().max(Long::compare).orElse(baseline);
+        long target = gaps.isEmpty()
+                ? newestSeen
+                : Math.min(newestSeen, gaps.keySet().stream().min(Long::compare).get() - 1);
+        if (target > baseline) {
+            baseline = target;
+        }
+        seen.removeIf(v -> v <= baseline);
+    }
+
+    private void skipTo(long version) {
+        baseline = version;
+        seen.clear();
+        gaps.clear();
+    }
+
+    private static void invalidateReferenceData(List<ChangeLog.Change> changes) {
+        for (ChangeLog.Change change : changes) {
+            if (change.getEntity() == ChangeLog.Entity.TUTOR || change.getEntity() == ChangeLog.Entity.SUBJECT) {
+                ReferenceDataCache.invalidate();
+                return;
+            }
+        }
+    }
+}
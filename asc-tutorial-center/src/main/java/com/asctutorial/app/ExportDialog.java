@@ -0,0 +1,116 @@
+package com.asctutorial.app;
+
+import com.asctutorial.util.QueryHandle;
+import com.asctutorial.util.SessionExporter;
+import com.asctutorial.util.SessionFilter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a {@link SessionExporter} export in the background with a progress
+ * bar and a Cancel button. Cancelling (or closing the dialog) stops the
+ * query on the server and discards the partial file.
+ */
+class ExportDialog extends JDialog {
+
+    private final WindowTasks tasks = new WindowTasks(this);
+    private final QueryHandle handle = new QueryHandle();
+    private final AtomicBoolean updateQueued = new AtomicBoolean(); // at most one progress repaint pending
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JLabel lblStatus = new JLabel("Starting...");
+    private final JButton btnCancel = new JButton("Cancel");
+    private volatile long rowsWritten;
+    private volatile long totalRows;
+
+    ExportDialog(Window owner, SessionFilter filter, SessionExporter.Format format, Path target) {
+        super(owner, "Export to " + target.getFileName(), ModalityType.DOCUMENT_MODAL);
+        setSize(420, 150);
+        setLocationRelativeTo(owner);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        initUI();
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                handle.cancel();
+            }
+        });
+        start(filter, format, target);
+    }
+
+    private void initUI() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        progressBar.setStringPainted(true);
+        progressBar.setIndeterminate(true);
+        panel.add(lblStatus, BorderLayout.NORTH);
+        panel.add(progressBar, BorderLayout.CENTER);
+
+        JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        btnPanel.add(btnCancel);
+        panel.add(btnPanel, BorderLayout.SOUTH);
+
+        setContentPane(panel);
+
+        btnCancel.addActionListener(e -> {
+            btnCancel.setEnabled(false);
+            lblStatus.setText("Cancelling...");
+            handle.cancel();
+        });
+    }
+
+    private void start(SessionFilter filter, SessionExporter.Format format, Path target) {
+        tasks.runQuietly(
+                handle.wrap(() -> SessionExporter.export(filter, format, target, this::progress)),
+                rows -> {
+                    dispose();
+                    JOptionPane.showMessageDialog(
+                            getOwner(),
+                            rows + " row(s) exported to\n" + target,
+                            "Export Complete",
+                            JOptionPane.INFORMATION_MESSAGE
+                    );
+                },
+                ex -> {
+                    dispose();
+                    if (handle.isCancelled()) {
+                        return;
+                    }
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(
+                            getOwner(),
+                            "Error exporting sessions:\n" + ex.getMessage(),
+                            "Export Error",
+                            JOptionPane.ERROR_MESSAGE
+                    );
+                }
+        );
+    }
+
+    /**
+     * Called on the export thread; repaints on the EDT, coalescing updates
+     * that arrive faster than Swing can show them.
+     */
+    private void progress(long written, long total) {
+        rowsWritten = written;
+        totalRows = total;
+        if (updateQueued.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                updateQueued.set(false);
+                long done = rowsWritten;
+                long all = Math.max(totalRows, 1);
+                progressBar.setIndeterminate(false);
+                progressBar.setValue((int) Math.min(100, done * 100 / all));
+                if (btnCancel.isEnabled()) {
+                    lblStatus.setText("Exported " + done + " of about " + totalRows + " rows");
+                }
+            });
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.asctutorial.app;
 
 import com.asctutorial.util.DatabaseConnection;
+import com.asctutorial.util.DbExecutor;
+import com.asctutorial.util.Role;
+import com.asctutorial.util.TutorMatcher;
 
 import javax.swing.*;
 import java.awt.*;
@@ -90,56 +93,92 @@ public class LoginWindow extends JFrame {
             return;
         }
 
-        try {
-            PersonInfo person = DatabaseConnection.authenticateAndGetPerson(username, password);
-
-            if (person == null) {
-                JOptionPane.showMessageDialog(
-                        this,
-                        "Invalid credentials.",
-                        "Login Failed",
-                        JOptionPane.ERROR_MESSAGE
-                );
-                return;
-            }
+        btnLogin.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        DbExecutor.submit(
+                () -> DatabaseConnection.authenticateAndGetPerson(username, password),
+                person -> {
+                    btnLogin.setEnabled(true);
+                    setCursor(Cursor.getDefaultCursor());
+                    onAuthenticated(person);
+                },
+                ex -> {
+                    btnLogin.setEnabled(true);
+                    setCursor(Cursor.getDefaultCursor());
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(
+                            this, "Error connecting to database:\n" + ex.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE
+                    );
+                }
+        );
+    }
 
-            JOptionPane.showMessageDialog(this, "Login successful!");
+    private void onAuthenticated(PersonInfo person) {
+        if (person == null) {
+            JOptionPane.showMessageDialog(
+                    this,
+                    "Invalid credentials.",
+                    "Login Failed",
+                    JOptionPane.ERROR_MESSAGE
+            );
+            return;
+        }
 
-            String role = person.getRole();
-            if (role == null) {
-                role = "UNKNOWN";
-            }
-            role = role.toUpperCase();
+        // warm the tutor/subject/language lists and the tutor matcher while the user reads the dialog
+        TutorMatcher.preloadAsync();
 
-            // 🔹 Open the correct dashboard by role
-            switch (role) {
-                case "MANAGER" -> {
-                    ManagerDashboardWindow mdash = new ManagerDashboardWindow(person);
-                    mdash.setVisible(true);
-                }
-                case "TUTOR" -> {
-                    TutorDashboardWindow tdash = new TutorDashboardWindow(person);
-                    tdash.setVisible(true);
-                }
-                case "STUDENT" -> {
-                    StudentDashboardWindow sdash = new StudentDashboardWindow(person);
-                    sdash.setVisible(true);
-                }
-                default -> {
-                    // fallback generic dashboard if something is off
-                    DashboardWindow dashboard = new DashboardWindow(person.getUserName());
-                    dashboard.setVisible(true);
-                }
+        JOptionPane.showMessageDialog(this, "Login successful!");
+
+        Role role = chooseRole(person);
+        if (role == null && !person.getRoles().isEmpty()) {
+            return; // picker dismissed: stay on the login screen
+        }
+
+        // 🔹 Open the correct dashboard by role
+        switch (role == null ? "UNKNOWN" : role.name()) {
+            case "MANAGER" -> {
+                ManagerDashboardWindow mdash = new ManagerDashboardWindow(person);
+                mdash.setVisible(true);
+            }
+            case "TUTOR" -> {
+                TutorDashboardWindow tdash = new TutorDashboardWindow(person);
+                tdash.setVisible(true);
+            }
+            case "STUDENT" -> {
+                StudentDashboardWindow sdash = new StudentDashboardWindow(person);
+                sdash.setVisible(true);
+            }
+            default -> {
+                // fallback generic dashboard if something is off
+                DashboardWindow dashboard = new DashboardWindow(person.getUserName());
+                dashboard.setVisible(true);
             }
+        }
 
-            // close login window
-            dispose();
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(
-                    this, "Error connecting to database:\n" + ex.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE
-            );
+        // close login window
+        dispose();
+    }
+
+    /**
+     * The only role, or the one picked when the person holds several
+     * (e.g. a tutor can also open the student dashboard). Null if the person
+     * has no role or closes the picker.
+     */
+    private Role chooseRole(PersonInfo person) {
+        Role[] roles = person.getRoles().toArray(new Role[0]);
+        if (roles.length <= 1) {
+            return roles.length == 1 ? roles[0] : null;
         }
+        Role preferred = roles[roles.length - 1]; // highest role
+        return (Role) JOptionPane.showInputDialog(
+                this,
+                "You have more than one role. Which dashboard do you want to open?",
+                "Choose Dashboard",
+                JOptionPane.QUESTION_MESSAGE,
+                null,
+                roles,
+                preferred
+        );
     }
 }
@@ -1,10 +1,19 @@
 package com.asctutorial.app;
 
+import com.asctutorial.util.ChangeLog;
+import com.asctutorial.util.DbExecutor;
+import com.asctutorial.util.SchemaMigrator;
+
 import javax.swing.SwingUtilities;
 
 public class MainWindow {
 
     public static void main(String[] args) {
+        // bring the schema up to date before any window queries it
+        SchemaMigrator.migrateOnStartup();
+        // trim the dashboards' change log; nobody waits for this
+        DbExecutor.submit(ChangeLog::prune, null, null);
+
         SwingUtilities.invokeLater(() -> {
             LoginWindow login = new LoginWindow();
             login.setVisible(true);
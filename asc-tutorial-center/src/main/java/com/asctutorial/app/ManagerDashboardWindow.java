@@ -1,37 +1,63 @@
 package com.asctutorial.app;
 
-import com.asctutorial.util.DatabaseConnection;
+import com.asctutorial.util.AttendanceRollup;
+import com.asctutorial.util.BulkPersonImporter;
+import com.asctutorial.util.ChangeLog;
+import com.asctutorial.util.LookupItem;
+import com.asctutorial.util.PersonQueries;
+import com.asctutorial.util.ReferenceDataCache;
+import com.asctutorial.util.ReferenceQueries;
+import com.asctutorial.util.SessionExporter;
+import com.asctutorial.util.SessionFilter;
+import com.asctutorial.util.SessionQueries;
+import com.asctutorial.util.SummaryStats;
+import com.asctutorial.util.SummaryStatsCache;
 
 import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.sql.*;
+import java.nio.file.Path;
+import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class ManagerDashboardWindow extends JFrame {
 
     private final PersonInfo manager;
+    private final WindowTasks tasks = new WindowTasks(this);
+    private final ChangePoller changes = new ChangePoller(this, tasks, this::applyChanges, this::reloadAll);
 
     private JLabel lblStudentCount;
     private JLabel lblTutorCount;
     private JLabel lblSessionCount;
     private JTable tblSessions;
+    private SessionPageModel sessionModel;
 
     private JButton btnAddStudent;
     private JButton btnAddTutor;
     private JButton btnAddSubject;
+    private JButton btnImport;
+    private JButton btnExport;
     private JButton btnCancelSession;
+    private JButton btnAttendance;
 
     public ManagerDashboardWindow(PersonInfo manager) {
         this.manager = manager;
         setTitle("Manager Dashboard - ASC Tutorial Center");
-        setSize(900, 500);
+        setSize(1100, 550);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
 
         initUI();
-        loadSummaryStats();
-        loadSessionsTable();
+        changes.start(this::reloadAll);
     }
 
     // ===================== UI SETUP =====================
@@ -62,13 +88,24 @@ public class ManagerDashboardWindow extends JFrame {
         summaryPanel.add(Box.createVerticalStrut(5));
         summaryPanel.add(lblSessionCount);
 
-        // Center: sessions table
+        // Center: sessions table (paged; only the visible rows are fetched)
         JPanel tablePanel = new JPanel(new BorderLayout());
-        tablePanel.setBorder(BorderFactory.createTitledBorder("Upcoming Sessions"));
-        tblSessions = new JTable();
+        TitledBorder tableBorder = BorderFactory.createTitledBorder("Upcoming Sessions");
+        tablePanel.setBorder(tableBorder);
+        sessionModel = new SessionPageModel(tasks, this::showSessionsError);
+        tblSessions = new JTable(sessionModel);
+        tblSessions.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         JScrollPane scroll = new JScrollPane(tblSessions);
         tablePanel.add(scroll, BorderLayout.CENTER);
 
+        // search runs in the database; the model re-counts and pages through the matches
+        SessionSearchPanel search = new SessionSearchPanel(tasks, true, filter -> {
+            tableBorder.setTitle(filter.isUpcomingOnly() ? "Upcoming Sessions" : "All Sessions");
+            tablePanel.repaint();
+            sessionModel.setFilter(filter);
+        });
+        tablePanel.add(search, BorderLayout.NORTH);
+
         JSplitPane split = new JSplitPane(
                 JSplitPane.HORIZONTAL_SPLIT,
                 summaryPanel,
@@ -79,15 +116,22 @@ public class ManagerDashboardWindow extends JFrame {
 
         // Bottom: action buttons
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 5));
+        bottomPanel.add(tasks.getIndicator());
         btnAddStudent = new JButton("Add Student");
         btnAddTutor = new JButton("Add Tutor");
         btnAddSubject = new JButton("Add Subject");
+        btnImport = new JButton("Import CSV...");
+        btnExport = new JButton("Export...");
         btnCancelSession = new JButton("Cancel Session");
+        btnAttendance = new JButton("Attendance Report...");
 
         bottomPanel.add(btnAddStudent);
         bottomPanel.add(btnAddTutor);
         bottomPanel.add(btnAddSubject);
+        bottomPanel.add(btnImport);
+        bottomPanel.add(btnExport);
         bottomPanel.add(btnCancelSession);
+        bottomPanel.add(btnAttendance);
 
         root.add(bottomPanel, BorderLayout.SOUTH);
 
@@ -95,7 +139,10 @@ public class ManagerDashboardWindow extends JFrame {
         btnAddStudent.addActionListener(e -> openAddStudentDialog());
         btnAddTutor.addActionListener(e -> openAddTutorDialog());
         btnAddSubject.addActionListener(e -> openAddSubjectDialog());
-        btnCancelSession.addActionListener(e -> cancelSelectedSession());
+        btnImport.addActionListener(e -> importPeopleFromCsv());
+        btnExport.addActionListener(e -> exportSessions());
+        btnCancelSession.addActionListener(e -> cancelSelectedSessions());
+        btnAttendance.addActionListener(e -> openAttendanceReport());
 
         setContentPane(root);
     }
@@ -103,113 +150,133 @@ public class ManagerDashboardWindow extends JFrame {
     // ===================== LOAD DATA =====================
 
     private void loadSummaryStats() {
-        String sqlStudents = "SELECT COUNT(*) FROM Student";
-        String sqlTutors = "SELECT COUNT(*) FROM Tutor";
-        String sqlSessions = "SELECT COUNT(*) FROM Session";
-
-        try (Connection conn = DatabaseConnection.getConnection()) {
-
-            try (PreparedStatement ps = conn.prepareStatement(sqlStudents);
-                 ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    lblStudentCount.setText("Students: " + rs.getInt(1));
+        // usually served from the counter cache without a round trip
+        SummaryStats cached = SummaryStatsCache.peek();
+        if (cached != null) {
+            showSummaryStats(cached);
+            return;
+        }
+        tasks.run(
+                SummaryStatsCache::get,
+                this::showSummaryStats,
+                ex -> {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(
+                            this,
+                            "Error loading summary stats:\n" + ex.getMessage(),
+                            "DB Error",
+                            JOptionPane.ERROR_MESSAGE
+                    );
                 }
-            }
+        );
+    }
 
-            try (PreparedStatement ps = conn.prepareStatement(sqlTutors);
-                 ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    lblTutorCount.setText("Tutors: " + rs.getInt(1));
-                }
-            }
+    private void showSummaryStats(SummaryStats stats) {
+        lblStudentCount.setText("Students: " + stats.getStudents());
+        lblTutorCount.setText("Tutors: " + stats.getTutors());
+        lblSessionCount.setText("Sessions: " + stats.getSessions());
+    }
 
-            try (PreparedStatement ps = conn.prepareStatement(sqlSessions);
-                 ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    lblSessionCount.setText("Sessions: " + rs.getInt(1));
-                }
-            }
+    private void loadSessionsTable() {
+        sessionModel.reload();
+    }
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Error loading summary stats:\n" + ex.getMessage(),
-                    "DB Error",
-                    JOptionPane.ERROR_MESSAGE
-            );
-        }
+    private void reloadAll() {
+        loadSummaryStats();
+        loadSessionsTable();
     }
 
-    private void loadSessionsTable() {
-        String[] cols = {"SessionID", "Date", "Time", "Subject", "Tutor", "Location", "Limit"};
-        DefaultTableModel model = new DefaultTableModel(cols, 0);
-
-        String sql = """
-                SELECT
-                    s.SessionID,
-                    s.SessionDate,
-                    s.SessionTime,
-                    subj.SubjectName,
-                    CONCAT(p.FirstName, ' ', p.LastName) AS TutorName,
-                    s.Location,
-                    s.StudLim
-                FROM Session s
-                JOIN SubjectsOffered subj ON s.SubjectID = subj.SubjectID
-                JOIN Tutor t ON s.SystemID = t.SystemID
-                JOIN Person p ON t.SystemID = p.SystemID
-                ORDER BY s.SessionDate, s.SessionTime
-                """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                Object[] row = {
-                        rs.getInt("SessionID"),
-                        rs.getDate("SessionDate"),
-                        rs.getTime("SessionTime"),
-                        rs.getString("SubjectName"),
-                        rs.getString("TutorName"),
-                        rs.getString("Location"),
-                        rs.getInt("StudLim")
-                };
-                model.addRow(row);
+    /**
+     * Patches the counters and the session table with changes from any desk.
+     * Only the changed sessions are re-read, plus one COUNT to verify the
+     * paged model still lines up.
+     */
+    private void applyChanges(List<ChangeLog.Change> changed) {
+        Map<Integer, ChangeLog.Op> sessionOps = new LinkedHashMap<>();
+        boolean countsChanged = false;
+        for (ChangeLog.Change change : changed) {
+            if (change.getEntity() == ChangeLog.Entity.SESSION) {
+                sessionOps.put(change.getKey(), change.getOp());
             }
-            tblSessions.setModel(model);
+            if (change.getOp() != ChangeLog.Op.UPDATE && change.getEntity() != ChangeLog.Entity.SUBJECT) {
+                countsChanged = true;
+            }
+        }
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Error loading sessions:\n" + ex.getMessage(),
-                    "DB Error",
-                    JOptionPane.ERROR_MESSAGE
-            );
+        if (countsChanged) {
+            SummaryStatsCache.invalidate();
+            loadSummaryStats();
+        }
+        if (sessionOps.isEmpty()) {
+            return;
         }
+        SessionFilter filter = sessionModel.getFilter();
+        tasks.runQuietly(
+                () -> new Object[]{
+                        SessionQueries.loadManagerSessionsById(filter, sessionOps.keySet()),
+                        SessionQueries.countManagerSessions(filter)
+                },
+                result -> {
+                    @SuppressWarnings("unchecked")
+                    List<Object[]> rows = (List<Object[]>) result[0];
+                    sessionModel.applyChanges(sessionOps, rows, filter, (Integer) result[1]);
+                },
+                Exception::printStackTrace
+        );
+    }
+
+    private void showSessionsError(Exception ex) {
+        ex.printStackTrace();
+        JOptionPane.showMessageDialog(
+                this,
+                "Error loading sessions:\n" + ex.getMessage(),
+                "DB Error",
+                JOptionPane.ERROR_MESSAGE
+        );
     }
 
     // ===================== CANCEL SESSION =====================
 
-    private void cancelSelectedSession() {
-        int row = tblSessions.getSelectedRow();
-        if (row < 0) {
+    private void cancelSelectedSessions() {
+        int[] rows = tblSessions.getSelectedRows();
+        if (rows.length == 0) {
             JOptionPane.showMessageDialog(
                     this,
-                    "Please select a session to cancel.",
+                    "Please select one or more sessions to cancel.",
                     "No Selection",
                     JOptionPane.WARNING_MESSAGE
             );
             return;
         }
 
-        int sessionId = (int) tblSessions.getValueAt(row, 0);
+        Set<Integer> sessionIds = new LinkedHashSet<>();
+        boolean loading = false;
+        for (int row : rows) {
+            Object selectedId = tblSessions.getValueAt(row, 0); // schedules the row's page if it isn't loaded
+            if (selectedId == null) {
+                loading = true;
+            } else {
+                sessionIds.add((Integer) selectedId);
+            }
+        }
+        if (loading) {
+            JOptionPane.showMessageDialog(
+                    this,
+                    "Some of the selected sessions are still loading.\nPlease try again in a moment.",
+                    "Still Loading",
+                    JOptionPane.INFORMATION_MESSAGE
+            );
+            return;
+        }
 
+        String what = sessionIds.size() == 1
+                ? "Session ID " + sessionIds.iterator().next()
+                : sessionIds.size() + " sessions";
         int confirm = JOptionPane.showConfirmDialog(
                 this,
-                "Are you sure you want to cancel Session ID " + sessionId + "?\n"
-                        + "This will remove the session and all student registrations.",
+                "Are you sure you want to cancel " + what + "?\n"
+                        + "This will remove the session" + (sessionIds.size() == 1 ? "" : "s")
+                        + " and all student registrations.",
                 "Confirm Cancel Session",
                 JOptionPane.YES_NO_OPTION
         );
@@ -218,48 +285,40 @@ public class ManagerDashboardWindow extends JFrame {
             return;
         }
 
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            conn.setAutoCommit(false);
-
-            // First delete all registrations for this session
-            try (PreparedStatement ps = conn.prepareStatement(
-                    "DELETE FROM Attend WHERE SessionID = ?")) {
-                ps.setInt(1, sessionId);
-                ps.executeUpdate();
-            }
-
-            // Then delete the session itself
-            try (PreparedStatement ps = conn.prepareStatement(
-                    "DELETE FROM Session WHERE SessionID = ?")) {
-                ps.setInt(1, sessionId);
-                ps.executeUpdate();
-            }
-
-            conn.commit();
-
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Session " + sessionId + " cancelled successfully.",
-                    "Success",
-                    JOptionPane.INFORMATION_MESSAGE
-            );
-
-            loadSummaryStats();
-            loadSessionsTable();
-
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Error cancelling session:\n" + ex.getMessage(),
-                    "DB Error",
-                    JOptionPane.ERROR_MESSAGE
-            );
-        }
+        btnCancelSession.setEnabled(false);
+        tasks.run(
+                () -> SessionQueries.cancelSessions(sessionIds),
+                removed -> {
+                    btnCancelSession.setEnabled(true);
+                    sessionModel.removeSessions(sessionIds);
+                    loadSummaryStats();
+
+                    JOptionPane.showMessageDialog(
+                            this,
+                            (sessionIds.size() == 1 ? what : removed + " sessions") + " cancelled successfully.",
+                            "Success",
+                            JOptionPane.INFORMATION_MESSAGE
+                    );
+                },
+                ex -> {
+                    btnCancelSession.setEnabled(true);
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(
+                            this,
+                            "Error cancelling sessions:\n" + ex.getMessage(),
+                            "DB Error",
+                            JOptionPane.ERROR_MESSAGE
+                    );
+                }
+        );
     }
 
     // ===================== DIALOG LAUNCHERS =====================
 
+    private void openAttendanceReport() {
+        new AttendanceReportDialog(this).setVisible(true);
+    }
+
     private void openAddStudentDialog() {
         AddStudentDialog dlg = new AddStudentDialog(this);
         dlg.setVisible(true);
@@ -282,6 +341,86 @@ public class ManagerDashboardWindow extends JFrame {
         // subjects not in summary; nothing else to refresh
     }
 
+    // ===================== BULK IMPORT =====================
+
+    private void importPeopleFromCsv() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import Students / Tutors");
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV files", "csv"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+
+        btnImport.setEnabled(false);
+        tasks.run(
+                () -> new BulkPersonImporter(manager.getSystemId()).importFile(file),
+                result -> {
+                    btnImport.setEnabled(true);
+                    showImportResult(result);
+                    loadSummaryStats();
+                },
+                ex -> {
+                    btnImport.setEnabled(true);
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(
+                            this,
+                            "Error importing file:\n" + ex.getMessage(),
+                            "Import Error",
+                            JOptionPane.ERROR_MESSAGE
+                    );
+                }
+        );
+    }
+
+    private void showImportResult(BulkPersonImporter.Result result) {
+        StringBuilder text = new StringBuilder();
+        text.append("Rows read: ").append(result.getRowsRead()).append('\n')
+                .append("Students imported: ").append(result.getStudentsImported()).append('\n')
+                .append("Tutors imported: ").append(result.getTutorsImported()).append('\n')
+                .append("Rows rejected: ").append(result.getErrors().size()).append('\n');
+        for (BulkPersonImporter.RowError error : result.getErrors()) {
+            text.append('\n').append(error);
+        }
+
+        JTextArea area = new JTextArea(text.toString(), 12, 50);
+        area.setEditable(false);
+        JOptionPane.showMessageDialog(
+                this,
+                new JScrollPane(area),
+                "Import Finished",
+                result.getErrors().isEmpty() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE
+        );
+    }
+
+    // ===================== EXPORT =====================
+
+    /**
+     * Exports the sessions matching the current search, with their registrations.
+     */
+    private void exportSessions() {
+        FileNameExtensionFilter csv = new FileNameExtensionFilter("CSV files", "csv");
+        FileNameExtensionFilter columnar = new FileNameExtensionFilter("Columnar binary (.ascx)", "ascx");
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export Sessions");
+        chooser.addChoosableFileFilter(csv);
+        chooser.addChoosableFileFilter(columnar);
+        chooser.setAcceptAllFileFilterUsed(false);
+        chooser.setFileFilter(csv);
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        SessionExporter.Format format = chooser.getFileFilter() == columnar
+                ? SessionExporter.Format.COLUMNAR
+                : SessionExporter.Format.CSV;
+        Path file = chooser.getSelectedFile().toPath();
+        if (!file.getFileName().toString().toLowerCase().endsWith(format.getExtension())) {
+            file = file.resolveSibling(file.getFileName() + format.getExtension());
+        }
+
+        new ExportDialog(this, sessionModel.getFilter(), format, file).setVisible(true);
+    }
+
     // ===================== ADD STUDENT DIALOG =====================
 
     private static class AddStudentDialog extends JDialog {
@@ -293,11 +432,13 @@ public class ManagerDashboardWindow extends JFrame {
         private JTextField txtUserName;
         private JTextField txtPassword;
         private JTextField txtPreferredLanguage;
+        private JButton btnSave;
+        private final WindowTasks tasks = new WindowTasks(this);
         private boolean saved = false;
 
         AddStudentDialog(JFrame parent) {
             super(parent, "Add Student", true);
-            setSize(400, 350);
+            setSize(400, 380);
             setLocationRelativeTo(parent);
             initUI();
         }
@@ -370,7 +511,7 @@ public class ManagerDashboardWindow extends JFrame {
             row++;
 
             JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-            JButton btnSave = new JButton("Save");
+            btnSave = new JButton("Save");
             JButton btnCancel = new JButton("Cancel");
             btnPanel.add(btnSave);
             btnPanel.add(btnCancel);
@@ -380,6 +521,11 @@ public class ManagerDashboardWindow extends JFrame {
             gbc.gridwidth = 2;
             gbc.anchor = GridBagConstraints.EAST;
             panel.add(btnPanel, gbc);
+            row++;
+
+            gbc.gridy = row;
+            gbc.anchor = GridBagConstraints.CENTER;
+            panel.add(tasks.getIndicator(), gbc);
 
             setContentPane(panel);
 
@@ -407,69 +553,31 @@ public class ManagerDashboardWindow extends JFrame {
                 return;
             }
 
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                conn.setAutoCommit(false);
-
-                // Next SystemID
-                int newSystemId = 0;
-                try (PreparedStatement ps = conn.prepareStatement(
-                        "SELECT COALESCE(MAX(SystemID), 0) + 1 AS NewID FROM Person");
-                     ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        newSystemId = rs.getInt("NewID");
+            btnSave.setEnabled(false);
+            tasks.run(
+                    () -> PersonQueries.addStudent(
+                            firstName, lastName, email, phone, username, password, prefLang),
+                    systemId -> {
+                        saved = true;
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Student added successfully!",
+                                "Success",
+                                JOptionPane.INFORMATION_MESSAGE
+                        );
+                        dispose();
+                    },
+                    ex -> {
+                        btnSave.setEnabled(true);
+                        ex.printStackTrace();
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Error adding student:\n" + ex.getMessage(),
+                                "DB Error",
+                                JOptionPane.ERROR_MESSAGE
+                        );
                     }
-                }
-
-                // Insert into Person
-                String insertPerson = """
-                        INSERT INTO Person
-                            (SystemID, FirstName, LastName, Email, PhoneNum, UserName, Password)
-                        VALUES (?, ?, ?, ?, ?, ?, ?)
-                        """;
-
-                try (PreparedStatement ps = conn.prepareStatement(insertPerson)) {
-                    ps.setInt(1, newSystemId);
-                    ps.setString(2, firstName);
-                    ps.setString(3, lastName);
-                    ps.setString(4, email);
-                    ps.setString(5, phone);
-                    ps.setString(6, username);
-                    ps.setString(7, password);
-                    ps.executeUpdate();
-                }
-
-                // Insert into Student
-                String insertStudent = """
-                        INSERT INTO Student (SystemID, PreferredLanguage)
-                        VALUES (?, ?)
-                        """;
-
-                try (PreparedStatement ps = conn.prepareStatement(insertStudent)) {
-                    ps.setInt(1, newSystemId);
-                    ps.setString(2, prefLang);
-                    ps.executeUpdate();
-                }
-
-                conn.commit();
-                saved = true;
-
-                JOptionPane.showMessageDialog(
-                        this,
-                        "Student added successfully!",
-                        "Success",
-                        JOptionPane.INFORMATION_MESSAGE
-                );
-                dispose();
-
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(
-                        this,
-                        "Error adding student:\n" + ex.getMessage(),
-                        "DB Error",
-                        JOptionPane.ERROR_MESSAGE
-                );
-            }
+            );
         }
     }
 
@@ -487,12 +595,14 @@ public class ManagerDashboardWindow extends JFrame {
         private JTextField txtPassword;
         private JTextField txtPreferredLanguage;
         private JTextField txtDateHired; // yyyy-mm-dd
+        private JButton btnSave;
+        private final WindowTasks tasks = new WindowTasks(this);
         private boolean saved = false;
 
         AddTutorDialog(JFrame parent, PersonInfo manager) {
             super(parent, "Add Tutor", true);
             this.manager = manager;
-            setSize(400, 380);
+            setSize(400, 410);
             setLocationRelativeTo(parent);
             initUI();
         }
@@ -573,7 +683,7 @@ public class ManagerDashboardWindow extends JFrame {
             row++;
 
             JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-            JButton btnSave = new JButton("Save");
+            btnSave = new JButton("Save");
             JButton btnCancel = new JButton("Cancel");
             btnPanel.add(btnSave);
             btnPanel.add(btnCancel);
@@ -583,6 +693,11 @@ public class ManagerDashboardWindow extends JFrame {
             gbc.gridwidth = 2;
             gbc.anchor = GridBagConstraints.EAST;
             panel.add(btnPanel, gbc);
+            row++;
+
+            gbc.gridy = row;
+            gbc.anchor = GridBagConstraints.CENTER;
+            panel.add(tasks.getIndicator(), gbc);
 
             setContentPane(panel);
 
@@ -611,82 +726,45 @@ public class ManagerDashboardWindow extends JFrame {
                 return;
             }
 
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                conn.setAutoCommit(false);
-
-                // Next SystemID
-                int newSystemId = 0;
-                try (PreparedStatement ps = conn.prepareStatement(
-                        "SELECT COALESCE(MAX(SystemID), 0) + 1 AS NewID FROM Person");
-                     ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        newSystemId = rs.getInt("NewID");
-                    }
-                }
-
-                // Insert into Person
-                String insertPerson = """
-                        INSERT INTO Person
-                            (SystemID, FirstName, LastName, Email, PhoneNum, UserName, Password)
-                        VALUES (?, ?, ?, ?, ?, ?, ?)
-                        """;
-
-                try (PreparedStatement ps = conn.prepareStatement(insertPerson)) {
-                    ps.setInt(1, newSystemId);
-                    ps.setString(2, firstName);
-                    ps.setString(3, lastName);
-                    ps.setString(4, email);
-                    ps.setString(5, phone);
-                    ps.setString(6, username);
-                    ps.setString(7, password);
-                    ps.executeUpdate();
-                }
-
-                // Insert into Student (Tutor.SystemID FK -> Student.SystemID)
-                String insertStudent = """
-                        INSERT INTO Student (SystemID, PreferredLanguage)
-                        VALUES (?, ?)
-                        """;
-
-                try (PreparedStatement ps = conn.prepareStatement(insertStudent)) {
-                    ps.setInt(1, newSystemId);
-                    ps.setString(2, prefLang);
-                    ps.executeUpdate();
-                }
-
-                // Insert into Tutor
-                String insertTutor = """
-                        INSERT INTO Tutor (SystemID, DateHired, ManagedBy)
-                        VALUES (?, ?, ?)
-                        """;
-
-                try (PreparedStatement ps = conn.prepareStatement(insertTutor)) {
-                    ps.setInt(1, newSystemId);
-                    ps.setDate(2, Date.valueOf(dateHiredStr));
-                    ps.setInt(3, manager.getSystemId()); // this manager manages the tutor
-                    ps.executeUpdate();
-                }
-
-                conn.commit();
-                saved = true;
-
+            Date dateHired;
+            try {
+                dateHired = Date.valueOf(dateHiredStr);
+            } catch (IllegalArgumentException ex) {
                 JOptionPane.showMessageDialog(
                         this,
-                        "Tutor added successfully!",
-                        "Success",
-                        JOptionPane.INFORMATION_MESSAGE
-                );
-                dispose();
-
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(
-                        this,
-                        "Error adding tutor:\n" + ex.getMessage(),
-                        "DB Error",
-                        JOptionPane.ERROR_MESSAGE
+                        "Date hired must be YYYY-MM-DD.",
+                        "Validation Error",
+                        JOptionPane.WARNING_MESSAGE
                 );
+                return;
             }
+
+            btnSave.setEnabled(false);
+            tasks.run(
+                    () -> PersonQueries.addTutor(
+                            firstName, lastName, email, phone, username, password, prefLang,
+                            dateHired, manager.getSystemId()),
+                    systemId -> {
+                        saved = true;
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Tutor added successfully!",
+                                "Success",
+                                JOptionPane.INFORMATION_MESSAGE
+                        );
+                        dispose();
+                    },
+                    ex -> {
+                        btnSave.setEnabled(true);
+                        ex.printStackTrace();
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Error adding tutor:\n" + ex.getMessage(),
+                                "DB Error",
+                                JOptionPane.ERROR_MESSAGE
+                        );
+                    }
+            );
         }
     }
 
@@ -695,11 +773,13 @@ public class ManagerDashboardWindow extends JFrame {
     private static class AddSubjectDialog extends JDialog {
 
         private JTextField txtSubjectName;
+        private JButton btnSave;
+        private final WindowTasks tasks = new WindowTasks(this);
         private boolean saved = false;
 
         AddSubjectDialog(JFrame parent) {
             super(parent, "Add Subject", true);
-            setSize(350, 180);
+            setSize(350, 210);
             setLocationRelativeTo(parent);
             initUI();
         }
@@ -724,7 +804,7 @@ public class ManagerDashboardWindow extends JFrame {
             row++;
 
             JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-            JButton btnSave = new JButton("Save");
+            btnSave = new JButton("Save");
             JButton btnCancel = new JButton("Cancel");
             btnPanel.add(btnSave);
             btnPanel.add(btnCancel);
@@ -734,6 +814,11 @@ public class ManagerDashboardWindow extends JFrame {
             gbc.gridwidth = 2;
             gbc.anchor = GridBagConstraints.EAST;
             panel.add(btnPanel, gbc);
+            row++;
+
+            gbc.gridy = row;
+            gbc.anchor = GridBagConstraints.CENTER;
+            panel.add(tasks.getIndicator(), gbc);
 
             setContentPane(panel);
 
@@ -753,47 +838,168 @@ public class ManagerDashboardWindow extends JFrame {
                 return;
             }
 
-            try (Connection conn = DatabaseConnection.getConnection()) {
-
-                int newSubjectId = 0;
-                try (PreparedStatement ps = conn.prepareStatement(
-                        "SELECT COALESCE(MAX(SubjectID), 0) + 1 AS NewID FROM SubjectsOffered");
-                     ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        newSubjectId = rs.getInt("NewID");
+            btnSave.setEnabled(false);
+            tasks.run(
+                    () -> ReferenceQueries.addSubject(subjectName),
+                    subjectId -> {
+                        saved = true;
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Subject added successfully!",
+                                "Success",
+                                JOptionPane.INFORMATION_MESSAGE
+                        );
+                        dispose();
+                    },
+                    ex -> {
+                        btnSave.setEnabled(true);
+                        ex.printStackTrace();
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Error adding subject:\n" + ex.getMessage(),
+                                "DB Error",
+                                JOptionPane.ERROR_MESSAGE
+                        );
                     }
-                }
+            );
+        }
+    }
 
-                String insertSubject = """
-                        INSERT INTO SubjectsOffered (SubjectID, SubjectName)
-                        VALUES (?, ?)
-                        """;
+    // ===================== ATTENDANCE REPORT DIALOG =====================
+
+    /**
+     * Attendance and no-show rates per tutor, subject, language or week,
+     * read from the attendance rollup.
+     */
+    private static class AttendanceReportDialog extends JDialog {
+
+        private static final String[] COLUMNS =
+                {"", "Registered", "Attended", "No-Show", "Attendance %", "No-Show %"};
+
+        private static final Map<String, AttendanceRollup.Dimension> GROUPINGS = new LinkedHashMap<>();
+        private static final Map<String, Integer> PERIODS = new LinkedHashMap<>(); // label -> weeks, 0 = all
+
+        static {
+            GROUPINGS.put("Tutor", AttendanceRollup.Dimension.TUTOR);
+            GROUPINGS.put("Subject", AttendanceRollup.Dimension.SUBJECT);
+            GROUPINGS.put("Language", AttendanceRollup.Dimension.LANGUAGE);
+            GROUPINGS.put("Week", AttendanceRollup.Dimension.WEEK);
+            PERIODS.put("Last 4 weeks", 4);
+            PERIODS.put("Last 12 weeks", 12);
+            PERIODS.put("Last 52 weeks", 52);
+            PERIODS.put("All time", 0);
+        }
 
-                try (PreparedStatement ps = conn.prepareStatement(insertSubject)) {
-                    ps.setInt(1, newSubjectId);
-                    ps.setString(2, subjectName);
-                    ps.executeUpdate();
-                }
+        private final WindowTasks tasks = new WindowTasks(this);
+        private final DefaultTableModel reportModel = new DefaultTableModel(COLUMNS, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        private final JComboBox<String> cboGroupBy = new JComboBox<>(GROUPINGS.keySet().toArray(new String[0]));
+        private final JComboBox<String> cboPeriod = new JComboBox<>(PERIODS.keySet().toArray(new String[0]));
+        private int latestRequest = 0; // only the newest report is shown when options change quickly
+
+        AttendanceReportDialog(JFrame parent) {
+            super(parent, "Attendance Report", true);
+            setSize(700, 420);
+            setLocationRelativeTo(parent);
+            initUI();
+            loadReport();
+        }
 
-                saved = true;
+        private void initUI() {
+            JPanel panel = new JPanel(new BorderLayout(10, 10));
+            panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-                JOptionPane.showMessageDialog(
-                        this,
-                        "Subject added successfully!",
-                        "Success",
-                        JOptionPane.INFORMATION_MESSAGE
-                );
-                dispose();
+            JPanel options = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+            options.add(new JLabel("Group by:"));
+            options.add(cboGroupBy);
+            options.add(new JLabel("Period:"));
+            options.add(cboPeriod);
+            panel.add(options, BorderLayout.NORTH);
 
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(
-                        this,
-                        "Error adding subject:\n" + ex.getMessage(),
-                        "DB Error",
-                        JOptionPane.ERROR_MESSAGE
-                );
+            panel.add(new JScrollPane(new JTable(reportModel)), BorderLayout.CENTER);
+
+            JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            btnPanel.add(tasks.getIndicator());
+            JButton btnClose = new JButton("Close");
+            btnPanel.add(btnClose);
+            panel.add(btnPanel, BorderLayout.SOUTH);
+
+            setContentPane(panel);
+
+            cboGroupBy.addActionListener(e -> loadReport());
+            cboPeriod.addActionListener(e -> loadReport());
+            btnClose.addActionListener(e -> dispose());
+        }
+
+        private void loadReport() {
+            String grouping = (String) cboGroupBy.getSelectedItem();
+            AttendanceRollup.Dimension by = GROUPINGS.get(grouping);
+            int weeks = PERIODS.get((String) cboPeriod.getSelectedItem());
+            LocalDate from = weeks == 0 ? null
+                    : AttendanceRollup.weekStart(LocalDate.now()).minusWeeks(weeks - 1);
+            int request = ++latestRequest;
+
+            tasks.run(
+                    () -> {
+                        List<AttendanceRollup.Row> report = AttendanceRollup.report(by, from, null);
+                        Map<Integer, String> names = by == AttendanceRollup.Dimension.WEEK ? Map.of()
+                                : names(by, ReferenceDataCache.get());
+                        List<Object[]> rows = new ArrayList<>();
+                        for (AttendanceRollup.Row row : report) {
+                            Object label = row.getKey() instanceof Integer id
+                                    ? names.getOrDefault(id, id == 0 ? "(none)" : "#" + id)
+                                    : row.getKey();
+                            rows.add(new Object[]{
+                                    label,
+                                    row.getRegistered(),
+                                    row.getAttended(),
+                                    row.getNoShow(),
+                                    percent(row.getAttendanceRate()),
+                                    percent(row.getNoShowRate())
+                            });
+                        }
+                        return rows;
+                    },
+                    rows -> {
+                        if (request != latestRequest) {
+                            return;
+                        }
+                        String[] columns = COLUMNS.clone();
+                        columns[0] = grouping;
+                        reportModel.setDataVector(rows.toArray(new Object[0][]), columns);
+                    },
+                    ex -> {
+                        ex.printStackTrace();
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Error loading attendance report:\n" + ex.getMessage(),
+                                "DB Error",
+                                JOptionPane.ERROR_MESSAGE
+                        );
+                    }
+            );
+        }
+
+        private static Map<Integer, String> names(AttendanceRollup.Dimension by, ReferenceDataCache.Snapshot data) {
+            List<LookupItem> items = switch (by) {
+                case TUTOR -> data.getTutors();
+                case SUBJECT -> data.getSubjects();
+                case LANGUAGE -> data.getLanguages();
+                case WEEK -> List.of();
+            };
+            Map<Integer, String> names = new HashMap<>();
+            for (LookupItem item : items) {
+                names.put(item.getId(), item.getLabel());
             }
+            return names;
+        }
+
+        private static String percent(Double rate) {
+            return rate == null ? "-" : String.format("%.1f%%", rate * 100);
         }
     }
 }
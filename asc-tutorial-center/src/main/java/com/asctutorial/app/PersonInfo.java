@@ -1,19 +1,23 @@
 package com.asctutorial.app;
 
+import com.asctutorial.util.Role;
+
+import java.util.Set;
+
 public class PersonInfo {
 
     private final int systemId;
     private final String firstName;
     private final String lastName;
     private final String userName;
-    private final String role; // "MANAGER", "TUTOR", "STUDENT", "UNKNOWN"
+    private final Set<Role> roles;
 
-    public PersonInfo(int systemId, String firstName, String lastName, String userName, String role) {
+    public PersonInfo(int systemId, String firstName, String lastName, String userName, Set<Role> roles) {
         this.systemId = systemId;
         this.firstName = firstName;
         this.lastName = lastName;
         this.userName = userName;
-        this.role = role;
+        this.roles = roles;
     }
 
     public int getSystemId() {
@@ -32,11 +36,14 @@ public class PersonInfo {
         return userName;
     }
 
-    public String getRole() {
-        return role;
+    /**
+     * Every role this person holds; a tutor is also a student.
+     */
+    public Set<Role> getRoles() {
+        return roles;
     }
 
     public String getFullName() {
         return firstName + " " + lastName;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,525 @@
+package com.asctutorial.app;
+
+import com.asctutorial.util.ChangeLog;
+import com.asctutorial.util.QueryHandle;
+import com.asctutorial.util.SessionFilter;
+import com.asctutorial.util.SessionKey;
+import com.asctutorial.util.SessionQueries;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Virtualized table model for the manager's session list.
+ *
+ * Only the row count is fetched up front. Rows are loaded a page at a time
+ * as the table asks for them: pages next to an already-loaded page are
+ * fetched by keyset on (SessionDate, SessionTime, SessionID); jumps into an
+ * unexplored region use a single OFFSET query. At most MAX_CACHED_PAGES
+ * pages are kept in memory; evicted pages keep their key range so they can
+ * be re-read with a keyset seek.
+ *
+ * Everything is read through the current {@link SessionFilter}. Changing
+ * the filter cancels the queries still running for the old one.
+ *
+ * All methods must be called on the EDT.
+ */
+class SessionPageModel extends AbstractTableModel {
+
+    static final String[] COLUMNS = {"SessionID", "Date", "Time", "Subject", "Tutor", "Location", "Limit"};
+
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 10;
+
+    /**
+     * A run of consecutive rows. A block whose keys are null has never been
+     * fetched (a gap); a block with keys but no rows has been evicted.
+     */
+    private static class Block {
+        int size;
+        List<Object[]> rows;
+        SessionKey first;
+        SessionKey last;
+
+        Block(int size) {
+            this.size = size;
+        }
+
+        Block(List<Object[]> rows) {
+            setRows(rows);
+        }
+
+        void setRows(List<Object[]> rows) {
+            this.rows = rows;
+            this.size = rows.size();
+            this.first = SessionKey.ofRow(rows.get(0));
+            this.last = SessionKey.ofRow(rows.get(rows.size() - 1));
+        }
+
+        boolean isGap() {
+            return first == null;
+        }
+    }
+
+    private final WindowTasks tasks;
+    private final Consumer<Exception> onError;
+    private SessionFilter filter = SessionFilter.all(true);
+    private QueryHandle queries = new QueryHandle(); // loads for the current filter
+
+    private final List<Block> blocks = new ArrayList<>();
+    private int[] starts;   // first row index of each block; null when blocks changed
+    private int rowCount = 0;
+
+    // bumped whenever the block list is rebuilt so late page loads are dropped
+    private int generation = 0;
+    private final Set<Integer> pendingLoads = new HashSet<>();
+    private final LinkedHashSet<Block> cached = new LinkedHashSet<>(); // LRU order, eldest first
+
+    SessionPageModel(WindowTasks tasks, Consumer<Exception> onError) {
+        this.tasks = tasks;
+        this.onError = onError;
+    }
+
+    SessionFilter getFilter() {
+        return filter;
+    }
+
+    void setFilter(SessionFilter filter) {
+        if (filter.equals(this.filter)) {
+            return;
+        }
+        this.filter = filter;
+        reload();
+    }
+
+    /**
+     * Drops everything and starts over from the row count and first page.
+     */
+    void reload() {
+        queries.cancel();
+        queries = new QueryHandle();
+        QueryHandle handle = queries;
+        int gen = ++generation;
+        blocks.clear();
+        cached.clear();
+        pendingLoads.clear();
+        starts = null;
+        rowCount = 0;
+        fireTableDataChanged();
+
+        SessionFilter current = filter;
+        tasks.run(
+                handle.wrap(() -> {
+                    int count = SessionQueries.countManagerSessions(current);
+                    List<Object[]> firstPage = count == 0 ? List.of()
+                            : SessionQueries.loadManagerSessionPage(current, null, false, PAGE_SIZE);
+                    return new Object[]{count, firstPage};
+                }),
+                result -> {
+                    if (gen != generation) {
+                        return;
+                    }
+                    int count = (Integer) result[0];
+                    @SuppressWarnings("unchecked")
+                    List<Object[]> firstPage = (List<Object[]>) result[1];
+
+                    if (!firstPage.isEmpty()) {
+                        Block page = new Block(new ArrayList<>(firstPage));
+                        blocks.add(page);
+                        touch(page);
+                    }
+                    int rest = count - firstPage.size();
+                    if (rest > 0) {
+                        blocks.add(new Block(rest));
+                    }
+                    starts = null;
+                    rowCount = Math.max(count, firstPage.size());
+                    fireTableDataChanged();
+                },
+                ex -> loadFailed(handle, ex)
+        );
+    }
+
+    /**
+     * Drops rows that were deleted in the database, in place, with one table
+     * event. The rows must currently be loaded (they were just selected);
+     * if any is not, the model reloads instead.
+     */
+    void removeSessions(Set<Integer> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        int[] starts = starts();
+        List<Integer> removedRows = new ArrayList<>();
+        for (int bi = 0; bi < blocks.size(); bi++) {
+            Block block = blocks.get(bi);
+            if (block.rows == null) {
+                continue;
+            }
+            for (int i = 0; i < block.rows.size(); i++) {
+                if (sessionIds.contains((Integer) block.rows.get(i)[0])) {
+                    removedRows.add(starts[bi] + i);
+                }
+            }
+        }
+        if (removedRows.size() != sessionIds.size()) {
+            reload();
+            return;
+        }
+
+        ++generation; // in-flight loads computed offsets before this change
+        pendingLoads.clear();
+        for (Iterator<Block> it = blocks.iterator(); it.hasNext(); ) {
+            Block block = it.next();
+            if (block.rows == null) {
+                continue;
+            }
+            block.rows.removeIf(row -> sessionIds.contains((Integer) row[0]));
+            if (block.rows.isEmpty()) {
+                cached.remove(block);
+                it.remove();
+            } else {
+                block.setRows(block.rows);
+            }
+        }
+        this.starts = null;
+        rowCount -= removedRows.size();
+
+        int first = removedRows.get(0);
+        int last = removedRows.get(removedRows.size() - 1);
+        if (last - first + 1 == removedRows.size()) {
+            fireTableRowsDeleted(first, last);
+        } else {
+            fireTableDataChanged();
+        }
+    }
+
+    /**
+     * Patches the model with changes polled from the ChangeLog.
+     *
+     * @param ops         what happened to each changed SessionID
+     * @param current     the current rows of those sessions that (still) belong in this list
+     * @param readWith    the filter {@code current} and {@code count} were read with
+     * @param count       the list's row count read after {@code current}; if the patched
+     *                    model disagrees (e.g. a row we never loaded was deleted), reload
+     */
+    void applyChanges(Map<Integer, ChangeLog.Op> ops, List<Object[]> current, SessionFilter readWith, int count) {
+        if (!readWith.equals(filter)) {
+            return; // filter changed while the rows were being read; that reload covers it
+        }
+        Map<Integer, Object[]> byId = new HashMap<>();
+        for (Object[] row : current) {
+            byId.put((Integer) row[0], row);
+        }
+
+        boolean changed = false;
+        for (Map.Entry<Integer, ChangeLog.Op> e : ops.entrySet()) {
+            int sessionId = e.getKey();
+            Object[] row = byId.get(sessionId);
+            int[] at = locate(sessionId);
+            if (at != null) {
+                Block block = blocks.get(at[0]);
+                int index = starts()[at[0]] + at[1];
+                if (row != null && SessionKey.ofRow(row).compareTo(SessionKey.ofRow(block.rows.get(at[1]))) == 0) {
+                    block.rows.set(at[1], row);
+                    fireTableRowsUpdated(index, index);
+                    continue;
+                }
+                // gone, or moved to another position
+                removeAt(at[0], at[1]);
+                changed = true;
+            }
+            if (row != null && (at != null || e.getValue() == ChangeLog.Op.INSERT)) {
+                insertByKey(row);
+                changed = true;
+            }
+        }
+        if (changed) {
+            ++generation; // offsets of in-flight loads are stale now
+            pendingLoads.clear();
+        }
+        if (rowCount != count) {
+            reload();
+        }
+    }
+
+    /**
+     * Block index and position within it of a loaded row, or null.
+     */
+    private int[] locate(int sessionId) {
+        for (int bi = 0; bi < blocks.size(); bi++) {
+            List<Object[]> rows = blocks.get(bi).rows;
+            if (rows == null) {
+                continue;
+            }
+            for (int i = 0; i < rows.size(); i++) {
+                if ((Integer) rows.get(i)[0] == sessionId) {
+                    return new int[]{bi, i};
+                }
+            }
+        }
+        return null;
+    }
+
+    private void removeAt(int bi, int i) {
+        Block block = blocks.get(bi);
+        int index = starts()[bi] + i;
+        block.rows.remove(i);
+        if (block.rows.isEmpty()) {
+            cached.remove(block);
+            blocks.remove(bi);
+        } else {
+            block.setRows(block.rows);
+        }
+        starts = null;
+        rowCount--;
+        fireTableRowsDeleted(index, index);
+    }
+
+    /**
+     * Inserts a row at its key position. Inside a loaded page it goes to its
+     * exact index; inside a gap or an evicted page only the size grows, and
+     * the row shows up when that region is fetched.
+     */
+    private void insertByKey(Object[] row) {
+        SessionKey key = SessionKey.ofRow(row);
+        int target = -1;
+        boolean atStart = false;
+        for (int bi = 0; bi < blocks.size() && target < 0; bi++) {
+            Block block = blocks.get(bi);
+            if (block.isGap()) {
+                continue;
+            }
+            if (key.compareTo(block.first) < 0) {
+                boolean gapBefore = bi > 0 && blocks.get(bi - 1).isGap();
+                target = gapBefore ? bi - 1 : bi;
+                atStart = !gapBefore;
+            } else if (key.compareTo(block.last) <= 0) {
+                target = bi;
+            }
+        }
+        if (target < 0) {
+            target = blocks.size() - 1; // after every known key: trailing gap or last page
+        }
+
+        int index;
+        if (target < 0) {
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(row);
+            Block page = new Block(rows);
+            blocks.add(page);
+            touch(page);
+            index = 0;
+        } else {
+            Block block = blocks.get(target);
+            int blockStart = starts()[target];
+            if (block.rows != null) {
+                int pos = 0;
+                while (pos < block.rows.size() && SessionKey.ofRow(block.rows.get(pos)).compareTo(key) < 0) {
+                    pos++;
+                }
+                block.rows.add(pos, row);
+                block.setRows(block.rows);
+                index = blockStart + pos;
+            } else {
+                block.size++;
+                if (!block.isGap()) {
+                    if (key.compareTo(block.first) < 0) {
+                        block.first = key;
+                    }
+                    if (key.compareTo(block.last) > 0) {
+                        block.last = key;
+                    }
+                }
+                index = atStart ? blockStart : blockStart + block.size - 1;
+            }
+        }
+        starts = null;
+        rowCount++;
+        fireTableRowsInserted(index, index);
+    }
+
+    // ===================== TableModel =====================
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Object[] row = getRow(rowIndex);
+        return row == null ? null : row[columnIndex];
+    }
+
+    /**
+     * The row if its page is in memory; otherwise schedules the page and returns null.
+     */
+    Object[] getRow(int rowIndex) {
+        int bi = blockIndexOf(rowIndex);
+        if (bi < 0) {
+            return null;
+        }
+        Block block = blocks.get(bi);
+        if (block.rows != null) {
+            touch(block);
+            return block.rows.get(rowIndex - starts()[bi]);
+        }
+        requestLoad(bi, rowIndex);
+        return null;
+    }
+
+    // ===================== PAGING =====================
+
+    private int blockIndexOf(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            return -1;
+        }
+        int[] starts = starts();
+        int lo = 0;
+        int hi = starts.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (starts[mid] <= rowIndex) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private int[] starts() {
+        if (starts == null) {
+            starts = new int[blocks.size()];
+            int pos = 0;
+            for (int i = 0; i < blocks.size(); i++) {
+                starts[i] = pos;
+                pos += blocks.get(i).size;
+            }
+        }
+        return starts;
+    }
+
+    private void requestLoad(int bi, int rowIndex) {
+        Block block = blocks.get(bi);
+        int blockStart = starts()[bi];
+
+        if (!block.isGap()) {
+            // evicted page: re-read its key range
+            if (pendingLoads.add(blockStart)) {
+                fetch(blockStart, block, blockStart, block.size, block.first, true);
+            }
+            return;
+        }
+
+        int pageStart = blockStart + ((rowIndex - blockStart) / PAGE_SIZE) * PAGE_SIZE;
+        int length = Math.min(PAGE_SIZE, blockStart + block.size - pageStart);
+        if (!pendingLoads.add(pageStart)) {
+            return;
+        }
+        Block previous = bi > 0 ? blocks.get(bi - 1) : null;
+        if (pageStart == blockStart && previous != null && previous.last != null) {
+            fetch(pageStart, block, pageStart, length, previous.last, false);
+        } else {
+            fetch(pageStart, block, pageStart, length, null, false);
+        }
+    }
+
+    /**
+     * Loads {@code length} rows for {@code target}, either by keyset from
+     * {@code after} or (when it is null) by absolute offset.
+     */
+    private void fetch(int pendingKey, Block target, int pageStart, int length,
+                       SessionKey after, boolean inclusive) {
+        int gen = generation;
+        SessionFilter current = filter;
+        QueryHandle handle = queries;
+        tasks.run(
+                handle.wrap(() -> after != null
+                        ? SessionQueries.loadManagerSessionPage(current, after, inclusive, length)
+                        : SessionQueries.loadManagerSessionPageAt(current, pageStart, length)),
+                rows -> {
+                    if (gen != generation) {
+                        return;
+                    }
+                    pendingLoads.remove(pendingKey);
+                    int bi = blocks.indexOf(target);
+                    if (bi < 0) {
+                        return;
+                    }
+                    install(bi, pageStart, length, new ArrayList<>(rows));
+                },
+                ex -> loadFailed(handle, ex)
+        );
+    }
+
+    private void install(int bi, int pageStart, int length, List<Object[]> rows) {
+        Block target = blocks.get(bi);
+
+        if (rows.size() != length) {
+            // the table changed underneath us; start over rather than show shifted rows
+            reload();
+            return;
+        }
+
+        if (!target.isGap()) {
+            target.setRows(rows);
+            touch(target);
+        } else {
+            int blockStart = starts()[bi];
+            Block page = new Block(rows);
+            List<Block> replacement = new ArrayList<>(3);
+            if (pageStart > blockStart) {
+                replacement.add(new Block(pageStart - blockStart));
+            }
+            replacement.add(page);
+            int tail = blockStart + target.size - (pageStart + length);
+            if (tail > 0) {
+                replacement.add(new Block(tail));
+            }
+            blocks.remove(bi);
+            blocks.addAll(bi, replacement);
+            starts = null;
+            touch(page);
+        }
+        fireTableRowsUpdated(pageStart, pageStart + length - 1);
+    }
+
+    private void touch(Block block) {
+        cached.remove(block);
+        cached.add(block);
+        if (cached.size() > MAX_CACHED_PAGES) {
+            Iterator<Block> it = cached.iterator();
+            Block eldest = it.next();
+            it.remove();
+            eldest.rows = null;
+        }
+    }
+
+    private void loadFailed(QueryHandle handle, Exception ex) {
+        if (handle.isCancelled()) {
+            return; // superseded by a newer filter; its reload is already under way
+        }
+        pendingLoads.clear();
+        onError.accept(ex);
+    }
+}
@@ -0,0 +1,85 @@
+package com.asctutorial.app;
+
+import com.asctutorial.util.SessionKey;
+
+import javax.swing.table.DefaultTableModel;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table model for the tutor and student session lists: every row is in
+ * memory, laid out as SessionID, Date, Time, ... and ordered by
+ * (Date, Time, SessionID). Single rows can be inserted, replaced or removed
+ * without rebuilding the table, so selection and scroll position survive.
+ */
+class SessionRowsModel extends DefaultTableModel {
+
+    private final String[] columns;
+
+    SessionRowsModel(String[] columns) {
+        super(columns, 0);
+        this.columns = columns;
+    }
+
+    void setRows(List<Object[]> rows) {
+        setDataVector(rows.toArray(new Object[0][]), columns);
+    }
+
+    /**
+     * Inserts a row at its (Date, Time, SessionID) position, like the queries'
+     * ORDER BY, replacing the row with the same SessionID if there is one.
+     */
+    void insertSorted(Object[] row) {
+        int existing = indexOf((Integer) row[0]);
+        if (existing >= 0) {
+            removeRow(existing);
+        }
+        SessionKey key = SessionKey.ofRow(row);
+        int index = getRowCount();
+        while (index > 0 && rowKey(index - 1).compareTo(key) > 0) {
+            index--;
+        }
+        insertRow(index, row);
+    }
+
+    /**
+     * Brings the given sessions up to date: {@code current} holds the rows
+     * that still belong in the table; the other ids are removed.
+     */
+    void patch(Collection<Integer> sessionIds, List<Object[]> current) {
+        Map<Integer, Object[]> byId = new HashMap<>();
+        for (Object[] row : current) {
+            byId.put((Integer) row[0], row);
+        }
+        for (int sessionId : sessionIds) {
+            Object[] row = byId.get(sessionId);
+            int index = indexOf(sessionId);
+            if (index >= 0 && row != null && rowKey(index).compareTo(SessionKey.ofRow(row)) == 0) {
+                for (int c = 0; c < row.length; c++) {
+                    setValueAt(row[c], index, c);
+                }
+                continue;
+            }
+            if (row != null) {
+                insertSorted(row); // moves the row if its date or time changed
+            } else if (index >= 0) {
+                removeRow(index);
+            }
+        }
+    }
+
+    private int indexOf(int sessionId) {
+        for (int i = 0; i < getRowCount(); i++) {
+            if ((Integer) getValueAt(i, 0) == sessionId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private SessionKey rowKey(int rowIndex) {
+        return SessionKey.ofRow(new Object[]{getValueAt(rowIndex, 0), getValueAt(rowIndex, 1), getValueAt(rowIndex, 2)});
+    }
+}
@@ -0,0 +1,194 @@
+package com.asctutorial.app;
+
+import com.asctutorial.util.LookupItem;
+import com.asctutorial.util.ReferenceDataCache;
+import com.asctutorial.util.SessionFilter;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.sql.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Search fields for a session list: date range, subject, language, tutor
+ * and location prefix. Hands the window a new {@link SessionFilter} once
+ * the user stops typing for DEBOUNCE_MILLIS (combo and checkbox changes
+ * apply at once), and only when the criteria actually changed.
+ */
+class SessionSearchPanel extends JPanel {
+
+    private static final int DEBOUNCE_MILLIS = 300;
+    private static final LookupItem ANY = new LookupItem(0, "Any");
+    private static final Color INVALID = new Color(255, 220, 220);
+    private static final Date INVALID_DATE = new Date(0); // marker: text that isn't a date yet
+
+    private final Consumer<SessionFilter> onChange;
+    private final Timer debounce;
+    private final JTextField txtFrom = new JTextField(8);
+    private final JTextField txtTo = new JTextField(8);
+    private final JComboBox<LookupItem> cboSubject = new JComboBox<>();
+    private final JComboBox<LookupItem> cboLanguage = new JComboBox<>();
+    private final JComboBox<LookupItem> cboTutor = new JComboBox<>();
+    private final JTextField txtLocation = new JTextField(8);
+    private final JCheckBox chkShowPast;
+    private SessionFilter current;
+    private boolean clearing = false;
+
+    /**
+     * @param showPastOption whether to offer "Show past sessions"; without it
+     *                       the filter is always today onwards
+     */
+    SessionSearchPanel(WindowTasks tasks, boolean showPastOption, Consumer<SessionFilter> onChange) {
+        super(new FlowLayout(FlowLayout.LEFT, 5, 2));
+        this.onChange = onChange;
+        this.chkShowPast = showPastOption ? new JCheckBox("Show past sessions") : null;
+
+        debounce = new Timer(DEBOUNCE_MILLIS, e -> fireIfChanged());
+        debounce.setRepeats(false);
+
+        add(new JLabel("From:"));
+        add(txtFrom);
+        add(new JLabel("To:"));
+        add(txtTo);
+        add(new JLabel("Subject:"));
+        add(cboSubject);
+        add(new JLabel("Language:"));
+        add(cboLanguage);
+        add(new JLabel("Tutor:"));
+        add(cboTutor);
+        add(new JLabel("Location:"));
+        add(txtLocation);
+        if (chkShowPast != null) {
+            add(chkShowPast);
+            chkShowPast.addActionListener(e -> fireIfChanged());
+        }
+        JButton btnClear = new JButton("Clear");
+        add(btnClear);
+        btnClear.addActionListener(e -> clear());
+
+        txtFrom.setToolTipText("YYYY-MM-DD");
+        txtTo.setToolTipText("YYYY-MM-DD");
+        txtLocation.setToolTipText("Start of the location, e.g. Room 1");
+        for (JTextField field : List.of(txtFrom, txtTo, txtLocation)) {
+            field.getDocument().addDocumentListener(new DocumentListener() {
+                @Override
+                public void insertUpdate(DocumentEvent e) {
+                    debounce.restart();
+                }
+
+                @Override
+                public void removeUpdate(DocumentEvent e) {
+                    debounce.restart();
+                }
+
+                @Override
+                public void changedUpdate(DocumentEvent e) {
+                    debounce.restart();
+                }
+            });
+        }
+
+        for (JComboBox<LookupItem> combo : List.of(cboSubject, cboLanguage, cboTutor)) {
+            combo.addItem(ANY);
+        }
+        current = buildFilter();
+        loadChoices(tasks);
+    }
+
+    /**
+     * The criteria currently in effect (what the window was last given).
+     */
+    SessionFilter getFilter() {
+        return current;
+    }
+
+    private void loadChoices(WindowTasks tasks) {
+        ReferenceDataCache.Snapshot cached = ReferenceDataCache.peek();
+        if (cached != null) {
+            fillChoices(cached);
+            return;
+        }
+        tasks.run(
+                ReferenceDataCache::get,
+                this::fillChoices,
+                // the panel still works with "Any" only
+                Exception::printStackTrace
+        );
+    }
+
+    private void fillChoices(ReferenceDataCache.Snapshot data) {
+        data.getSubjects().forEach(cboSubject::addItem);
+        data.getLanguages().forEach(cboLanguage::addItem);
+        data.getTutors().forEach(cboTutor::addItem);
+        // listen only now, so filling the combos doesn't fire searches
+        for (JComboBox<LookupItem> combo : List.of(cboSubject, cboLanguage, cboTutor)) {
+            combo.addActionListener(e -> fireIfChanged());
+        }
+    }
+
+    private void clear() {
+        clearing = true; // one search for the whole reset, not one per field
+        try {
+            txtFrom.setText("");
+            txtTo.setText("");
+            txtLocation.setText("");
+            cboSubject.setSelectedItem(ANY);
+            cboLanguage.setSelectedItem(ANY);
+            cboTutor.setSelectedItem(ANY);
+        } finally {
+            clearing = false;
+        }
+        fireIfChanged();
+    }
+
+    private void fireIfChanged() {
+        debounce.stop();
+        if (clearing) {
+            return;
+        }
+        SessionFilter filter = buildFilter();
+        if (filter == null || filter.equals(current)) {
+            return;
+        }
+        current = filter;
+        onChange.accept(filter);
+    }
+
+    /**
+     * The filter the fields describe, or null while a date is not valid yet.
+     */
+    private SessionFilter buildFilter() {
+        Date from = parseDate(txtFrom);
+        Date to = parseDate(txtTo);
+        if (from == INVALID_DATE || to == INVALID_DATE) {
+            return null;
+        }
+        return new SessionFilter(
+                chkShowPast == null || !chkShowPast.isSelected(),
+                from, to,
+                selectedId(cboSubject), selectedId(cboLanguage), selectedId(cboTutor),
+                txtLocation.getText());
+    }
+
+    private static Date parseDate(JTextField field) {
+        String text = field.getText().trim();
+        Date date = null;
+        if (!text.isEmpty()) {
+            try {
+                date = Date.valueOf(text);
+            } catch (IllegalArgumentException e) {
+                date = INVALID_DATE;
+            }
+        }
+        field.setBackground(date == INVALID_DATE ? INVALID : UIManager.getColor("TextField.background"));
+        return date;
+    }
+
+    private static Integer selectedId(JComboBox<LookupItem> combo) {
+        LookupItem item = (LookupItem) combo.getSelectedItem();
+        return item == null || item == ANY ? null : item.getId();
+    }
+}
@@ -1,31 +1,50 @@
 package com.asctutorial.app;
 
-import com.asctutorial.util.DatabaseConnection;
+import com.asctutorial.util.ChangeLog;
+import com.asctutorial.util.LookupItem;
+import com.asctutorial.util.QueryHandle;
+import com.asctutorial.util.ReferenceDataCache;
+import com.asctutorial.util.ScheduleConflictException;
+import com.asctutorial.util.ScheduleIndex;
+import com.asctutorial.util.SeatReservations;
+import com.asctutorial.util.SessionFilter;
+import com.asctutorial.util.SessionQueries;
+import com.asctutorial.util.TutorMatcher;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.time.LocalDate;
 import java.sql.Date;
 import java.sql.Time;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 // Simple student dashboard with "New Appointment" button
 public class StudentDashboardWindow extends JFrame {
     private final PersonInfo student;
+    private static final String[] SESSION_COLUMNS =
+            {"SessionID", "Date", "Time", "Subject", "Language", "Location", "Status"};
+
+    private final WindowTasks tasks;
+    private final SessionRowsModel sessionModel = new SessionRowsModel(SESSION_COLUMNS);
+    private final ChangePoller changes;
     private JTable tblStudentSessions;
     private JButton btnNewAppointment;
+    private JButton btnJoinSession;
 
     public StudentDashboardWindow(PersonInfo student) {
         this.student = student;
+        this.tasks = new WindowTasks(this);
+        this.changes = new ChangePoller(this, tasks, this::applyChanges, this::loadStudentSessions);
         setTitle("Student Dashboard - ASC Tutorial Center");
         setSize(900, 500);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
         initUI();
-        loadStudentSessions();
+        changes.start(this::loadStudentSessions);
     }
 
     private void initUI() {
@@ -42,104 +61,262 @@ public class StudentDashboardWindow extends JFrame {
         // Table panel
         JPanel tablePanel = new JPanel(new BorderLayout());
         tablePanel.setBorder(BorderFactory.createTitledBorder("Your Registered Sessions"));
-        tblStudentSessions = new JTable();
+        tblStudentSessions = new JTable(sessionModel);
         tablePanel.add(new JScrollPane(tblStudentSessions), BorderLayout.CENTER);
         root.add(tablePanel, BorderLayout.CENTER);
 
         // Bottom panel with button
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        btnJoinSession = new JButton("Join Session");
         btnNewAppointment = new JButton("New Appointment");
+        bottomPanel.add(tasks.getIndicator());
+        bottomPanel.add(btnJoinSession);
         bottomPanel.add(btnNewAppointment);
         root.add(bottomPanel, BorderLayout.SOUTH);
 
-        // Button action
+        // Button actions
+        btnJoinSession.addActionListener(e -> openJoinSessionDialog());
         btnNewAppointment.addActionListener(e -> openNewAppointmentDialog());
 
         setContentPane(root);
     }
 
     private void loadStudentSessions() {
-        String[] cols = {"SessionID", "Date", "Time", "Subject", "Language", "Location", "Status"};
-        DefaultTableModel model = new DefaultTableModel(cols, 0);
-
-        // Use the actual column name 'Status'
-        String sql = """
-                SELECT
-                    s.SessionID,
-                    s.SessionDate,
-                    s.SessionTime,
-                    subj.SubjectName,
-                    lang.Language,
-                    s.Location,
-                    a.Status AS Status
-                FROM Attend a
-                JOIN Session s ON a.SessionID = s.SessionID
-                JOIN SubjectsOffered subj ON s.SubjectID = subj.SubjectID
-                JOIN AvailableLanguage lang ON s.LanguageID = lang.LanguageID
-                WHERE a.SystemID = ?
-                ORDER BY s.SessionDate, s.SessionTime
-                """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, student.getSystemId());
-
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    Object[] row = {
-                            rs.getInt("SessionID"),
-                            rs.getDate("SessionDate"),
-                            rs.getTime("SessionTime"),
-                            rs.getString("SubjectName"),
-                            rs.getString("Language"),
-                            rs.getString("Location"),
-                            rs.getString("Status")
-                    };
-                    model.addRow(row);
+        tasks.run(
+                () -> SessionQueries.loadStudentSessions(student.getSystemId()),
+                sessionModel::setRows,
+                ex -> {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(
+                            this,
+                            "Error loading student sessions:\n" + ex.getMessage(),
+                            "DB Error",
+                            JOptionPane.ERROR_MESSAGE
+                    );
                 }
-            }
-            tblStudentSessions.setModel(model);
-
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Error loading student sessions:\n" + ex.getMessage(),
-                    "DB Error",
-                    JOptionPane.ERROR_MESSAGE
-            );
-        }
+        );
     }
 
     private void openNewAppointmentDialog() {
         NewAppointmentDialog dlg = new NewAppointmentDialog(this, student);
         dlg.setVisible(true);
         if (dlg.isSaved()) {
-            // refresh table after a successful new appointment
-            loadStudentSessions();
+            // add just the new row; scroll position and selection stay put. The poller
+            // may have delivered it while the dialog was open, so patch rather than insert.
+            Object[] row = dlg.getCreatedRow();
+            sessionModel.patch(List.of((Integer) row[0]), List.<Object[]>of(row));
+        }
+    }
+
+    private void openJoinSessionDialog() {
+        JoinSessionDialog dlg = new JoinSessionDialog(this, student);
+        dlg.setVisible(true);
+        List<Object[]> joined = dlg.getJoinedRows();
+        List<Integer> sessionIds = new ArrayList<>();
+        for (Object[] row : joined) {
+            sessionIds.add((Integer) row[0]);
         }
+        sessionModel.patch(sessionIds, joined);
+    }
+
+    /**
+     * Re-reads only the sessions other desks (or this one) changed.
+     */
+    private void applyChanges(List<ChangeLog.Change> changed) {
+        Set<Integer> sessionIds = new LinkedHashSet<>();
+        for (ChangeLog.Change change : changed) {
+            if (change.getEntity() == ChangeLog.Entity.SESSION) {
+                sessionIds.add(change.getKey());
+            }
+        }
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        tasks.runQuietly(
+                () -> SessionQueries.loadStudentSessions(student.getSystemId(), sessionIds),
+                rows -> sessionModel.patch(sessionIds, rows),
+                Exception::printStackTrace
+        );
     }
 
     /**
-     * Small helper class for combo box items (id + label).
+     * Lists upcoming sessions with free seats and reserves one for the student.
+     * The list is searched in the database as the student types (at most
+     * MAX_ROWS matches). The seat is only taken if it is still free when the
+     * reservation commits; otherwise the student is told the session filled
+     * up and the list refreshes.
      */
-    private static class ComboItem {
-        private final int id;
-        private final String label;
+    private static class JoinSessionDialog extends JDialog {
 
-        ComboItem(int id, String label) {
-            this.id = id;
-            this.label = label;
+        private static final int MAX_ROWS = 200;
+        private static final String[] COLUMNS =
+                {"SessionID", "Date", "Time", "Subject", "Tutor", "Language", "Location", "Seats Left"};
+
+        private final PersonInfo student;
+        private final WindowTasks tasks;
+        private final DefaultTableModel openModel = new DefaultTableModel(COLUMNS, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        private final List<Object[]> joinedRows = new ArrayList<>();
+        private JTable tblOpen;
+        private JButton btnJoin;
+        private SessionSearchPanel search;
+        private QueryHandle searching = new QueryHandle();
+
+        JoinSessionDialog(JFrame parent, PersonInfo student) {
+            super(parent, "Join Session", true);
+            this.student = student;
+            this.tasks = new WindowTasks(this);
+
+            setSize(1000, 450);
+            setLocationRelativeTo(parent);
+            initUI();
+            loadOpenSessions();
         }
 
-        int getId() {
-            return id;
+        /**
+         * Student-table rows for the sessions joined while the dialog was open.
+         */
+        List<Object[]> getJoinedRows() {
+            return joinedRows;
         }
 
-        @Override
-        public String toString() {
-            return label;
+        private void initUI() {
+            JPanel panel = new JPanel(new BorderLayout(10, 10));
+            panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+            search = new SessionSearchPanel(tasks, false, filter -> loadOpenSessions());
+            panel.add(search, BorderLayout.NORTH);
+
+            tblOpen = new JTable(openModel);
+            tblOpen.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+            panel.add(new JScrollPane(tblOpen), BorderLayout.CENTER);
+
+            JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            btnJoin = new JButton("Join");
+            JButton btnClose = new JButton("Close");
+            btnPanel.add(tasks.getIndicator());
+            btnPanel.add(btnJoin);
+            btnPanel.add(btnClose);
+            panel.add(btnPanel, BorderLayout.SOUTH);
+
+            setContentPane(panel);
+
+            btnJoin.addActionListener(e -> joinSelected());
+            btnClose.addActionListener(e -> dispose());
+        }
+
+        private void loadOpenSessions() {
+            // a newer search makes the running one pointless
+            searching.cancel();
+            QueryHandle handle = searching = new QueryHandle();
+            SessionFilter filter = search.getFilter();
+            tasks.run(
+                    handle.wrap(() -> SessionQueries.loadOpenSessions(student.getSystemId(), filter, MAX_ROWS)),
+                    rows -> {
+                        if (handle == searching) {
+                            openModel.setDataVector(rows.toArray(new Object[0][]), COLUMNS);
+                        }
+                    },
+                    ex -> {
+                        if (handle.isCancelled()) {
+                            return;
+                        }
+                        ex.printStackTrace();
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Error loading open sessions:\n" + ex.getMessage(),
+                                "DB Error",
+                                JOptionPane.ERROR_MESSAGE
+                        );
+                    }
+            );
+        }
+
+        private void joinSelected() {
+            int viewRow = tblOpen.getSelectedRow();
+            if (viewRow < 0) {
+                JOptionPane.showMessageDialog(
+                        this,
+                        "Select a session to join.",
+                        "No Selection",
+                        JOptionPane.INFORMATION_MESSAGE
+                );
+                return;
+            }
+            int modelRow = tblOpen.convertRowIndexToModel(viewRow);
+            Object[] row = new Object[COLUMNS.length];
+            for (int c = 0; c < row.length; c++) {
+                row[c] = openModel.getValueAt(modelRow, c);
+            }
+            int sessionId = (Integer) row[0];
+            Date date = (Date) row[1];
+            Time time = (Time) row[2];
+
+            btnJoin.setEnabled(false);
+            tasks.run(
+                    () -> ScheduleIndex.findStudentConflict(student.getSystemId(), date, time, sessionId) != null
+                            ? SeatReservations.Result.SCHEDULE_CONFLICT
+                            : SeatReservations.reserve(student.getSystemId(), sessionId),
+                    result -> {
+                        btnJoin.setEnabled(true);
+                        handleResult(result, row);
+                    },
+                    ex -> {
+                        btnJoin.setEnabled(true);
+                        ex.printStackTrace();
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Error joining session:\n" + ex.getMessage(),
+                                "DB Error",
+                                JOptionPane.ERROR_MESSAGE
+                        );
+                    }
+            );
+        }
+
+        private void handleResult(SeatReservations.Result result, Object[] row) {
+            switch (result) {
+                case RESERVED -> {
+                    joinedRows.add(SessionQueries.studentSessionRow(
+                            (Integer) row[0], (Date) row[1], (Time) row[2], (String) row[3],
+                            (String) row[5], (String) row[6], "Registered"));
+                    JOptionPane.showMessageDialog(
+                            this,
+                            "You are registered for this session.",
+                            "Success",
+                            JOptionPane.INFORMATION_MESSAGE
+                    );
+                }
+                case FULL -> JOptionPane.showMessageDialog(
+                        this,
+                        "Sorry, that session has just filled up.",
+                        "Session Full",
+                        JOptionPane.WARNING_MESSAGE
+                );
+                case ALREADY_REGISTERED -> JOptionPane.showMessageDialog(
+                        this,
+                        "You are already registered for this session.",
+                        "Already Registered",
+                        JOptionPane.INFORMATION_MESSAGE
+                );
+                case SCHEDULE_CONFLICT -> JOptionPane.showMessageDialog(
+                        this,
+                        "You already have a session at that time.",
+                        "Schedule Conflict",
+                        JOptionPane.WARNING_MESSAGE
+                );
+                case NO_SUCH_SESSION -> JOptionPane.showMessageDialog(
+                        this,
+                        "That session has been cancelled.",
+                        "Session Cancelled",
+                        JOptionPane.WARNING_MESSAGE
+                );
+            }
+            loadOpenSessions();
         }
     }
 
@@ -149,19 +326,26 @@ public class StudentDashboardWindow extends JFrame {
     private static class NewAppointmentDialog extends JDialog {
 
         private final PersonInfo student;
-        private JComboBox<ComboItem> cboTutor;
-        private JComboBox<ComboItem> cboSubject;
-        private JComboBox<ComboItem> cboLanguage;
+        private JComboBox<LookupItem> cboTutor;
+        private JComboBox<LookupItem> cboSubject;
+        private JComboBox<LookupItem> cboLanguage;
+        private JCheckBox chkAllTutors;
         private JTextField txtDate;     // yyyy-mm-dd
         private JTextField txtTime;     // HH:mm:ss
         private JTextField txtLocation; // e.g. Room 101
+        private JButton btnSave;
+        private final WindowTasks tasks;
         private boolean saved = false;
+        private Object[] createdRow;
+        private TutorMatcher.Index matcher;
+        private boolean languageChosen = false; // user picked one; don't override with the preference
 
         NewAppointmentDialog(JFrame parent, PersonInfo student) {
             super(parent, "New Appointment", true);
             this.student = student;
+            this.tasks = new WindowTasks(this);
 
-            setSize(450, 300);
+            setSize(450, 360);
             setLocationRelativeTo(parent);
             initUI();
             loadComboData();
@@ -171,6 +355,13 @@ public class StudentDashboardWindow extends JFrame {
             return saved;
         }
 
+        /**
+         * The new appointment as a student-table row; only set when saved.
+         */
+        Object[] getCreatedRow() {
+            return createdRow;
+        }
+
         private void initUI() {
             JPanel panel = new JPanel(new GridBagLayout());
             GridBagConstraints gbc = new GridBagConstraints();
@@ -179,16 +370,6 @@ public class StudentDashboardWindow extends JFrame {
 
             int row = 0;
 
-            // Tutor
-            gbc.gridx = 0;
-            gbc.gridy = row;
-            panel.add(new JLabel("Tutor:"), gbc);
-
-            cboTutor = new JComboBox<>();
-            gbc.gridx = 1;
-            panel.add(cboTutor, gbc);
-            row++;
-
             // Subject
             gbc.gridx = 0;
             gbc.gridy = row;
@@ -209,6 +390,22 @@ public class StudentDashboardWindow extends JFrame {
             panel.add(cboLanguage, gbc);
             row++;
 
+            // Tutor (matching the subject and language, best first)
+            gbc.gridx = 0;
+            gbc.gridy = row;
+            panel.add(new JLabel("Tutor:"), gbc);
+
+            cboTutor = new JComboBox<>();
+            gbc.gridx = 1;
+            panel.add(cboTutor, gbc);
+            row++;
+
+            chkAllTutors = new JCheckBox("Show all tutors");
+            gbc.gridx = 1;
+            gbc.gridy = row;
+            panel.add(chkAllTutors, gbc);
+            row++;
+
             // Date
             gbc.gridx = 0;
             gbc.gridy = row;
@@ -242,7 +439,7 @@ public class StudentDashboardWindow extends JFrame {
 
             // Buttons
             JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-            JButton btnSave = new JButton("Save");
+            btnSave = new JButton("Save");
             JButton btnCancel = new JButton("Cancel");
             btnPanel.add(btnSave);
             btnPanel.add(btnCancel);
@@ -252,81 +449,104 @@ public class StudentDashboardWindow extends JFrame {
             gbc.gridwidth = 2;
             gbc.anchor = GridBagConstraints.EAST;
             panel.add(btnPanel, gbc);
+            row++;
+
+            gbc.gridy = row;
+            gbc.anchor = GridBagConstraints.CENTER;
+            panel.add(tasks.getIndicator(), gbc);
 
             setContentPane(panel);
 
             btnSave.addActionListener(e -> saveAppointment());
             btnCancel.addActionListener(e -> dispose());
+            cboSubject.addActionListener(e -> refreshTutors());
+            cboLanguage.addActionListener(e -> {
+                languageChosen = true;
+                refreshTutors();
+            });
+            chkAllTutors.addActionListener(e -> refreshTutors());
         }
 
         private void loadComboData() {
-            // load tutors
-            String sqlTutors = """
-                    SELECT t.SystemID, CONCAT(p.FirstName, ' ', p.LastName) AS TutorName
-                    FROM Tutor t
-                    JOIN Person p ON t.SystemID = p.SystemID
-                    ORDER BY TutorName
-                    """;
-
-            String sqlSubjects = """
-                    SELECT SubjectID, SubjectName
-                    FROM SubjectsOffered
-                    ORDER BY SubjectName
-                    """;
-
-            String sqlLanguages = """
-                    SELECT LanguageID, Language
-                    FROM AvailableLanguage
-                    ORDER BY Language
-                    """;
-
-            try (Connection conn = DatabaseConnection.getConnection()) {
-
-                // Tutors
-                try (PreparedStatement ps = conn.prepareStatement(sqlTutors);
-                     ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        int id = rs.getInt("SystemID");
-                        String name = rs.getString("TutorName");
-                        cboTutor.addItem(new ComboItem(id, name));
-                    }
-                }
+            // normally preloaded after login, so this fills the combos without a round trip
+            TutorMatcher.Index cached = TutorMatcher.peek();
+            if (cached != null) {
+                fillCombos(cached);
+            } else {
+                tasks.run(
+                        TutorMatcher::get,
+                        this::fillCombos,
+                        ex -> {
+                            ex.printStackTrace();
+                            JOptionPane.showMessageDialog(
+                                    this,
+                                    "Error loading combo data:\n" + ex.getMessage(),
+                                    "DB Error",
+                                    JOptionPane.ERROR_MESSAGE
+                            );
+                        }
+                );
+            }
+            tasks.runQuietly(
+                    () -> TutorMatcher.preferredLanguageId(student.getSystemId()),
+                    this::selectPreferredLanguage,
+                    // not worth a dialog; the student can pick the language
+                    Exception::printStackTrace
+            );
+        }
 
-                // Subjects
-                try (PreparedStatement ps = conn.prepareStatement(sqlSubjects);
-                     ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        int id = rs.getInt("SubjectID");
-                        String name = rs.getString("SubjectName");
-                        cboSubject.addItem(new ComboItem(id, name));
-                    }
-                }
+        private void fillCombos(TutorMatcher.Index index) {
+            matcher = index;
+            ReferenceDataCache.Snapshot data = index.getReferenceData();
+            data.getSubjects().forEach(cboSubject::addItem);
+            data.getLanguages().forEach(cboLanguage::addItem);
+            languageChosen = false; // filling selected the first language, the student didn't
+            refreshTutors();
+        }
 
-                // Languages
-                try (PreparedStatement ps = conn.prepareStatement(sqlLanguages);
-                     ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        int id = rs.getInt("LanguageID");
-                        String name = rs.getString("Language");
-                        cboLanguage.addItem(new ComboItem(id, name));
-                    }
+        private void selectPreferredLanguage(Integer languageId) {
+            if (languageId == null || languageChosen) {
+                return;
+            }
+            for (int i = 0; i < cboLanguage.getItemCount(); i++) {
+                if (cboLanguage.getItemAt(i).getId() == languageId) {
+                    cboLanguage.setSelectedIndex(i);
+                    break;
                 }
+            }
+            languageChosen = false;
+        }
 
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(
-                        this,
-                        "Error loading combo data:\n" + ex.getMessage(),
-                        "DB Error",
-                        JOptionPane.ERROR_MESSAGE
-                );
+        /**
+         * Refills the tutor combo from the in-memory matcher; no database work.
+         */
+        private void refreshTutors() {
+            if (matcher == null) {
+                return;
+            }
+            cboTutor.removeAllItems();
+            LookupItem subject = (LookupItem) cboSubject.getSelectedItem();
+            LookupItem language = (LookupItem) cboLanguage.getSelectedItem();
+            if (chkAllTutors.isSelected() || subject == null || language == null) {
+                matcher.getReferenceData().getTutors().forEach(cboTutor::addItem);
+                cboTutor.setToolTipText(null);
+                return;
             }
+            List<TutorMatcher.Match> matches = matcher.match(subject.getId(), language.getId());
+            for (TutorMatcher.Match match : matches) {
+                LookupItem tutor = match.getTutor();
+                cboTutor.addItem(new LookupItem(tutor.getId(),
+                        tutor.getLabel() + " (" + match.getYearsOfExperience() + " yrs)"));
+            }
+            cboTutor.setToolTipText(matches.isEmpty()
+                    ? "No tutor teaches this subject in this language; tick Show all tutors"
+                    : null);
         }
 
         private void saveAppointment() {
-            ComboItem tutorItem = (ComboItem) cboTutor.getSelectedItem();
-            ComboItem subjectItem = (ComboItem) cboSubject.getSelectedItem();
-            ComboItem languageItem = (ComboItem) cboLanguage.getSelectedItem();
+            LookupItem tutorItem = (LookupItem) cboTutor.getSelectedItem();
+            LookupItem subjectItem = (LookupItem) cboSubject.getSelectedItem();
+            LookupItem languageItem = (LookupItem) cboLanguage.getSelectedItem();
             String dateStr = txtDate.getText().trim();
             String timeStr = txtTime.getText().trim();
             String location = txtLocation.getText().trim();
@@ -342,72 +562,59 @@ public class StudentDashboardWindow extends JFrame {
                 return;
             }
 
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                conn.setAutoCommit(false);
-
-                // Get next SessionID
-                int newSessionId = 0;
-                try (PreparedStatement ps = conn.prepareStatement(
-                        "SELECT COALESCE(MAX(SessionID), 0) + 1 AS NewID FROM Session");
-                     ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        newSessionId = rs.getInt("NewID");
-                    }
-                }
-
-                // Insert into Session (StudLim set to 1 for a single appointment)
-                String insertSession = """
-                        INSERT INTO Session
-                            (SessionID, SessionDate, SessionTime, Location,
-                             StudLim, SubjectID, SystemID, LanguageID)
-                        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-                        """;
-
-                try (PreparedStatement ps = conn.prepareStatement(insertSession)) {
-                    ps.setInt(1, newSessionId);
-                    ps.setDate(2, Date.valueOf(dateStr));       // may throw if format is wrong
-                    ps.setTime(3, Time.valueOf(timeStr));       // may throw if format is wrong
-                    ps.setString(4, location);
-                    ps.setInt(5, 1);                            // StudLim = 1
-                    ps.setInt(6, subjectItem.getId());
-                    ps.setInt(7, tutorItem.getId());            // tutor SystemID
-                    ps.setInt(8, languageItem.getId());
-                    ps.executeUpdate();
-                }
-
-                // Insert into Attend (student registers, Status set as 'Registered')
-                String insertAttend = """
-                        INSERT INTO Attend (SystemID, SessionID, DateReg, Status)
-                        VALUES (?, ?, ?, ?)
-                        """;
-
-                try (PreparedStatement ps = conn.prepareStatement(insertAttend)) {
-                    ps.setInt(1, student.getSystemId());
-                    ps.setInt(2, newSessionId);
-                    ps.setDate(3, Date.valueOf(LocalDate.now()));
-                    ps.setString(4, "Registered");
-                    ps.executeUpdate();
-                }
-
-                conn.commit();
-                saved = true;
-                JOptionPane.showMessageDialog(
-                        this,
-                        "Appointment created successfully!",
-                        "Success",
-                        JOptionPane.INFORMATION_MESSAGE
-                );
-                dispose();
-
-            } catch (Exception ex) {
-                ex.printStackTrace();
+            Date date;
+            Time time;
+            try {
+                date = Date.valueOf(dateStr);
+                time = Time.valueOf(timeStr);
+            } catch (IllegalArgumentException ex) {
                 JOptionPane.showMessageDialog(
                         this,
-                        "Error saving appointment:\n" + ex.getMessage(),
-                        "DB Error",
-                        JOptionPane.ERROR_MESSAGE
+                        "Date must be YYYY-MM-DD and time HH:MM:SS.",
+                        "Validation Error",
+                        JOptionPane.WARNING_MESSAGE
                 );
+                return;
             }
+
+            btnSave.setEnabled(false);
+            tasks.run(
+                    () -> SessionQueries.createAppointment(
+                            student.getSystemId(), tutorItem.getId(), subjectItem.getId(),
+                            languageItem.getId(), date, time, location),
+                    sessionId -> {
+                        saved = true;
+                        createdRow = SessionQueries.studentSessionRow(
+                                sessionId, date, time, subjectItem.getLabel(), languageItem.getLabel(),
+                                location, "Registered");
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Appointment created successfully!",
+                                "Success",
+                                JOptionPane.INFORMATION_MESSAGE
+                        );
+                        dispose();
+                    },
+                    ex -> {
+                        btnSave.setEnabled(true);
+                        if (ex instanceof ScheduleConflictException) {
+                            JOptionPane.showMessageDialog(
+                                    this,
+                                    ex.getMessage() + "\nPlease pick another time.",
+                                    "Schedule Conflict",
+                                    JOptionPane.WARNING_MESSAGE
+                            );
+                            return;
+                        }
+                        ex.printStackTrace();
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Error saving appointment:\n" + ex.getMessage(),
+                                "DB Error",
+                                JOptionPane.ERROR_MESSAGE
+                        );
+                    }
+            );
         }
     }
 }
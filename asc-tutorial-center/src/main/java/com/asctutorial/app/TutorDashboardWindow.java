@@ -1,21 +1,31 @@
 package com.asctutorial.app;
 
-import com.asctutorial.util.DatabaseConnection;
+import com.asctutorial.util.AttendanceRollup;
+import com.asctutorial.util.ChangeLog;
+import com.asctutorial.util.SessionQueries;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 public class TutorDashboardWindow extends JFrame {
 
     private final PersonInfo tutor;
+    private static final String[] SESSION_COLUMNS =
+            {"SessionID", "Date", "Time", "Subject", "Language", "Location", "# Students"};
+
+    private final WindowTasks tasks;
+    private final ChangePoller changes;
+    private final SessionRowsModel sessionModel = new SessionRowsModel(SESSION_COLUMNS);
     private JTable tblTutorSessions;
 
     public TutorDashboardWindow(PersonInfo tutor) {
         this.tutor = tutor;
+        this.tasks = new WindowTasks(this);
+        this.changes = new ChangePoller(this, tasks, this::applyChanges, this::loadTutorSessions);
 
         setTitle("Tutor Dashboard - ASC Tutorial Center");
         setSize(900, 500);
@@ -23,7 +33,7 @@ public class TutorDashboardWindow extends JFrame {
         setLocationRelativeTo(null);
 
         initUI();
-        loadTutorSessions();
+        changes.start(this::loadTutorSessions);
     }
 
     private void initUI() {
@@ -40,66 +50,186 @@ public class TutorDashboardWindow extends JFrame {
         JPanel tablePanel = new JPanel(new BorderLayout());
         tablePanel.setBorder(BorderFactory.createTitledBorder("Your Sessions"));
 
-        tblTutorSessions = new JTable();
+        tblTutorSessions = new JTable(sessionModel);
         tablePanel.add(new JScrollPane(tblTutorSessions), BorderLayout.CENTER);
 
         root.add(tablePanel, BorderLayout.CENTER);
 
+        JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 5));
+        bottomPanel.add(tasks.getIndicator());
+        JButton btnAttendance = new JButton("Mark Attendance...");
+        bottomPanel.add(btnAttendance);
+        root.add(bottomPanel, BorderLayout.SOUTH);
+
+        btnAttendance.addActionListener(e -> openAttendanceDialog());
+
         setContentPane(root);
     }
 
+    private void openAttendanceDialog() {
+        int viewRow = tblTutorSessions.getSelectedRow();
+        if (viewRow < 0) {
+            JOptionPane.showMessageDialog(
+                    this,
+                    "Select a session first.",
+                    "No Selection",
+                    JOptionPane.INFORMATION_MESSAGE
+            );
+            return;
+        }
+        int modelRow = tblTutorSessions.convertRowIndexToModel(viewRow);
+        int sessionId = (Integer) sessionModel.getValueAt(modelRow, 0);
+        String title = sessionModel.getValueAt(modelRow, 3) + " on " + sessionModel.getValueAt(modelRow, 1);
+        new AttendanceDialog(this, sessionId, title).setVisible(true);
+    }
+
     private void loadTutorSessions() {
-        String[] cols = {"SessionID", "Date", "Time", "Subject", "Language", "Location", "# Students"};
-        DefaultTableModel model = new DefaultTableModel(cols, 0);
-
-        String sql = """
-                SELECT 
-                    s.SessionID,
-                    s.SessionDate,
-                    s.SessionTime,
-                    subj.SubjectName,
-                    lang.Language,
-                    s.Location,
-                    COUNT(a.SystemID) AS StudentCount
-                FROM Session s
-                JOIN SubjectsOffered subj ON s.SubjectID = subj.SubjectID
-                JOIN AvailableLanguage lang ON s.LanguageID = lang.LanguageID
-                LEFT JOIN Attend a ON s.SessionID = a.SessionID
-                WHERE s.SystemID = ?
-                GROUP BY s.SessionID, s.SessionDate, s.SessionTime,
-                         subj.SubjectName, lang.Language, s.Location
-                ORDER BY s.SessionDate, s.SessionTime
-                """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, tutor.getSystemId());
-
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    Object[] row = {
-                            rs.getInt("SessionID"),
-                            rs.getDate("SessionDate"),
-                            rs.getTime("SessionTime"),
-                            rs.getString("SubjectName"),
-                            rs.getString("Language"),
-                            rs.getString("Location"),
-                            rs.getInt("StudentCount")
-                    };
-                    model.addRow(row);
+        tasks.run(
+                () -> SessionQueries.loadTutorSessions(tutor.getSystemId()),
+                sessionModel::setRows,
+                ex -> {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(
+                            this,
+                            "Error loading tutor sessions:\n" + ex.getMessage(),
+                            "DB Error",
+                            JOptionPane.ERROR_MESSAGE
+                    );
                 }
+        );
+    }
+
+    /**
+     * Re-reads only the sessions that changed (new bookings, cancellations, registrations).
+     */
+    private void applyChanges(List<ChangeLog.Change> changed) {
+        Set<Integer> sessionIds = new LinkedHashSet<>();
+        for (ChangeLog.Change change : changed) {
+            if (change.getEntity() == ChangeLog.Entity.SESSION) {
+                sessionIds.add(change.getKey());
             }
+        }
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        tasks.runQuietly(
+                () -> SessionQueries.loadTutorSessions(tutor.getSystemId(), sessionIds),
+                rows -> sessionModel.patch(sessionIds, rows),
+                Exception::printStackTrace
+        );
+    }
 
-            tblTutorSessions.setModel(model);
+    // ===================== ATTENDANCE DIALOG =====================
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Error loading tutor sessions:\n" + ex.getMessage(),
-                    "DB Error",
-                    JOptionPane.ERROR_MESSAGE
+    /**
+     * The students registered for one session; the tutor marks each one
+     * Attended or No-Show (or back to Registered).
+     */
+    private static class AttendanceDialog extends JDialog {
+
+        private static final String[] COLUMNS = {"StudentID", "Name", "Status"};
+
+        private final int sessionId;
+        private final WindowTasks tasks = new WindowTasks(this);
+        private final DefaultTableModel rosterModel = new DefaultTableModel(COLUMNS, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        private JTable tblRoster;
+
+        AttendanceDialog(JFrame parent, int sessionId, String title) {
+            super(parent, "Attendance - " + title, true);
+            this.sessionId = sessionId;
+            setSize(500, 350);
+            setLocationRelativeTo(parent);
+            initUI();
+            loadRoster();
+        }
+
+        private void initUI() {
+            JPanel panel = new JPanel(new BorderLayout(10, 10));
+            panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+            tblRoster = new JTable(rosterModel);
+            tblRoster.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+            panel.add(new JScrollPane(tblRoster), BorderLayout.CENTER);
+
+            JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            btnPanel.add(tasks.getIndicator());
+            for (String status : AttendanceRollup.STATUSES) {
+                JButton btn = new JButton(status);
+                btn.addActionListener(e -> markSelected(status));
+                btnPanel.add(btn);
+            }
+            JButton btnClose = new JButton("Close");
+            btnClose.addActionListener(e -> dispose());
+            btnPanel.add(btnClose);
+            panel.add(btnPanel, BorderLayout.SOUTH);
+
+            setContentPane(panel);
+        }
+
+        private void loadRoster() {
+            tasks.run(
+                    () -> SessionQueries.loadSessionRoster(sessionId),
+                    rows -> rosterModel.setDataVector(rows.toArray(new Object[0][]), COLUMNS),
+                    ex -> {
+                        ex.printStackTrace();
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Error loading students:\n" + ex.getMessage(),
+                                "DB Error",
+                                JOptionPane.ERROR_MESSAGE
+                        );
+                    }
+            );
+        }
+
+        private void markSelected(String status) {
+            int[] viewRows = tblRoster.getSelectedRows();
+            if (viewRows.length == 0) {
+                JOptionPane.showMessageDialog(
+                        this,
+                        "Select one or more students.",
+                        "No Selection",
+                        JOptionPane.INFORMATION_MESSAGE
+                );
+                return;
+            }
+            int[] modelRows = new int[viewRows.length];
+            int[] studentIds = new int[viewRows.length];
+            for (int i = 0; i < viewRows.length; i++) {
+                modelRows[i] = tblRoster.convertRowIndexToModel(viewRows[i]);
+                studentIds[i] = (Integer) rosterModel.getValueAt(modelRows[i], 0);
+            }
+
+            tasks.run(
+                    () -> {
+                        boolean[] updated = new boolean[studentIds.length];
+                        for (int i = 0; i < studentIds.length; i++) {
+                            updated[i] = SessionQueries.setAttendanceStatus(sessionId, studentIds[i], status);
+                        }
+                        return updated;
+                    },
+                    updated -> {
+                        for (int i = 0; i < modelRows.length; i++) {
+                            if (updated[i]) {
+                                rosterModel.setValueAt(status, modelRows[i], 2);
+                            }
+                        }
+                    },
+                    ex -> {
+                        ex.printStackTrace();
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Error saving attendance:\n" + ex.getMessage(),
+                                "DB Error",
+                                JOptionPane.ERROR_MESSAGE
+                        );
+                        loadRoster(); // some may have been saved before the error
+                    }
             );
         }
     }
@@ -0,0 +1,167 @@
+package com.asctutorial.app;
+
+import com.asctutorial.util.DbExecutor;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Background database tasks owned by one window.
+ *
+ * Shows a busy indicator while anything is in flight. When the window is
+ * closed, whatever is still pending is cancelled and callbacks already
+ * queued on the EDT are dropped, so late results never touch a disposed UI.
+ */
+class WindowTasks {
+
+    private final Window owner;
+    private final JProgressBar indicator;
+    private final Set<Future<?>> pending = ConcurrentHashMap.newKeySet();
+    private int inFlight = 0; // EDT only
+    private boolean closed = false; // EDT only
+
+    WindowTasks(Window owner) {
+        this.owner = owner;
+
+        indicator = new JProgressBar();
+        indicator.setIndeterminate(true);
+        indicator.setString("Loading...");
+        indicator.setStringPainted(true);
+        indicator.setVisible(false);
+
+        owner.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                close();
+            }
+
+            @Override
+            public void windowClosed(WindowEvent e) {
+                close();
+            }
+        });
+    }
+
+    /**
+     * Progress bar that is visible only while tasks are running; add it to the window's layout.
+     */
+    JProgressBar getIndicator() {
+        return indicator;
+    }
+
+    /**
+     * Runs {@code work} off the EDT; callbacks run on the EDT unless the window was closed first.
+     */
+    <T> Future<T> run(DbExecutor.DbWork<T> work, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        started();
+        Future<?>[] self = new Future<?>[1];
+        Future<T> future = DbExecutor.submit(
+                work,
+                result -> {
+                    if (closed) {
+                        return;
+                    }
+                    finished(self[0]);
+                    if (onSuccess != null) {
+                        onSuccess.accept(result);
+                    }
+                },
+                ex -> {
+                    if (closed) {
+                        return;
+                    }
+                    finished(self[0]);
+                    if (onError != null) {
+                        onError.accept(ex);
+                    }
+                }
+        );
+        self[0] = future;
+        pending.add(future);
+        if (future.isCancelled()) {
+            // rejected by the executor; the error callback is already queued
+            pending.remove(future);
+        }
+        return future;
+    }
+
+    /**
+     * Like {@link #run}, without the busy indicator: for periodic background
+     * work the user didn't ask for and shouldn't see flicker for.
+     */
+    <T> Future<T> runQuietly(DbExecutor.DbWork<T> work, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        Future<?>[] self = new Future<?>[1];
+        Future<T> future = DbExecutor.submit(
+                work,
+                result -> {
+                    if (closed) {
+                        return;
+                    }
+                    pending.remove(self[0]);
+                    if (onSuccess != null) {
+                        onSuccess.accept(result);
+                    }
+                },
+                ex -> {
+                    if (closed) {
+                        return;
+                    }
+                    pending.remove(self[0]);
+                    if (onError != null) {
+                        onError.accept(ex);
+                    }
+                }
+        );
+        self[0] = future;
+        if (!future.isCancelled()) {
+            pending.add(future);
+        }
+        return future;
+    }
+
+    /**
+     * Cancels everything pending. A task that already finished can't be
+     * cancelled, so its callback may be queued on the EDT; the closed flag
+     * makes the wrappers above drop it.
+     */
+    private void close() {
+        closed = true;
+        cancelAll();
+    }
+
+    void cancelAll() {
+        for (Future<?> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+        inFlight = 0;
+        updateIndicator();
+    }
+
+    private void started() {
+        inFlight++;
+        updateIndicator();
+    }
+
+    private void finished(Future<?> future) {
+        if (future != null) {
+            pending.remove(future);
+        }
+        inFlight = Math.max(0, inFlight - 1);
+        updateIndicator();
+    }
+
+    private void updateIndicator() {
+        boolean busy = inFlight > 0;
+        indicator.setVisible(busy);
+        owner.setCursor(busy
+                ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR)
+                : Cursor.getDefaultCursor());
+    }
+}
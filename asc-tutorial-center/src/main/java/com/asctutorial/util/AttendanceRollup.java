@@ -0,0 +1,489 @@
+package com.asctutorial.util;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * Attendance and no-show counts per week, tutor, subject and language
+ * (table AttendanceRollup, see V8), behind the manager's attendance report.
+ *
+ * Every write that adds, removes or re-statuses Attend rows adjusts the
+ * matching rollup row in the same transaction, so the report only sums
+ * rollup rows and never scans Attend. The table is first filled when
+ * {@link SchemaMigrator} applies V8. A nightly rebuild from Attend catches
+ * anything changed outside the application; it belongs on the database
+ * host's scheduler (every desk runs the app, so none of them owns it):
+ * <pre>
+ *   # crontab
+ *   30 2 * * *  java -cp ... com.asctutorial.util.AttendanceRollup rebuild
+ * </pre>
+ * "check" reports the drift without changing anything.
+ */
+public class AttendanceRollup {
+
+    private static final Logger LOG = Logger.getLogger(AttendanceRollup.class.getName());
+    private static final QueryMetrics REPORT = QueryMetrics.named("attendanceReport");
+
+    public static final String REGISTERED = "Registered";
+    public static final String ATTENDED = "Attended";
+    public static final String NO_SHOW = "No-Show";
+
+    /**
+     * The Attend.Status values the tutor can set, in display order.
+     */
+    public static final List<String> STATUSES = List.of(REGISTERED, ATTENDED, NO_SHOW);
+
+    /**
+     * What the report groups by.
+     */
+    public enum Dimension {
+        TUTOR("TutorID"),
+        SUBJECT("SubjectID"),
+        LANGUAGE("LanguageID"),
+        WEEK("WeekStart");
+
+        private final String column;
+
+        Dimension(String column) {
+            this.column = column;
+        }
+    }
+
+    /**
+     * One line of the report: a tutor, subject, language (Integer id) or week
+     * (Date of its Monday) with its registration counts.
+     */
+    public static class Row {
+        private final Object key;
+        private final int registered;
+        private final int attended;
+        private final int noShow;
+
+        Row(Object key, int registered, int attended, int noShow) {
+            this.key = key;
+            this.registered = registered;
+            this.attended = attended;
+            this.noShow = noShow;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Registrations not marked yet (Status still Registered).
+         */
+        public int getRegistered() {
+            return registered;
+        }
+
+        public int getAttended() {
+            return attended;
+        }
+
+        public int getNoShow() {
+            return noShow;
+        }
+
+        /**
+         * Attended share of the marked registrations, or null when none are marked.
+         */
+        public Double getAttendanceRate() {
+            int marked = attended + noShow;
+            return marked == 0 ? null : (double) attended / marked;
+        }
+
+        /**
+         * No-show share of the marked registrations, or null when none are marked.
+         */
+        public Double getNoShowRate() {
+            int marked = attended + noShow;
+            return marked == 0 ? null : (double) noShow / marked;
+        }
+    }
+
+    private static final String UPSERT = """
+            INSERT INTO AttendanceRollup
+                (WeekStart, TutorID, SubjectID, LanguageID, Registered, Attended, NoShow)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                Registered = Registered + VALUES(Registered),
+                Attended = Attended + VALUES(Attended),
+                NoShow = NoShow + VALUES(NoShow)
+            """;
+
+    private static final String INSERT = """
+            INSERT INTO AttendanceRollup
+                (WeekStart, TutorID, SubjectID, LanguageID, Registered, Attended, NoShow)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private AttendanceRollup() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean rebuild = args.length > 0 && args[0].equals("rebuild");
+        if (args.length > 0 && !rebuild && !args[0].equals("check")) {
+            System.err.println("Usage: AttendanceRollup [check|rebuild]");
+            System.exit(2);
+        }
+        if (rebuild) {
+            int drifted = rebuild();
+            System.out.println("Rollup rebuilt; " + drifted + " row(s) had drifted.");
+            return;
+        }
+        int drifted = check();
+        System.out.println(drifted + " rollup row(s) out of step.");
+        if (drifted > 0) {
+            System.exit(1);
+        }
+    }
+
+    // ===================== REPORT =====================
+
+    /**
+     * Counts grouped by {@code by}, over the weeks starting between
+     * {@code fromWeek} and {@code toWeek} (either may be null for open-ended).
+     */
+    public static List<Row> report(Dimension by, LocalDate fromWeek, LocalDate toWeek) throws SQLException {
+        return REPORT.measure(() -> {
+            StringBuilder sql = new StringBuilder()
+                    .append("SELECT ").append(by.column).append(" AS GroupKey, ")
+                    .append("SUM(Registered) AS Registered, SUM(Attended) AS Attended, SUM(NoShow) AS NoShow ")
+                    .append("FROM AttendanceRollup WHERE 1 = 1");
+            List<Object> params = new ArrayList<>();
+            if (fromWeek != null) {
+                sql.append(" AND WeekStart >= ?");
+                params.add(Date.valueOf(weekStart(fromWeek)));
+            }
+            if (toWeek != null) {
+                sql.append(" AND WeekStart <= ?");
+                params.add(Date.valueOf(weekStart(toWeek)));
+            }
+            // rows emptied by cancellations stay until the next rebuild; leave them out
+            sql.append(" GROUP BY ").append(by.column)
+                    .append(" HAVING SUM(Registered) + SUM(Attended) + SUM(NoShow) > 0")
+                    .append(" ORDER BY ").append(by.column);
+
+            List<Row> rows = new ArrayList<>();
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < params.size(); i++) {
+                    ps.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Object key = by == Dimension.WEEK ? rs.getDate("GroupKey") : rs.getInt("GroupKey");
+                        rows.add(new Row(key, rs.getInt("Registered"), rs.getInt("Attended"), rs.getInt("NoShow")));
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Monday of the week {@code date} falls in; the rollup's week key.
+     */
+    public static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    // ===================== INCREMENTAL UPDATES =====================
+
+    /**
+     * Records new registrations with status {@code status} for a session
+     * whose columns the caller already has (e.g. right after inserting it).
+     */
+    static void registered(Connection conn, Date sessionDate, Integer tutorId, Integer subjectId,
+                           Integer languageId, String status, int count) throws SQLException {
+        Map<Key, int[]> delta = new HashMap<>();
+        add(delta, sessionDate, tutorId, subjectId, languageId, status, count);
+        apply(conn, delta);
+    }
+
+    /**
+     * Records a registration of session {@code sessionId} going from
+     * {@code from} to {@code to}; either may be null (added / removed).
+     */
+    static void statusChanged(Connection conn, int sessionId, String from, String to) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT SessionDate, SystemID, SubjectID, LanguageID FROM Session WHERE SessionID = ?")) {
+            ps.setInt(1, sessionId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return;
+                }
+                Map<Key, int[]> delta = new HashMap<>();
+                Date date = rs.getDate("SessionDate");
+                Integer tutorId = rs.getObject("SystemID", Integer.class);
+                Integer subjectId = rs.getObject("SubjectID", Integer.class);
+                Integer languageId = rs.getObject("LanguageID", Integer.class);
+                if (from != null) {
+                    add(delta, date, tutorId, subjectId, languageId, from, -1);
+                }
+                if (to != null) {
+                    add(delta, date, tutorId, subjectId, languageId, to, 1);
+                }
+                apply(conn, delta);
+            }
+        }
+    }
+
+    /**
+     * Takes the registrations of sessions that are about to be deleted out
+     * of the rollup; call it before their Attend rows are removed.
+     */
+    static void sessionsRemoved(Connection conn, Collection<Integer> sessionIds) throws SQLException {
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        String sql = """
+                SELECT s.SessionDate, s.SystemID, s.SubjectID, s.LanguageID, a.Status, COUNT(*) AS N
+                FROM Attend a
+                JOIN Session s ON s.SessionID = a.SessionID
+                WHERE a.SessionID IN (%s)
+                GROUP BY s.SessionDate, s.SystemID, s.SubjectID, s.LanguageID, a.Status
+                """.formatted(String.join(", ", Collections.nCopies(sessionIds.size(), "?")));
+
+        Map<Key, int[]> delta;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (int id : sessionIds) {
+                ps.setInt(i++, id);
+            }
+            delta = aggregate(ps, -1);
+        }
+        apply(conn, delta);
+    }
+
+    // ===================== REBUILD =====================
+
+    /**
+     * Number of rollup rows that differ from a fresh count of Attend.
+     */
+    public static int check() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return drift(stored(conn, false), recount(conn));
+        }
+    }
+
+    /**
+     * Replaces the whole rollup with a fresh count of Attend, in one transaction.
+     *
+     * @return how many rollup rows were wrong (0 when the incremental updates kept up)
+     */
+    public static int rebuild() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return rebuild(conn);
+        }
+    }
+
+    static int rebuild(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            // Lock the rollup before anything reads Attend: a status change
+            // committed earlier is in both the locked read and the recount
+            // below; one still running waits on its rollup upsert and applies
+            // its delta on top. (A plain read here would fix the InnoDB
+            // snapshot first, and a change committing before the DELETE would
+            // be dropped by it yet missed by the recount.)
+            Map<Key, int[]> before = stored(conn, true);
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM AttendanceRollup")) {
+                ps.executeUpdate();
+            }
+            Map<Key, int[]> fresh = recount(conn);
+            try (PreparedStatement ps = conn.prepareStatement(INSERT)) {
+                for (Map.Entry<Key, int[]> entry : fresh.entrySet()) {
+                    bind(ps, entry.getKey(), entry.getValue());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+            int drifted = drift(before, fresh);
+            if (drifted > 0 && !before.isEmpty()) { // empty before: first fill, nothing drifted
+                LOG.warning("Attendance rollup rebuilt; " + drifted + " row(s) had drifted");
+            }
+            return drifted;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static Map<Key, int[]> recount(Connection conn) throws SQLException {
+        String sql = """
+                SELECT s.SessionDate, s.SystemID, s.SubjectID, s.LanguageID, a.Status, COUNT(*) AS N
+                FROM Attend a
+                JOIN Session s ON s.SessionID = a.SessionID
+                GROUP BY s.SessionDate, s.SystemID, s.SubjectID, s.LanguageID, a.Status
+                """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            Map<Key, int[]> counts = aggregate(ps, 1);
+            counts.values().removeIf(AttendanceRollup::isZero);
+            return counts;
+        }
+    }
+
+    private static Map<Key, int[]> stored(Connection conn, boolean lock) throws SQLException {
+        Map<Key, int[]> rows = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT WeekStart, TutorID, SubjectID, LanguageID, Registered, Attended, NoShow FROM AttendanceRollup"
+                        + (lock ? " FOR UPDATE" : ""));
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                int[] counts = {rs.getInt("Registered"), rs.getInt("Attended"), rs.getInt("NoShow")};
+                if (!isZero(counts)) {
+                    Key key = new Key(rs.getDate("WeekStart").toLocalDate(),
+                            rs.getInt("TutorID"), rs.getInt("SubjectID"), rs.getInt("LanguageID"));
+                    rows.put(key, counts);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static int drift(Map<Key, int[]> stored, Map<Key, int[]> actual) {
+        int drifted = 0;
+        for (Map.Entry<Key, int[]> entry : actual.entrySet()) {
+            int[] have = stored.get(entry.getKey());
+            if (have == null || !Arrays.equals(have, entry.getValue())) {
+                drifted++;
+            }
+        }
+        for (Key key : stored.keySet()) {
+            if (!actual.containsKey(key)) {
+                drifted++;
+            }
+        }
+        return drifted;
+    }
+
+    // ===================== HELPERS =====================
+
+    /**
+     * Rollup row key; a missing tutor, subject or language is stored as 0.
+     */
+    private static final class Key {
+        private final LocalDate weekStart;
+        private final int tutorId;
+        private final int subjectId;
+        private final int languageId;
+
+        Key(LocalDate weekStart, int tutorId, int subjectId, int languageId) {
+            this.weekStart = weekStart;
+            this.tutorId = tutorId;
+            this.subjectId = subjectId;
+            this.languageId = languageId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other
+                    && weekStart.equals(other.weekStart)
+                    && tutorId == other.tutorId
+                    && subjectId == other.subjectId
+                    && languageId == other.languageId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(weekStart, tutorId, subjectId, languageId);
+        }
+    }
+
+    /**
+     * Folds rows of (SessionDate, SystemID, SubjectID, LanguageID, Status, N)
+     * into per-week counts, each N multiplied by {@code sign}.
+     */
+    private static Map<Key, int[]> aggregate(PreparedStatement ps, int sign) throws SQLException {
+        Map<Key, int[]> counts = new HashMap<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                add(counts, rs.getDate("SessionDate"),
+                        rs.getObject("SystemID", Integer.class),
+                        rs.getObject("SubjectID", Integer.class),
+                        rs.getObject("LanguageID", Integer.class),
+                        rs.getString("Status"), sign * rs.getInt("N"));
+            }
+        }
+        return counts;
+    }
+
+    private static void add(Map<Key, int[]> counts, Date sessionDate, Integer tutorId, Integer subjectId,
+                            Integer languageId, String status, int n) {
+        int column = column(status);
+        if (sessionDate == null || column < 0) {
+            return; // undated sessions and unknown statuses aren't reported
+        }
+        Key key = new Key(weekStart(sessionDate.toLocalDate()),
+                tutorId == null ? 0 : tutorId,
+                subjectId == null ? 0 : subjectId,
+                languageId == null ? 0 : languageId);
+        counts.computeIfAbsent(key, k -> new int[3])[column] += n;
+    }
+
+    private static void apply(Connection conn, Map<Key, int[]> delta) throws SQLException {
+        delta.values().removeIf(AttendanceRollup::isZero);
+        if (delta.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(UPSERT)) {
+            for (Map.Entry<Key, int[]> entry : delta.entrySet()) {
+                bind(ps, entry.getKey(), entry.getValue());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Key key, int[] counts) throws SQLException {
+        ps.setDate(1, Date.valueOf(key.weekStart));
+        ps.setInt(2, key.tutorId);
+        ps.setInt(3, key.subjectId);
+        ps.setInt(4, key.languageId);
+        ps.setInt(5, counts[0]);
+        ps.setInt(6, counts[1]);
+        ps.setInt(7, counts[2]);
+    }
+
+    /**
+     * Which count a status goes into: 0 registered, 1 attended, 2 no-show,
+     * -1 for anything else.
+     */
+    private static int column(String status) {
+        if (status == null) {
+            return -1;
+        }
+        return switch (status.trim().toLowerCase(Locale.ROOT)) {
+            case "registered" -> 0;
+            case "attended" -> 1;
+            case "no-show", "no show", "noshow" -> 2;
+            default -> -1;
+        };
+    }
+
+    private static boolean isZero(int[] counts) {
+        return counts[0] == 0 && counts[1] == 0 && counts[2] == 0;
+    }
+}
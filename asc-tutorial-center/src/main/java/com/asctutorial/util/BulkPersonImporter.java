@@ -0,0 +1,455 @@
+package com.asctutorial.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports students and tutors from a CSV file.
+ *
+ * The file is streamed, validated row by row, and written with JDBC batches
+ * (Person, Student, Tutor), committing every db.import.chunkSize rows.
+ * If a chunk is rejected by the database, it is retried one row at a time so
+ * the bad rows can be reported and the good ones still go in.
+ *
+ * Expected header (any order, case-insensitive):
+ * <pre>
+ *   Role,FirstName,LastName,Email,Phone,UserName,Password,PreferredLanguage,DateHired
+ * </pre>
+ * Role is STUDENT or TUTOR; Email, Phone, PreferredLanguage and DateHired are optional.
+ *
+ * Headless use:
+ * <pre>
+ *   java -cp ... com.asctutorial.util.BulkPersonImporter people.csv &lt;managerSystemId&gt;
+ * </pre>
+ */
+public class BulkPersonImporter {
+
+    private static final String[] REQUIRED = {"role", "firstname", "lastname", "username", "password"};
+
+    /**
+     * A rejected input row.
+     */
+    public static class RowError {
+        private final int line;
+        private final String message;
+
+        RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + message;
+        }
+    }
+
+    public static class Result {
+        private int rowsRead;
+        private int studentsImported;
+        private int tutorsImported;
+        private final List<RowError> errors = new ArrayList<>();
+
+        public int getRowsRead() {
+            return rowsRead;
+        }
+
+        public int getStudentsImported() {
+            return studentsImported;
+        }
+
+        public int getTutorsImported() {
+            return tutorsImported;
+        }
+
+        public List<RowError> getErrors() {
+            return errors;
+        }
+    }
+
+    private static class Row {
+        final int line;
+        final boolean tutor;
+        final String firstName;
+        final String lastName;
+        final String email;
+        final String phone;
+        final String userName;
+        final String password;
+        final String prefLang;
+        final Date dateHired;
+        int systemId;
+        String passwordHash;
+
+        Row(int line, boolean tutor, String firstName, String lastName, String email, String phone,
+            String userName, String password, String prefLang, Date dateHired) {
+            this.line = line;
+            this.tutor = tutor;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.email = email;
+            this.phone = phone;
+            this.userName = userName;
+            this.password = password;
+            this.prefLang = prefLang;
+            this.dateHired = dateHired;
+        }
+
+        int roleMask() {
+            return tutor ? Role.mask(Role.STUDENT, Role.TUTOR) : Role.mask(Role.STUDENT);
+        }
+    }
+
+    private final int managerId;
+    private final int chunkSize;
+
+    /**
+     * @param managerId SystemID recorded as Tutor.ManagedBy for imported tutors
+     */
+    public BulkPersonImporter(int managerId) {
+        this(managerId, Integer.parseInt(DatabaseConnection.getConfig().getProperty("db.import.chunkSize", "500")));
+    }
+
+    public BulkPersonImporter(int managerId, int chunkSize) {
+        this.managerId = managerId;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: BulkPersonImporter <file.csv> <managerSystemId>");
+            System.exit(2);
+        }
+        Result result = new BulkPersonImporter(Integer.parseInt(args[1])).importFile(Path.of(args[0]));
+        System.out.println("Rows read: " + result.getRowsRead()
+                + ", students: " + result.getStudentsImported()
+                + ", tutors: " + result.getTutorsImported()
+                + ", rejected: " + result.getErrors().size());
+        for (RowError error : result.getErrors()) {
+            System.out.println("  " + error);
+        }
+    }
+
+    public Result importFile(Path file) throws IOException, SQLException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importCsv(reader);
+        }
+    }
+
+    public Result importCsv(Reader input) throws IOException, SQLException {
+        Result result = new Result();
+        CsvReader csv = new CsvReader(input);
+
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return result;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", ""); // Excel writes a BOM
+            columns.put(name.trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED) {
+            if (!columns.containsKey(required)) {
+                throw new IOException("CSV header is missing the " + required + " column");
+            }
+        }
+
+        Set<String> seenUserNames = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        try {
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                int line = csv.getRecordLine();
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                result.rowsRead++;
+
+                Row row = parseRow(line, record, columns, seenUserNames, result);
+                if (row == null) {
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    flush(chunk, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flush(chunk, result);
+            }
+        } finally {
+            if (result.studentsImported + result.tutorsImported > 0) {
+                // every tutor row is also a Student row
+                SummaryStatsCache.peopleAdded(result.studentsImported + result.tutorsImported,
+                        result.tutorsImported);
+            }
+            if (result.tutorsImported > 0) {
+                ReferenceDataCache.invalidate();
+            }
+        }
+        result.errors.sort(Comparator.comparingInt(RowError::getLine));
+        return result;
+    }
+
+    // ===================== VALIDATION =====================
+
+    private Row parseRow(int line, List<String> record, Map<String, Integer> columns,
+                         Set<String> seenUserNames, Result result) {
+        String role = field(record, columns, "role").toUpperCase(Locale.ROOT);
+        String firstName = field(record, columns, "firstname");
+        String lastName = field(record, columns, "lastname");
+        String email = field(record, columns, "email");
+        String phone = field(record, columns, "phone");
+        String userName = field(record, columns, "username");
+        String password = field(record, columns, "password");
+        String prefLang = field(record, columns, "preferredlanguage");
+        String dateHiredStr = field(record, columns, "datehired");
+
+        if (!role.equals("STUDENT") && !role.equals("TUTOR")) {
+            result.errors.add(new RowError(line, "Role must be STUDENT or TUTOR"));
+            return null;
+        }
+        if (firstName.isEmpty() || lastName.isEmpty() || userName.isEmpty() || password.isEmpty()) {
+            result.errors.add(new RowError(line, "First name, last name, username and password are required"));
+            return null;
+        }
+        if (firstName.length() > 100 || lastName.length() > 100 || email.length() > 100
+                || phone.length() > 25 || userName.length() > 50 || prefLang.length() > 100) {
+            result.errors.add(new RowError(line, "A value is longer than its column allows"));
+            return null;
+        }
+        if (!seenUserNames.add(userName.toLowerCase(Locale.ROOT))) {
+            result.errors.add(new RowError(line, "Username " + userName + " appears more than once in the file"));
+            return null;
+        }
+
+        Date dateHired = null;
+        boolean tutor = role.equals("TUTOR");
+        if (tutor) {
+            try {
+                dateHired = dateHiredStr.isEmpty() ? Date.valueOf(LocalDate.now()) : Date.valueOf(dateHiredStr);
+            } catch (IllegalArgumentException e) {
+                result.errors.add(new RowError(line, "DateHired must be YYYY-MM-DD"));
+                return null;
+            }
+        }
+
+        return new Row(line, tutor, firstName, lastName, email, phone, userName, password,
+                prefLang.isEmpty() ? "English" : prefLang, dateHired);
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer idx = columns.get(name);
+        return idx == null || idx >= record.size() ? "" : record.get(idx).trim();
+    }
+
+    // ===================== WRITING =====================
+
+    private void flush(List<Row> chunk, Result result) throws SQLException {
+        int firstId = IdGenerator.get().nextBlock(IdGenerator.Sequence.PERSON, chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            chunk.get(i).systemId = firstId + i;
+        }
+        List<String> hashes = PasswordHashPool.hashAll(chunk.stream().map(r -> r.password).toList());
+        for (int i = 0; i < chunk.size(); i++) {
+            chunk.get(i).passwordHash = hashes.get(i);
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                insertBatch(conn, chunk);
+                conn.commit();
+                count(chunk, result);
+            } catch (BatchUpdateException e) {
+                conn.rollback();
+                // find the offending rows: retry one at a time, each in its own transaction
+                for (Row row : chunk) {
+                    try {
+                        insertBatch(conn, List.of(row));
+                        conn.commit();
+                        count(List.of(row), result);
+                    } catch (SQLException rowError) {
+                        conn.rollback();
+                        String state = rowError.getSQLState();
+                        result.errors.add(new RowError(row.line, state != null && state.startsWith("23")
+                                ? "Username " + row.userName + " is already taken"
+                                : rowError.getMessage()));
+                    }
+                }
+            }
+        }
+    }
+
+    private void insertBatch(Connection conn, List<Row> rows) throws SQLException {
+        String insertPerson = """
+                INSERT INTO Person
+                    (SystemID, FirstName, LastName, Email, PhoneNum, UserName, Password, RoleMask)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                """;
+        String insertStudent = """
+                INSERT INTO Student (SystemID, PreferredLanguage)
+                VALUES (?, ?)
+                """;
+        String insertTutor = """
+                INSERT INTO Tutor (SystemID, DateHired, ManagedBy)
+                VALUES (?, ?, ?)
+                """;
+
+        try (PreparedStatement ps = conn.prepareStatement(insertPerson)) {
+            for (Row row : rows) {
+                ps.setInt(1, row.systemId);
+                ps.setString(2, row.firstName);
+                ps.setString(3, row.lastName);
+                ps.setString(4, row.email);
+                ps.setString(5, row.phone);
+                ps.setString(6, row.userName);
+                ps.setString(7, row.passwordHash);
+                ps.setInt(8, row.roleMask());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        // every tutor is also a Student row (Tutor.SystemID -> Student.SystemID)
+        try (PreparedStatement ps = conn.prepareStatement(insertStudent)) {
+            for (Row row : rows) {
+                ps.setInt(1, row.systemId);
+                ps.setString(2, row.prefLang);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        boolean anyTutor = rows.stream().anyMatch(r -> r.tutor);
+        if (anyTutor) {
+            try (PreparedStatement ps = conn.prepareStatement(insertTutor)) {
+                for (Row row : rows) {
+                    if (row.tutor) {
+                        ps.setInt(1, row.systemId);
+                        ps.setDate(2, row.dateHired);
+                        ps.setInt(3, managerId);
+                        ps.addBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+        }
+
+        ChangeLog.recordAll(conn, ChangeLog.Entity.PERSON,
+                rows.stream().map(r -> r.systemId).toList(), ChangeLog.Op.INSERT);
+        ChangeLog.recordAll(conn, ChangeLog.Entity.TUTOR,
+                rows.stream().filter(r -> r.tutor).map(r -> r.systemId).toList(), ChangeLog.Op.INSERT);
+    }
+
+    private static void count(List<Row> rows, Result result) {
+        for (Row row : rows) {
+            if (row.tutor) {
+                result.tutorsImported++;
+            } else {
+                result.studentsImported++;
+            }
+        }
+    }
+
+    // ===================== CSV =====================
+
+    /**
+     * Minimal RFC 4180 reader: comma separated, double-quoted fields may
+     * contain commas, doubled quotes and line breaks.
+     */
+    private static class CsvReader {
+        private final BufferedReader in;
+        private int line = 0;
+        private int recordLine = 0;
+
+        CsvReader(Reader in) {
+            this.in = in instanceof BufferedReader b ? b : new BufferedReader(in);
+        }
+
+        int getRecordLine() {
+            return recordLine;
+        }
+
+        List<String> readRecord() throws IOException {
+            String text = in.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+            recordLine = line;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i >= text.length()) {
+                    if (quoted) {
+                        // quoted field continues on the next line
+                        String next = in.readLine();
+                        if (next == null) {
+                            break;
+                        }
+                        line++;
+                        field.append('\n');
+                        text = next;
+                        i = 0;
+                        continue;
+                    }
+                    break;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i < text.length() && text.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
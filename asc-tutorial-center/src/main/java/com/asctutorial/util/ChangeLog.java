@@ -0,0 +1,184 @@
+package com.asctutorial.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The ChangeLog table: one row per changed entity, written in the same
+ * transaction as the change itself. Dashboards poll it with
+ * {@link #since(long, int)} to find out what to re-read.
+ */
+public final class ChangeLog {
+
+    public enum Entity {
+        SESSION("Session"),
+        PERSON("Person"),
+        TUTOR("Tutor"),
+        SUBJECT("SubjectsOffered");
+
+        private final String tableName;
+
+        Entity(String tableName) {
+            this.tableName = tableName;
+        }
+
+        static Entity of(String tableName) {
+            for (Entity e : values()) {
+                if (e.tableName.equals(tableName)) {
+                    return e;
+                }
+            }
+            return null;
+        }
+    }
+
+    public enum Op {
+        INSERT('I'), UPDATE('U'), DELETE('D');
+
+        private final char code;
+
+        Op(char code) {
+            this.code = code;
+        }
+
+        static Op of(String code) {
+            for (Op op : values()) {
+                if (code != null && !code.isEmpty() && op.code == code.charAt(0)) {
+                    return op;
+                }
+            }
+            return UPDATE;
+        }
+    }
+
+    /**
+     * One ChangeLog row.
+     */
+    public static class Change {
+        private final long version;
+        private final Entity entity;
+        private final int key;
+        private final Op op;
+
+        Change(long version, Entity entity, int key, Op op) {
+            this.version = version;
+            this.entity = entity;
+            this.key = key;
+            this.op = op;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Null for a table this version of the app doesn't know about.
+         */
+        public Entity getEntity() {
+            return entity;
+        }
+
+        public int getKey() {
+            return key;
+        }
+
+        public Op getOp() {
+            return op;
+        }
+    }
+
+    private static final String INSERT_SQL =
+            "INSERT INTO ChangeLog (EntityName, EntityKey, Operation, ChangedAt) VALUES (?, ?, ?, ?)";
+
+    private static final QueryMetrics POLL = QueryMetrics.named("changePoll");
+
+    private ChangeLog() {
+    }
+
+    /**
+     * Logs a change on {@code conn}; call before the caller commits.
+     */
+    public static void record(Connection conn, Entity entity, int key, Op op) throws SQLException {
+        recordAll(conn, entity, List.of(key), op);
+    }
+
+    public static void recordAll(Connection conn, Entity entity, Collection<Integer> keys, Op op)
+            throws SQLException {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+            for (int key : keys) {
+                ps.setString(1, entity.tableName);
+                ps.setInt(2, key);
+                ps.setString(3, String.valueOf(op.code));
+                ps.setTimestamp(4, now);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Highest version written so far (0 for an empty log): the starting point for polling.
+     */
+    public static long latestVersion() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT MAX(Version) FROM ChangeLog");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Changes after {@code version}, oldest first, at most {@code limit}.
+     * A range scan on the primary key.
+     */
+    public static List<Change> since(long version, int limit) throws SQLException {
+        return POLL.measure(() -> {
+            String sql = """
+                    SELECT Version, EntityName, EntityKey, Operation
+                    FROM ChangeLog
+                    WHERE Version > ?
+                    ORDER BY Version
+                    LIMIT ?
+                    """;
+
+            List<Change> changes = new ArrayList<>();
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setLong(1, version);
+                ps.setInt(2, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        changes.add(new Change(rs.getLong("Version"), Entity.of(rs.getString("EntityName")),
+                                rs.getInt("EntityKey"), Op.of(rs.getString("Operation"))));
+                    }
+                }
+            }
+            return changes;
+        });
+    }
+
+    /**
+     * Deletes entries older than db.changes.retentionHours. Pollers only ever
+     * look a few seconds back, so old rows are dead weight.
+     *
+     * @return rows deleted
+     */
+    public static int prune() throws SQLException {
+        long hours = Long.parseLong(DatabaseConnection.getConfig().getProperty("db.changes.retentionHours", "24"));
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM ChangeLog WHERE ChangedAt < ?")) {
+            ps.setTimestamp(1, new Timestamp(System.currentTimeMillis() - hours * 3_600_000L));
+            return ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.asctutorial.util;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * Which database the application talks to, chosen with db.backend in
+ * db.properties (or -Ddb.backend=...).
+ *
+ * <ul>
+ *   <li>mysql - the shared server; connection settings from db.url / db.user / db.password.</li>
+ *   <li>h2 - an embedded H2 database in MySQL compatibility mode, for demos,
+ *       benchmarks and offline work. Settings from db.h2.url / db.h2.user /
+ *       db.h2.password; an empty database gets the tables from
+ *       "DB initialize.sql" (and its sample rows when db.h2.seed=true)
+ *       followed by all migrations.</li>
+ * </ul>
+ */
+public enum DatabaseBackend {
+
+    MYSQL("com.mysql.cj.jdbc.Driver", "db.",
+            "jdbc:mysql://localhost:3306/ASCTutorialCenter?allowMultiQueries=true&rewriteBatchedStatements=true",
+            "root", "root"),
+
+    H2("org.h2.Driver", "db.h2.",
+            "jdbc:h2:mem:ASCTutorialCenter;MODE=MySQL;DB_CLOSE_DELAY=-1",
+            "sa", "") {
+        @Override
+        void initialize(DataSource dataSource, Properties config) throws SQLException, IOException {
+            try (Connection conn = dataSource.getConnection()) {
+                if (hasSchema(conn)) {
+                    return;
+                }
+                LOG.info("Creating embedded database schema");
+                conn.setAutoCommit(false);
+                runScript(conn, "/db/embedded/schema.sql");
+                if (Boolean.parseBoolean(config.getProperty("db.h2.seed", "true"))) {
+                    runScript(conn, "/db/embedded/seed.sql");
+                }
+                conn.commit();
+            }
+            SchemaMigrator.migrate(dataSource); // V8 counts the sample registrations into the rollup
+        }
+
+        @Override
+        int streamingFetchSize() {
+            return 1000; // embedded: rows are read in pages from the engine
+        }
+
+        @Override
+        String bulkLoadStatement(String table, String columns, Path file) {
+            return "INSERT INTO " + table + " (" + columns + ") SELECT * FROM CSVREAD("
+                    + quote(file) + ", NULL, 'charset=UTF-8 fieldSeparator=' || CHAR(9))";
+        }
+    };
+
+    private static final Logger LOG = Logger.getLogger(DatabaseBackend.class.getName());
+
+    private final String driverClass;
+    private final String prefix;
+    private final String defaultUrl;
+    private final String defaultUser;
+    private final String defaultPassword;
+
+    DatabaseBackend(String driverClass, String prefix,
+                    String defaultUrl, String defaultUser, String defaultPassword) {
+        this.driverClass = driverClass;
+        this.prefix = prefix;
+        this.defaultUrl = defaultUrl;
+        this.defaultUser = defaultUser;
+        this.defaultPassword = defaultPassword;
+    }
+
+    public static DatabaseBackend fromConfig(Properties config) {
+        String name = config.getProperty("db.backend", "mysql").trim().toUpperCase(Locale.ROOT);
+        try {
+            return valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Unknown db.backend '" + name.toLowerCase(Locale.ROOT)
+                    + "' (expected mysql or h2)");
+        }
+    }
+
+    public String url(Properties config) {
+        return config.getProperty(prefix + "url", defaultUrl);
+    }
+
+    public String user(Properties config) {
+        return config.getProperty(prefix + "user", defaultUser);
+    }
+
+    public String password(Properties config) {
+        return config.getProperty(prefix + "password", defaultPassword);
+    }
+
+    void loadDriver() {
+        try {
+            Class.forName(driverClass);
+        } catch (ClassNotFoundException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Prepares a freshly opened database before the rest of the app sees it.
+     * Nothing to do for MySQL, whose schema is managed by hand plus migrations.
+     */
+    void initialize(DataSource dataSource, Properties config) throws SQLException, IOException {
+    }
+
+    /**
+     * Fetch size that makes a forward-only, read-only statement hand rows over
+     * as they arrive instead of reading the whole result first. For MySQL
+     * that is Connector/J's row-streaming mode (Integer.MIN_VALUE), which
+     * works without useCursorFetch on the connection URL; the connection
+     * can run nothing else until the result set is closed.
+     */
+    int streamingFetchSize() {
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * Statement that loads a UTF-8, tab-separated file with a header row into
+     * {@code columns} of {@code table}, reading the file on the client. For
+     * MySQL that is LOAD DATA LOCAL INFILE, which needs allowLoadLocalInfile=true
+     * on db.url and local_infile enabled on the server.
+     */
+    String bulkLoadStatement(String table, String columns, Path file) {
+        return "LOAD DATA LOCAL INFILE " + quote(file) + " INTO TABLE " + table
+                + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' LINES TERMINATED BY '\\n'"
+                + " IGNORE 1 LINES (" + columns + ")";
+    }
+
+    private static String quote(Path file) {
+        String path = file.toAbsolutePath().toString().replace('\\', '/');
+        return "'" + path.replace("'", "''") + "'";
+    }
+
+    private static boolean hasSchema(Connection conn) {
+        try (Statement st = conn.createStatement()) {
+            st.executeQuery("SELECT 1 FROM Person WHERE 1 = 0").close();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void runScript(Connection conn, String resource) throws SQLException, IOException {
+        String sql;
+        try (InputStream in = DatabaseBackend.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing resource " + resource);
+            }
+            sql = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try (Statement st = conn.createStatement()) {
+            for (String statement : SchemaMigrator.splitStatements(sql)) {
+                st.execute(statement);
+            }
+        }
+    }
+}
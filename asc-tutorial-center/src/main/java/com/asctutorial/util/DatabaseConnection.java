@@ -2,26 +2,88 @@ package com.asctutorial.util;
 
 import com.asctutorial.app.PersonInfo;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.*;
+import java.util.Properties;
 
 public class DatabaseConnection {
 
-    // TODO: change these to YOUR actual MySQL settings
-    private static final String URL = "jdbc:mysql://localhost:3306/ASCTutorialCenter?allowMultiQueries=true";
-    private static final String USER = "root";          // your MySQL user
-    private static final String PASSWORD = "root";  // your MySQL password
+    // Settings from db.properties, overridden by -D system properties
+    private static final Properties CONFIG = loadConfig();
+    private static final DatabaseBackend BACKEND = DatabaseBackend.fromConfig(CONFIG);
+    private static volatile PooledDataSource dataSource;
+    private static final QueryMetrics LOGIN = QueryMetrics.named("login");
 
     static {
-        try {
-            // MySQL 8+ driver
-            Class.forName("com.mysql.cj.jdbc.Driver");
-        } catch (ClassNotFoundException e) {
+        BACKEND.loadDriver();
+    }
+
+    private static Properties loadConfig() {
+        Properties props = new Properties();
+        try (InputStream in = DatabaseConnection.class.getResourceAsStream("/db.properties")) {
+            if (in != null) {
+                props.load(in);
+            }
+        } catch (IOException e) {
             e.printStackTrace();
         }
+        // -Ddb.url=... etc. win over the bundled file
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("db.")) {
+                props.setProperty(key, System.getProperty(key));
+            }
+        }
+        return props;
+    }
+
+    /**
+     * Settings from db.properties (with system property overrides applied).
+     */
+    public static Properties getConfig() {
+        return CONFIG;
+    }
+
+    public static DatabaseBackend getBackend() {
+        return BACKEND;
+    }
+
+    public static PooledDataSource.Config getDataSourceConfig() {
+        return PooledDataSource.Config.fromProperties(CONFIG);
+    }
+
+    public static PooledDataSource getDataSource() {
+        PooledDataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (DatabaseConnection.class) {
+                ds = dataSource;
+                if (ds == null) {
+                    ds = new PooledDataSource(
+                            BACKEND.url(CONFIG),
+                            BACKEND.user(CONFIG),
+                            BACKEND.password(CONFIG),
+                            getDataSourceConfig()
+                    );
+                    PooledDataSource created = ds;
+                    Runtime.getRuntime().addShutdownHook(
+                            new Thread(created::shutdown, "db-pool-shutdown"));
+                    try {
+                        BACKEND.initialize(ds, CONFIG);
+                    } catch (SQLException | IOException e) {
+                        throw new IllegalStateException("Could not prepare the " + BACKEND + " database", e);
+                    }
+                    dataSource = ds;
+                }
+            }
+        }
+        return ds;
     }
 
+    /**
+     * Borrows a connection from the pool. Closing it returns it to the pool.
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return getDataSource().getConnection();
     }
 
     /**
@@ -44,43 +106,73 @@ public class DatabaseConnection {
 //            }
 //        }
     }
+    /**
+     * One probe of the unique UserName index; roles come from Person.RoleMask.
+     * The password is checked on {@link PasswordHashPool} after the connection
+     * has been returned (against a dummy hash for unknown users), and legacy plain-text or weaker hashes are upgraded
+     * once the password has been proven.
+     *
+     * @return the person, or null if the credentials don't match
+     */
     public static PersonInfo authenticateAndGetPerson(String username, String password) throws SQLException {
-        String sql = """
-                SELECT 
-                    p.SystemID,
-                    p.FirstName,
-                    p.LastName,
-                    p.UserName,
-                    CASE
-                        WHEN s.SystemID IS NOT NULL THEN 'STUDENT'
-                        WHEN t.SystemID IS NOT NULL THEN 'TUTOR'
-                        WHEN m.SystemID IS NOT NULL THEN 'MANAGER'
-                        ELSE 'UNKNOWN'
-                    END AS Role
-                FROM Person p
-                LEFT JOIN Student s ON p.SystemID = s.SystemID
-                LEFT JOIN Tutor   t ON p.SystemID = t.SystemID
-                LEFT JOIN Manager m ON p.SystemID = m.SystemID
-                WHERE p.UserName = ? AND p.Password = ?
-                """;
+        return LOGIN.measure(() -> {
+            String sql = """
+                    SELECT SystemID, FirstName, LastName, UserName, RoleMask, Password
+                    FROM Person
+                    WHERE UserName = ?
+                    """;
 
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, username);
-            ps.setString(2, password);
-
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    int systemId = rs.getInt("SystemID");
-                    String firstName = rs.getString("FirstName");
-                    String lastName = rs.getString("LastName");
-                    String userName = rs.getString("UserName");
-                    String role = rs.getString("Role");
-                    return new PersonInfo(systemId, firstName, lastName, userName, role);
+            int systemId = 0;
+            String firstName = null;
+            String lastName = null;
+            String userName = null;
+            int roleMask = 0;
+            String stored = null;
+            try (Connection conn = getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setString(1, username);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        systemId = rs.getInt("SystemID");
+                        firstName = rs.getString("FirstName");
+                        lastName = rs.getString("LastName");
+                        userName = rs.getString("UserName");
+                        roleMask = rs.getInt("RoleMask");
+                        stored = rs.getString("Password");
+                    }
                 }
             }
+
+            if (stored == null) {
+                // unknown user: pay for a full hash anyway, so the response
+                // time doesn't tell which usernames exist
+                PasswordHashPool.verify(password, PasswordHasher.dummyHash());
+                return null; // invalid login
+            }
+            if (!PasswordHashPool.verify(password, stored)) {
+                return null; // invalid login
+            }
+            if (PasswordHasher.needsRehash(stored)) {
+                upgradePassword(systemId, stored, PasswordHashPool.hash(password));
+            }
+
+            return new PersonInfo(systemId, firstName, lastName, userName, Role.fromMask(roleMask));
+        });
+    }
+
+    /**
+     * Replaces a legacy or outdated password value; a no-op if it was changed meanwhile.
+     */
+    private static void upgradePassword(int systemId, String oldValue, String newHash) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "UPDATE Person SET Password = ? WHERE SystemID = ? AND Password = ?")) {
+            ps.setString(1, newHash);
+            ps.setInt(2, systemId);
+            ps.setString(3, oldValue);
+            ps.executeUpdate();
         }
-        return null; // invalid login
     }
 }
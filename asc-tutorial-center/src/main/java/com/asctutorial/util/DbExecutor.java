@@ -0,0 +1,111 @@
+package com.asctutorial.util;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs JDBC work on a bounded pool of background threads so the Swing
+ * Event Dispatch Thread never waits on a database round trip.
+ *
+ * Completion callbacks are always delivered on the EDT, and never for a
+ * task that was cancelled.
+ */
+public final class DbExecutor {
+
+    /**
+     * A unit of database work. May throw; the exception is handed to the error callback.
+     */
+    @FunctionalInterface
+    public interface DbWork<T> {
+        T run() throws Exception;
+    }
+
+    private static final int QUEUE_CAPACITY = 256;
+
+    // One worker per pooled connection: more threads would only queue on the pool.
+    private static final ThreadPoolExecutor POOL = createPool(
+            DatabaseConnection.getDataSourceConfig().getMaxSize());
+
+    private DbExecutor() {
+    }
+
+    private static ThreadPoolExecutor createPool(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "db-worker-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * The worker pool itself, for callers composing CompletableFutures.
+     */
+    public static Executor executor() {
+        return POOL;
+    }
+
+    /**
+     * Runs {@code work} in the background, then calls {@code onSuccess} or
+     * {@code onError} on the EDT. Either callback may be null.
+     */
+    public static <T> Future<T> submit(DbWork<T> work, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        FutureTask<T> task = new FutureTask<>(work::run) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    T result = get();
+                    if (onSuccess != null) {
+                        SwingUtilities.invokeLater(() -> {
+                            if (!isCancelled()) {
+                                onSuccess.accept(result);
+                            }
+                        });
+                    }
+                } catch (CancellationException e) {
+                    // window went away; nobody to tell
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    Exception failure = cause instanceof Exception ex ? ex : new Exception(cause);
+                    if (onError != null) {
+                        SwingUtilities.invokeLater(() -> onError.accept(failure));
+                    } else {
+                        failure.printStackTrace();
+                    }
+                }
+            }
+        };
+        try {
+            POOL.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.cancel(false);
+            if (onError != null) {
+                SwingUtilities.invokeLater(() -> onError.accept(
+                        new Exception("The database is busy, please try again in a moment.", e)));
+            }
+        }
+        return task;
+    }
+}
@@ -0,0 +1,88 @@
+package com.asctutorial.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Hi-lo id allocation backed by the IdSequence table.
+ *
+ * Each client reserves a block of ids (db.id.blockSize, default 50) in one
+ * short transaction, then hands them out from memory. Inserts no longer scan
+ * for MAX(id), and two desks can never pick the same key. Unused ids in a
+ * block are simply skipped when the app exits.
+ */
+public class HiLoIdGenerator implements IdGenerator {
+
+    private static class Range {
+        int next;
+        final int end; // exclusive
+
+        Range(int next, int end) {
+            this.next = next;
+            this.end = end;
+        }
+    }
+
+    private final int blockSize;
+    private final Map<Sequence, Range> ranges = new EnumMap<>(Sequence.class);
+
+    public HiLoIdGenerator() {
+        this(Integer.parseInt(DatabaseConnection.getConfig().getProperty("db.id.blockSize", "50")));
+    }
+
+    public HiLoIdGenerator(int blockSize) {
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    @Override
+    public synchronized int next(Sequence sequence) throws SQLException {
+        Range range = ranges.get(sequence);
+        if (range == null || range.next >= range.end) {
+            int first = allocate(sequence, blockSize);
+            range = new Range(first, first + blockSize);
+            ranges.put(sequence, range);
+        }
+        return range.next++;
+    }
+
+    @Override
+    public int nextBlock(Sequence sequence, int count) throws SQLException {
+        return allocate(sequence, count);
+    }
+
+    /**
+     * Moves the sequence forward by {@code count} and returns the old value.
+     */
+    private int allocate(Sequence sequence, int count) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            int first;
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT NextValue FROM IdSequence WHERE Name = ? FOR UPDATE")) {
+                ps.setString(1, sequence.getName());
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("No IdSequence row for " + sequence.getName()
+                                + " (has migration V2 been applied?)");
+                    }
+                    first = rs.getInt(1);
+                }
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "UPDATE IdSequence SET NextValue = NextValue + ? WHERE Name = ?")) {
+                ps.setInt(1, count);
+                ps.setString(2, sequence.getName());
+                ps.executeUpdate();
+            }
+
+            conn.commit();
+            return first;
+        }
+    }
+}
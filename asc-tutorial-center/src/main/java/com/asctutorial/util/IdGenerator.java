@@ -0,0 +1,62 @@
+package com.asctutorial.util;
+
+import java.sql.SQLException;
+
+/**
+ * Hands out primary keys for new rows.
+ *
+ * Call it before opening the insert's transaction; implementations may use
+ * their own short-lived connection. The implementation is chosen with
+ * db.id.generator (a class name), defaulting to {@link HiLoIdGenerator}.
+ */
+public interface IdGenerator {
+
+    /**
+     * Tables whose keys the application assigns. The name is the IdSequence row.
+     */
+    enum Sequence {
+        PERSON("Person"),
+        SESSION("Session"),
+        SUBJECT("SubjectsOffered");
+
+        private final String name;
+
+        Sequence(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    int next(Sequence sequence) throws SQLException;
+
+    /**
+     * Reserves {@code count} consecutive ids and returns the first one.
+     */
+    int nextBlock(Sequence sequence, int count) throws SQLException;
+
+    static IdGenerator get() {
+        return Holder.INSTANCE;
+    }
+
+    final class Holder {
+        private static final IdGenerator INSTANCE = create();
+
+        private Holder() {
+        }
+
+        private static IdGenerator create() {
+            String impl = DatabaseConnection.getConfig().getProperty("db.id.generator");
+            if (impl == null || impl.isBlank()) {
+                return new HiLoIdGenerator();
+            }
+            try {
+                return (IdGenerator) Class.forName(impl.trim()).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create id generator " + impl, e);
+            }
+        }
+    }
+}
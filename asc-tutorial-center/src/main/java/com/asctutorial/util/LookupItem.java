@@ -0,0 +1,27 @@
+package com.asctutorial.util;
+
+/**
+ * Id + display label pair for combo boxes (tutors, subjects, languages).
+ */
+public class LookupItem {
+    private final int id;
+    private final String label;
+
+    public LookupItem(int id, String label) {
+        this.id = id;
+        this.label = label;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
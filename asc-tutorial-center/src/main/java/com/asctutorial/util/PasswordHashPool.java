@@ -0,0 +1,163 @@
+package com.asctutorial.util;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Small dedicated pool for password hashing and verification.
+ *
+ * Hashing is deliberately slow. Running it here rather than on the db-worker
+ * threads or the EDT caps how many cores a burst of logins can take
+ * (db.auth.threads, default half the cores) and keeps the connection pool
+ * free while the CPU work runs. Callers block until their job is done; when
+ * the queue is full they get an SQLTransientException to retry later.
+ * Threads, throughput, rejections and the average cost per hash are
+ * visible over JMX (see {@link PasswordHashPoolMXBean}).
+ */
+public final class PasswordHashPool {
+
+    private static final int THREADS = Integer.parseInt(DatabaseConnection.getConfig().getProperty(
+            "db.auth.threads", String.valueOf(Math.max(1, Runtime.getRuntime().availableProcessors() / 2))));
+    private static final int QUEUE_CAPACITY = Integer.parseInt(
+            DatabaseConnection.getConfig().getProperty("db.auth.queue", "64"));
+
+    private static final ThreadPoolExecutor POOL = createPool();
+    private static final Logger LOG = Logger.getLogger(PasswordHashPool.class.getName());
+
+    // measured cost, so the per-core budget can be checked against a login burst
+    private static final AtomicLong completed = new AtomicLong();
+    private static final AtomicLong busyNanos = new AtomicLong();
+    private static final AtomicLong rejected = new AtomicLong();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Stats(),
+                    new ObjectName("com.asctutorial:type=PasswordHashPool"));
+        } catch (JMException e) {
+            LOG.warning("Password hashing stats not exposed over JMX: " + e.getMessage());
+        }
+    }
+
+    private PasswordHashPool() {
+    }
+
+    private static ThreadPoolExecutor createPool() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                THREADS, THREADS,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "password-hasher-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    public static boolean verify(String password, String stored) throws SQLException {
+        return await(submit(() -> PasswordHasher.verify(password, stored)));
+    }
+
+    public static String hash(String password) throws SQLException {
+        return await(submit(() -> PasswordHasher.hash(password)));
+    }
+
+    /**
+     * Hashes many passwords in parallel on the pool (bulk import).
+     */
+    public static List<String> hashAll(List<String> passwords) throws SQLException {
+        List<String> hashes = new ArrayList<>(passwords.size());
+        // submit in slices no larger than the queue so a big import can't be rejected
+        int slice = Math.max(1, QUEUE_CAPACITY / 2);
+        for (int from = 0; from < passwords.size(); from += slice) {
+            List<Future<String>> jobs = new ArrayList<>(slice);
+            for (String password : passwords.subList(from, Math.min(passwords.size(), from + slice))) {
+                jobs.add(submit(() -> PasswordHasher.hash(password)));
+            }
+            for (Future<String> job : jobs) {
+                hashes.add(await(job));
+            }
+        }
+        return hashes;
+    }
+
+    // ===================== STATS =====================
+
+    private static final class Stats implements PasswordHashPoolMXBean {
+        @Override
+        public int getThreads() {
+            return THREADS;
+        }
+
+        @Override
+        public long getCompleted() {
+            return completed.get();
+        }
+
+        @Override
+        public long getRejected() {
+            return rejected.get();
+        }
+
+        @Override
+        public double getAverageMillis() {
+            long n = completed.get();
+            return n == 0 ? 0 : busyNanos.get() / 1_000_000.0 / n;
+        }
+
+        @Override
+        public int getQueued() {
+            return POOL.getQueue().size();
+        }
+    }
+
+    // ===================== INTERNALS =====================
+
+    private static <T> Future<T> submit(Supplier<T> job) throws SQLException {
+        try {
+            return POOL.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return job.get();
+                } finally {
+                    busyNanos.addAndGet(System.nanoTime() - start);
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new SQLTransientException("Too many sign-ins at once, please try again in a moment.", e);
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SQLTransientException("Interrupted while checking the password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.asctutorial.util;
+
+/**
+ * JMX view of {@link PasswordHashPool}, registered as
+ * com.asctutorial:type=PasswordHashPool: how much CPU sign-ins cost and
+ * whether the db.auth.threads budget is keeping up.
+ */
+public interface PasswordHashPoolMXBean {
+
+    int getThreads();
+
+    long getCompleted();
+
+    long getRejected();
+
+    /**
+     * Average CPU time of one hash or verification so far.
+     */
+    double getAverageMillis();
+
+    int getQueued();
+}
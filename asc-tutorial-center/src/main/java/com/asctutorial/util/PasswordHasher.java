@@ -0,0 +1,154 @@
+package com.asctutorial.util;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.logging.Logger;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 password hashes, stored in Person.Password as
+ * {@code pbkdf2$<iterations>$<salt>$<hash>} (salt and hash in Base64).
+ *
+ * The work factor comes from db.auth.iterations, shared by every desk. Set
+ * to 0, it is instead calibrated once at startup so one hash costs about
+ * db.auth.targetMs on this machine (never below MIN_ITERATIONS). Hashes
+ * below the configured factor are upgraded at sign-in, but never towards a
+ * calibrated one: that differs per desk, and the fastest desk a user signed
+ * in at would set the cost for all the others. Anything stored without the
+ * pbkdf2$ prefix is a legacy plain-text password.
+ *
+ * These methods burn CPU on purpose; call them through {@link PasswordHashPool}.
+ */
+public final class PasswordHasher {
+
+    private static final Logger LOG = Logger.getLogger(PasswordHasher.class.getName());
+
+    private static final String PREFIX = "pbkdf2$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BITS = 256;
+    static final int MIN_ITERATIONS = 100_000;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int FIXED_ITERATIONS = Integer.parseInt(
+            DatabaseConnection.getConfig().getProperty("db.auth.iterations", "150000"));
+    private static final int ITERATIONS = FIXED_ITERATIONS > 0 ? FIXED_ITERATIONS
+            : calibrate(Long.parseLong(DatabaseConnection.getConfig().getProperty("db.auth.targetMs", "50")));
+    private static final int REHASH_BELOW = FIXED_ITERATIONS > 0 ? FIXED_ITERATIONS : MIN_ITERATIONS;
+    // hash of nothing anyone knows, with today's parameters; checked for unknown usernames
+    private static final String DUMMY = hash(Long.toHexString(RANDOM.nextLong()) + Long.toHexString(RANDOM.nextLong()));
+
+    private PasswordHasher() {
+    }
+
+    /**
+     * Work factor used for new hashes.
+     */
+    public static int getIterations() {
+        return ITERATIONS;
+    }
+
+    /**
+     * A hash that costs as much to verify as a real one and matches no password.
+     */
+    static String dummyHash() {
+        return DUMMY;
+    }
+
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] key = derive(password, salt, ITERATIONS);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + ITERATIONS + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(key);
+    }
+
+    /**
+     * Checks {@code password} against a stored value, hashed or legacy plain text.
+     * A malformed stored value never matches.
+     */
+    public static boolean verify(String password, String stored) {
+        if (stored == null) {
+            return false;
+        }
+        if (isLegacy(stored)) {
+            return MessageDigest.isEqual(
+                    password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            Base64.Decoder b64 = Base64.getDecoder();
+            byte[] salt = b64.decode(parts[2]);
+            byte[] expected = b64.decode(parts[3]);
+            return MessageDigest.isEqual(expected, derive(password, salt, iterations));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public static boolean isLegacy(String stored) {
+        return !stored.startsWith(PREFIX);
+    }
+
+    /**
+     * True for plain text and for hashes made with a smaller work factor than
+     * the configured one (MIN_ITERATIONS when calibrating).
+     */
+    public static boolean needsRehash(String stored) {
+        if (isLegacy(stored)) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < REHASH_BELOW;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, KEY_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    // ===================== CALIBRATION =====================
+
+    /**
+     * Times a few sample hashes (after a warm-up) and scales the iteration
+     * count so one hash takes about {@code targetMillis} on this machine.
+     */
+    private static int calibrate(long targetMillis) {
+        byte[] salt = new byte[SALT_BYTES];
+        int sample = 20_000;
+        derive("calibration", salt, sample); // JIT warm-up
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            derive("calibration", salt, sample);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double perIteration = (double) best / sample;
+        long iterations = Math.round(targetMillis * 1_000_000.0 / perIteration);
+        // round down to a multiple of 10k, for a tidier number in stored hashes and the log
+        iterations = iterations / 10_000 * 10_000;
+        int result = (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_ITERATIONS, iterations));
+        LOG.info(String.format("PBKDF2 work factor calibrated to %d iterations (~%.0f ms per hash, target %d ms)",
+                result, result * perIteration / 1_000_000, targetMillis));
+        return result;
+    }
+}
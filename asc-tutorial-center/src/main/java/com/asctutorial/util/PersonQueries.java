@@ -0,0 +1,122 @@
+package com.asctutorial.util;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Person / Student / Tutor writes.
+ */
+public class PersonQueries {
+
+    private static final QueryMetrics ADD_STUDENT = QueryMetrics.named("addStudent");
+    private static final QueryMetrics ADD_TUTOR = QueryMetrics.named("addTutor");
+
+    private PersonQueries() {
+    }
+
+    /**
+     * Inserts Person + Student rows in one transaction.
+     *
+     * @return the new SystemID
+     */
+    public static int addStudent(String firstName, String lastName, String email, String phone,
+                                 String username, String password, String prefLang) throws SQLException {
+        return ADD_STUDENT.measure(() -> {
+            int newSystemId = IdGenerator.get().next(IdGenerator.Sequence.PERSON);
+            String passwordHash = PasswordHashPool.hash(password);
+
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                conn.setAutoCommit(false);
+
+                insertPerson(conn, newSystemId, firstName, lastName, email, phone, username, passwordHash,
+                        Role.mask(Role.STUDENT));
+                insertStudent(conn, newSystemId, prefLang);
+
+                ChangeLog.record(conn, ChangeLog.Entity.PERSON, newSystemId, ChangeLog.Op.INSERT);
+                conn.commit();
+                SummaryStatsCache.studentAdded();
+                return newSystemId;
+            }
+        });
+    }
+
+    /**
+     * Inserts Person + Student + Tutor rows in one transaction.
+     * (Tutor.SystemID is a foreign key to Student.SystemID.)
+     *
+     * @return the new SystemID
+     */
+    public static int addTutor(String firstName, String lastName, String email, String phone,
+                               String username, String password, String prefLang,
+                               Date dateHired, int managerId) throws SQLException {
+        return ADD_TUTOR.measure(() -> {
+            int newSystemId = IdGenerator.get().next(IdGenerator.Sequence.PERSON);
+            String passwordHash = PasswordHashPool.hash(password);
+
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                conn.setAutoCommit(false);
+
+                insertPerson(conn, newSystemId, firstName, lastName, email, phone, username, passwordHash,
+                        Role.mask(Role.STUDENT, Role.TUTOR));
+                insertStudent(conn, newSystemId, prefLang);
+
+                // Insert into Tutor
+                String insertTutor = """
+                        INSERT INTO Tutor (SystemID, DateHired, ManagedBy)
+                        VALUES (?, ?, ?)
+                        """;
+
+                try (PreparedStatement ps = conn.prepareStatement(insertTutor)) {
+                    ps.setInt(1, newSystemId);
+                    ps.setDate(2, dateHired);
+                    ps.setInt(3, managerId); // this manager manages the tutor
+                    ps.executeUpdate();
+                }
+
+                ChangeLog.record(conn, ChangeLog.Entity.PERSON, newSystemId, ChangeLog.Op.INSERT);
+                ChangeLog.record(conn, ChangeLog.Entity.TUTOR, newSystemId, ChangeLog.Op.INSERT);
+                conn.commit();
+                SummaryStatsCache.tutorAdded();
+                ReferenceDataCache.invalidate();
+                return newSystemId;
+            }
+        });
+    }
+
+    private static void insertPerson(Connection conn, int systemId, String firstName, String lastName,
+                                     String email, String phone, String username, String passwordHash,
+                                     int roleMask) throws SQLException {
+        String insertPerson = """
+                INSERT INTO Person
+                    (SystemID, FirstName, LastName, Email, PhoneNum, UserName, Password, RoleMask)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                """;
+
+        try (PreparedStatement ps = conn.prepareStatement(insertPerson)) {
+            ps.setInt(1, systemId);
+            ps.setString(2, firstName);
+            ps.setString(3, lastName);
+            ps.setString(4, email);
+            ps.setString(5, phone);
+            ps.setString(6, username);
+            ps.setString(7, passwordHash);
+            ps.setInt(8, roleMask);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void insertStudent(Connection conn, int systemId, String prefLang) throws SQLException {
+        String insertStudent = """
+                INSERT INTO Student (SystemID, PreferredLanguage)
+                VALUES (?, ?)
+                """;
+
+        try (PreparedStatement ps = conn.prepareStatement(insertStudent)) {
+            ps.setInt(1, systemId);
+            ps.setString(2, prefLang);
+            ps.executeUpdate();
+        }
+    }
+}
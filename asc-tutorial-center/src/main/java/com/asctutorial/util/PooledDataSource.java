@@ -0,0 +1,461 @@
+package com.asctutorial.util;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Small bounded connection pool used behind {@link DatabaseConnection#getConnection()}.
+ *
+ * Connections handed out are proxies: calling close() returns the physical
+ * connection to the pool instead of closing the socket, so the existing
+ * try-with-resources blocks keep working unchanged. While the
+ * {@link SlowQueryLog} is on, their prepared statements are traced for it.
+ */
+public class PooledDataSource implements DataSource {
+
+    private static final Logger LOG = Logger.getLogger(PooledDataSource.class.getName());
+    // time callers wait for a connection, including opening or validating one; "rows" = connections
+    private static final QueryMetrics ACQUIRE = QueryMetrics.named("pool.acquire");
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final Config config;
+
+    // idle connections, most recently used first (keeps hot connections warm)
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Set<Lease> leased = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+
+    private volatile boolean closed = false;
+
+    public PooledDataSource(String url, String user, String password, Config config) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, config.housekeepingMillis);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // ===================== CONFIG =====================
+
+    /**
+     * Pool settings. Read from db.properties keys prefixed with "db.pool.".
+     */
+    public static class Config {
+        int minIdle = 2;
+        int maxSize = 10;
+        long connectionTimeoutMillis = 10_000;
+        long idleTimeoutMillis = 5 * 60_000;
+        long maxLifetimeMillis = 30 * 60_000;
+        long leakDetectionMillis = 60_000;     // 0 disables leak detection
+        long validationIntervalMillis = 5_000; // validate idle connections older than this
+        int validationTimeoutSeconds = 3;
+        long housekeepingMillis = 30_000;
+
+        public static Config fromProperties(Properties props) {
+            Config c = new Config();
+            c.minIdle = intProp(props, "db.pool.minIdle", c.minIdle);
+            c.maxSize = Math.max(1, intProp(props, "db.pool.maxSize", c.maxSize));
+            c.minIdle = Math.min(c.minIdle, c.maxSize);
+            c.connectionTimeoutMillis = longProp(props, "db.pool.connectionTimeoutMs", c.connectionTimeoutMillis);
+            c.idleTimeoutMillis = longProp(props, "db.pool.idleTimeoutMs", c.idleTimeoutMillis);
+            c.maxLifetimeMillis = longProp(props, "db.pool.maxLifetimeMs", c.maxLifetimeMillis);
+            c.leakDetectionMillis = longProp(props, "db.pool.leakDetectionMs", c.leakDetectionMillis);
+            c.validationIntervalMillis = longProp(props, "db.pool.validationIntervalMs", c.validationIntervalMillis);
+            c.validationTimeoutSeconds = intProp(props, "db.pool.validationTimeoutSec", c.validationTimeoutSeconds);
+            c.housekeepingMillis = longProp(props, "db.pool.housekeepingMs", c.housekeepingMillis);
+            return c;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        private static int intProp(Properties props, String key, int def) {
+            String v = props.getProperty(key);
+            return v == null || v.isBlank() ? def : Integer.parseInt(v.trim());
+        }
+
+        private static long longProp(Properties props, String key, long def) {
+            String v = props.getProperty(key);
+            return v == null || v.isBlank() ? def : Long.parseLong(v.trim());
+        }
+    }
+
+    // ===================== ACQUIRE / RELEASE =====================
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return ACQUIRE.measure(this::acquire);
+    }
+
+    private Connection acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is shut down");
+        }
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(config.connectionTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        if (!acquired) {
+            throw new SQLTimeoutException("Timed out after " + config.connectionTimeoutMillis
+                    + " ms waiting for a database connection (pool size " + config.maxSize
+                    + ", in use " + leased.size() + ")");
+        }
+
+        try {
+            while (true) {
+                PooledEntry entry;
+                while ((entry = idle.pollFirst()) != null) {
+                    if (isUsable(entry)) {
+                        return lease(entry);
+                    }
+                    discard(entry);
+                }
+                entry = newEntry();
+                if (entry != null) {
+                    return lease(entry);
+                }
+                // every slot is taken but we hold a permit, so a connection is on its
+                // way to the idle list (the housekeeper is opening it, or it is being
+                // returned); wait for it to land
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        long now = System.currentTimeMillis();
+        if (now - entry.createdAt >= config.maxLifetimeMillis) {
+            return false;
+        }
+        if (now - entry.lastUsedAt < config.validationIntervalMillis) {
+            return true;
+        }
+        try {
+            return entry.physical.isValid(config.validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens a physical connection, or returns null when the pool already has
+     * maxSize of them. The slot is reserved before connecting, so a borrower
+     * and the housekeeper can't both take the last one.
+     */
+    private PooledEntry newEntry() throws SQLException {
+        int count;
+        do {
+            count = total.get();
+            if (count >= config.maxSize) {
+                return null;
+            }
+        } while (!total.compareAndSet(count, count + 1));
+        try {
+            return new PooledEntry(DriverManager.getConnection(url, user, password));
+        } catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private Connection lease(PooledEntry entry) {
+        Lease lease = new Lease(entry, config.leakDetectionMillis > 0
+                ? new Throwable("Connection acquired here") : null);
+        leased.add(lease);
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                lease
+        );
+    }
+
+    private void release(Lease lease) {
+        leased.remove(lease);
+        PooledEntry entry = lease.entry;
+        try {
+            boolean reusable = !closed && !lease.broken && resetState(entry.physical)
+                    && System.currentTimeMillis() - entry.createdAt < config.maxLifetimeMillis;
+            if (reusable) {
+                entry.lastUsedAt = System.currentTimeMillis();
+                idle.offerFirst(entry);
+            } else {
+                discard(entry);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Puts a returned connection back into the state a fresh one would have.
+     */
+    private boolean resetState(Connection physical) {
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (physical.isReadOnly()) {
+                physical.setReadOnly(false);
+            }
+            physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(PooledEntry entry) {
+        total.decrementAndGet();
+        try {
+            entry.physical.close();
+        } catch (SQLException ignored) {
+            // connection is being thrown away anyway
+        }
+    }
+
+    // ===================== HOUSEKEEPING =====================
+
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            // retire idle connections past their lifetime or idle timeout (down to minIdle)
+            Iterator<PooledEntry> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledEntry entry = it.next();
+                boolean expired = now - entry.createdAt >= config.maxLifetimeMillis;
+                boolean idleTooLong = now - entry.lastUsedAt >= config.idleTimeoutMillis
+                        && idle.size() > config.minIdle;
+                if ((expired || idleTooLong) && idle.remove(entry)) {
+                    discard(entry);
+                }
+            }
+
+            // report connections held longer than the leak threshold (once per lease)
+            if (config.leakDetectionMillis > 0) {
+                for (Lease lease : leased) {
+                    if (!lease.leakReported && now - lease.acquiredAt > config.leakDetectionMillis) {
+                        lease.leakReported = true;
+                        LOG.log(Level.WARNING, "Possible connection leak: connection held for "
+                                + (now - lease.acquiredAt) + " ms", lease.origin);
+                    }
+                }
+            }
+
+            // top the pool back up so the next dashboard open doesn't pay a handshake
+            while (!closed && idle.size() < config.minIdle) {
+                PooledEntry entry = newEntry();
+                if (entry == null) {
+                    break; // at maxSize
+                }
+                idle.offerLast(entry);
+            }
+        } catch (Exception e) {
+            LOG.log(Level.FINE, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    /**
+     * Closes all idle connections and refuses new requests. Leased connections
+     * are closed when they are returned.
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+    }
+
+    public int getActiveConnections() {
+        return leased.size();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getTotalConnections() {
+        return total.get();
+    }
+
+    public int getThreadsAwaitingConnection() {
+        return permits.getQueueLength();
+    }
+
+    // ===================== INTERNALS =====================
+
+    private static class PooledEntry {
+        final Connection physical;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastUsedAt = createdAt;
+
+        PooledEntry(Connection physical) {
+            this.physical = physical;
+        }
+    }
+
+    /**
+     * One borrow of a pooled connection; this is the proxy's invocation handler.
+     */
+    private class Lease implements InvocationHandler {
+        final PooledEntry entry;
+        final Throwable origin;
+        final long acquiredAt = System.currentTimeMillis();
+        volatile boolean leakReported = false;
+        // set by the borrowing thread, read by the housekeeper and leak detector
+        volatile boolean returned = false;
+        volatile boolean broken = false;
+
+        Lease(PooledEntry entry, Throwable origin) {
+            this.entry = entry;
+            this.origin = origin;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        release(this);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || entry.physical.isClosed();
+                }
+                case "unwrap", "isWrapperFor" -> {
+                    return method.invoke(entry.physical, args);
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledConnection[" + entry.physical + "]";
+                }
+                default -> {
+                    if (returned) {
+                        throw new SQLException("Connection is closed");
+                    }
+                }
+            }
+
+            try {
+                Object result = method.invoke(entry.physical, args);
+                if (result instanceof PreparedStatement ps && method.getName().equals("prepareStatement")) {
+                    return SlowQueryLog.trace(ps, (String) args[0]);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sql && isFatal(sql)) {
+                    broken = true;
+                }
+                throw cause;
+            }
+        }
+
+        private boolean isFatal(SQLException e) {
+            // SQLSTATE class 08 = connection exception
+            String state = e.getSQLState();
+            return state != null && state.startsWith("08");
+        }
+    }
+
+    // ===================== DataSource boilerplate =====================
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool uses the configured credentials");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // not used
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return LOG;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
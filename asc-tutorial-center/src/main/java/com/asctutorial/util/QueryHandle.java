@@ -0,0 +1,96 @@
+package com.asctutorial.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets the UI abort a search that has been superseded (the user typed
+ * another character) while its SQL is still running on the server.
+ *
+ * Work wrapped with {@link #wrap} runs with this handle bound to its
+ * thread; statements it opens through {@link #prepare} are remembered, and
+ * {@link #cancel} calls Statement.cancel() on them. Interrupting the worker
+ * thread instead would leave the query running and can break the pooled
+ * connection, depending on the driver.
+ */
+public final class QueryHandle {
+
+    private static final ThreadLocal<QueryHandle> CURRENT = new ThreadLocal<>();
+
+    private final Set<Statement> running = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled = false;
+
+    /**
+     * {@code work} with this handle bound while it runs; skipped entirely if
+     * the handle is cancelled before the work starts.
+     */
+    public <T> DbExecutor.DbWork<T> wrap(DbExecutor.DbWork<T> work) {
+        return () -> {
+            if (cancelled) {
+                throw new SQLException("Query cancelled");
+            }
+            CURRENT.set(this);
+            try {
+                return work.run();
+            } finally {
+                CURRENT.remove();
+                running.clear();
+            }
+        };
+    }
+
+    /**
+     * Cancels whatever statements are running for this handle. Safe to call
+     * from the EDT: the cancel requests themselves (for MySQL a separate
+     * KILL QUERY round trip) are sent from a background thread.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Statement statement : running) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    // already finished or closed; nothing to cancel
+                }
+            });
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Whether the handle bound to this thread (if any) has been cancelled;
+     * for long loops that should stop between statements or rows.
+     */
+    static boolean cancelRequested() {
+        QueryHandle handle = CURRENT.get();
+        return handle != null && handle.cancelled;
+    }
+
+    /**
+     * conn.prepareStatement(sql), registered with the handle bound to this
+     * thread (if any) so it can be cancelled.
+     */
+    static PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql);
+        QueryHandle handle = CURRENT.get();
+        if (handle != null) {
+            // register before checking, so a concurrent cancel() either sees it or is seen
+            handle.running.add(ps);
+            if (handle.cancelled) {
+                handle.running.remove(ps);
+                ps.close();
+                throw new SQLException("Query cancelled");
+            }
+        }
+        return ps;
+    }
+}
@@ -0,0 +1,261 @@
+package com.asctutorial.util;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Latency histogram, row count and error count for one named query (or
+ * other timed step, like "pool.acquire"), shared by every thread.
+ *
+ * Look a query up once with {@link #named} and keep it in a constant; each
+ * {@link #measure} then costs two System.nanoTime() calls and a few
+ * uncontended atomic increments. Latencies go into log-scale buckets
+ * (8 per power of two, in microseconds), so percentiles are approximate
+ * but recording never allocates or locks.
+ *
+ * Every query is visible over JMX (see {@link QueryMetricsMXBean}), and a
+ * summary of the queries that ran is logged every db.metrics.logIntervalMs
+ * (default 5 minutes, 0 turns it off). Calls slower than
+ * db.slowlog.thresholdMs also go to the {@link SlowQueryLog}.
+ */
+public final class QueryMetrics implements QueryMetricsMXBean {
+
+    private static final Logger LOG = Logger.getLogger(QueryMetrics.class.getName());
+
+    private static final int SUB_BUCKETS = 8;
+    private static final int BUCKETS = SUB_BUCKETS + SUB_BUCKETS * 40; // up to ~2^43 us
+
+    // before the config read below: loading DatabaseConnection from there registers its own metrics
+    private static final Map<String, QueryMetrics> ALL = new ConcurrentHashMap<>();
+
+    private static final long LOG_INTERVAL_MILLIS = Long.parseLong(
+            DatabaseConnection.getConfig().getProperty("db.metrics.logIntervalMs", "300000"));
+
+    static {
+        if (LOG_INTERVAL_MILLIS > 0) {
+            ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "query-metrics-log");
+                t.setDaemon(true);
+                return t;
+            });
+            logger.scheduleAtFixedRate(QueryMetrics::logSummary,
+                    LOG_INTERVAL_MILLIS, LOG_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Database work to be timed.
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+    private long loggedCount; // summary thread only
+
+    private QueryMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * The metrics for {@code name}, created and registered with JMX on first use.
+     */
+    public static QueryMetrics named(String name) {
+        return ALL.computeIfAbsent(name, QueryMetrics::register);
+    }
+
+    private static QueryMetrics register(String name) {
+        QueryMetrics metrics = new QueryMetrics(name);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics,
+                    new ObjectName("com.asctutorial:type=QueryMetrics,name="
+                            + (name.matches("[\\w.-]+") ? name : ObjectName.quote(name))));
+        } catch (JMException e) {
+            LOG.warning("Query metrics for " + name + " not exposed over JMX: " + e.getMessage());
+        }
+        return metrics;
+    }
+
+    /**
+     * Runs {@code work} and records how long it took; a call that throws
+     * counts as an error. Rows are the size of a returned collection, 0 for
+     * null and 1 for anything else.
+     */
+    public <T> T measure(SqlWork<T> work) throws SQLException {
+        SlowQueryLog.Trace trace = SlowQueryLog.begin();
+        long start = System.nanoTime();
+        T result = null;
+        boolean failed = true;
+        try {
+            result = work.run();
+            failed = false;
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            long resultRows = result == null ? 0 : result instanceof Collection<?> c ? c.size() : 1;
+            record(nanos, resultRows, failed);
+            if (trace != null) {
+                SlowQueryLog.end(trace, name, nanos, resultRows, failed);
+            }
+        }
+    }
+
+    public void record(long nanos, long resultRows, boolean failed) {
+        buckets.incrementAndGet(bucket(nanos / 1000));
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        rows.add(resultRows);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    // ===================== MXBEAN =====================
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / 1e6 / n;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return percentileMillis(0.50);
+    }
+
+    @Override
+    public double getP95Millis() {
+        return percentileMillis(0.95);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return percentileMillis(0.99);
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        errors.reset();
+        rows.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    // ===================== HISTOGRAM =====================
+
+    /**
+     * Bucket of a latency in microseconds: exact below 8, then 8 buckets
+     * per power of two.
+     */
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) Math.max(0, micros);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros); // >= 3
+        int sub = (int) (micros >>> (exponent - 3)) - SUB_BUCKETS;
+        return Math.min(BUCKETS - 1, SUB_BUCKETS + (exponent - 3) * SUB_BUCKETS + sub);
+    }
+
+    /**
+     * Exclusive upper bound, in microseconds, of the latencies in {@code bucket}.
+     */
+    static long bucketLimit(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket + 1;
+        }
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + 3;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub + 1) << (exponent - 3);
+    }
+
+    private double percentileMillis(double fraction) {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(bucketLimit(i) / 1000.0, getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    // ===================== LOG SUMMARY =====================
+
+    private static void logSummary() {
+        StringBuilder text = new StringBuilder();
+        for (QueryMetrics metrics : new TreeMap<>(ALL).values()) {
+            long n = metrics.getCount();
+            if (n == metrics.loggedCount) {
+                continue; // idle since the last summary
+            }
+            long recent = n > metrics.loggedCount ? n - metrics.loggedCount : n; // n < logged after reset()
+            text.append(String.format("%n  %-22s %8d calls (+%d), mean %.1f ms, p95 %.1f ms, max %.1f ms, %d rows, %d errors",
+                    metrics.name, n, recent, metrics.getMeanMillis(), metrics.getP95Millis(),
+                    metrics.getMaxMillis(), metrics.getRows(), metrics.getErrorCount()));
+            metrics.loggedCount = n;
+        }
+        if (!text.isEmpty()) {
+            LOG.info("Query metrics:" + text);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.asctutorial.util;
+
+/**
+ * JMX view of one named query's {@link QueryMetrics}, registered as
+ * com.asctutorial:type=QueryMetrics,name=&lt;query&gt;. Times are in
+ * milliseconds; percentiles are accurate to about 12%.
+ */
+public interface QueryMetricsMXBean {
+
+    String getName();
+
+    long getCount();
+
+    long getErrorCount();
+
+    long getRows();
+
+    double getMeanMillis();
+
+    double getMaxMillis();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+
+    /**
+     * Starts counting from zero again.
+     */
+    void reset();
+}
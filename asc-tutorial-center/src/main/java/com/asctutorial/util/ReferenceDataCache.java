@@ -0,0 +1,113 @@
+package com.asctutorial.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared cache of the tutor, subject and language lists behind the booking
+ * dialog's combo boxes.
+ *
+ * Entries live for db.reference.ttlMs (default 10 minutes) and are dropped
+ * immediately when this app adds a tutor or subject. Safe to use from any thread.
+ */
+public class ReferenceDataCache {
+
+    private static final long TTL_MILLIS = Long.parseLong(
+            DatabaseConnection.getConfig().getProperty("db.reference.ttlMs", "600000"));
+
+    /**
+     * Immutable view of the three lookup lists as loaded together.
+     */
+    public static class Snapshot {
+        private final List<LookupItem> tutors;
+        private final List<LookupItem> subjects;
+        private final List<LookupItem> languages;
+        private final long loadedAt = System.currentTimeMillis();
+
+        Snapshot(List<LookupItem> tutors, List<LookupItem> subjects, List<LookupItem> languages) {
+            this.tutors = List.copyOf(tutors);
+            this.subjects = List.copyOf(subjects);
+            this.languages = List.copyOf(languages);
+        }
+
+        public List<LookupItem> getTutors() {
+            return tutors;
+        }
+
+        public List<LookupItem> getSubjects() {
+            return subjects;
+        }
+
+        public List<LookupItem> getLanguages() {
+            return languages;
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() - loadedAt < TTL_MILLIS;
+        }
+    }
+
+    private static volatile Snapshot current;
+    private static final AtomicLong INVALIDATIONS = new AtomicLong();
+    private static final Object LOAD_LOCK = new Object();
+    private static final QueryMetrics LOAD = QueryMetrics.named("referenceData");
+
+    private ReferenceDataCache() {
+    }
+
+    /**
+     * Cached lists if present and fresh, otherwise null. Never touches the database.
+     */
+    public static Snapshot peek() {
+        Snapshot s = current;
+        return s != null && s.isFresh() ? s : null;
+    }
+
+    /**
+     * Cached lists, loading them (once, even with concurrent callers) when missing or expired.
+     */
+    public static Snapshot get() throws SQLException {
+        Snapshot s = peek();
+        if (s != null) {
+            return s;
+        }
+        synchronized (LOAD_LOCK) {
+            s = peek();
+            if (s == null) {
+                long before = INVALIDATIONS.get();
+                s = load();
+                // don't publish a list that was read before a concurrent invalidate()
+                if (INVALIDATIONS.get() == before) {
+                    current = s;
+                }
+            }
+            return s;
+        }
+    }
+
+    public static void invalidate() {
+        INVALIDATIONS.incrementAndGet();
+        current = null;
+    }
+
+    /**
+     * Warms the cache in the background, e.g. right after login.
+     */
+    public static void preloadAsync() {
+        DbExecutor.submit(ReferenceDataCache::get, null, Exception::printStackTrace);
+    }
+
+    private static Snapshot load() throws SQLException {
+        return LOAD.measure(() -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                return new Snapshot(
+                        ReferenceQueries.loadTutors(conn),
+                        ReferenceQueries.loadSubjects(conn),
+                        ReferenceQueries.loadLanguages(conn)
+                );
+            }
+        });
+    }
+}
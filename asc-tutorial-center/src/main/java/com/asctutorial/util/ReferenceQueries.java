@@ -0,0 +1,84 @@
+package com.asctutorial.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lookup lists (tutors, subjects, languages) used to fill combo boxes.
+ */
+public class ReferenceQueries {
+
+    private ReferenceQueries() {
+    }
+
+    public static List<LookupItem> loadTutors(Connection conn) throws SQLException {
+        String sql = """
+                SELECT t.SystemID, CONCAT(p.FirstName, ' ', p.LastName) AS TutorName
+                FROM Tutor t
+                JOIN Person p ON t.SystemID = p.SystemID
+                ORDER BY TutorName
+                """;
+        return loadItems(conn, sql, "SystemID", "TutorName");
+    }
+
+    public static List<LookupItem> loadSubjects(Connection conn) throws SQLException {
+        String sql = """
+                SELECT SubjectID, SubjectName
+                FROM SubjectsOffered
+                ORDER BY SubjectName
+                """;
+        return loadItems(conn, sql, "SubjectID", "SubjectName");
+    }
+
+    public static List<LookupItem> loadLanguages(Connection conn) throws SQLException {
+        String sql = """
+                SELECT LanguageID, Language
+                FROM AvailableLanguage
+                ORDER BY Language
+                """;
+        return loadItems(conn, sql, "LanguageID", "Language");
+    }
+
+    private static List<LookupItem> loadItems(Connection conn, String sql, String idCol, String labelCol)
+            throws SQLException {
+        List<LookupItem> items = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                items.add(new LookupItem(rs.getInt(idCol), rs.getString(labelCol)));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * @return the new SubjectID
+     */
+    public static int addSubject(String subjectName) throws SQLException {
+        int newSubjectId = IdGenerator.get().next(IdGenerator.Sequence.SUBJECT);
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            String insertSubject = """
+                    INSERT INTO SubjectsOffered (SubjectID, SubjectName)
+                    VALUES (?, ?)
+                    """;
+
+            try (PreparedStatement ps = conn.prepareStatement(insertSubject)) {
+                ps.setInt(1, newSubjectId);
+                ps.setString(2, subjectName);
+                ps.executeUpdate();
+            }
+            ChangeLog.record(conn, ChangeLog.Entity.SUBJECT, newSubjectId, ChangeLog.Op.INSERT);
+
+            conn.commit();
+            ReferenceDataCache.invalidate();
+            return newSubjectId;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.asctutorial.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Verifies Session.RegisteredCount against the Attend rows and, when asked,
+ * repairs the sessions that drifted (e.g. after a manual edit in the
+ * database). Meant for a nightly scheduled run:
+ * <pre>
+ *   java -cp ... com.asctutorial.util.RegistrationCountReconciler [check|fix]
+ * </pre>
+ */
+public class RegistrationCountReconciler {
+
+    private static final Logger LOG = Logger.getLogger(RegistrationCountReconciler.class.getName());
+
+    /**
+     * A session whose stored counter disagrees with Attend.
+     */
+    public static class Mismatch {
+        private final int sessionId;
+        private final int stored;
+        private final int actual;
+
+        Mismatch(int sessionId, int stored, int actual) {
+            this.sessionId = sessionId;
+            this.stored = stored;
+            this.actual = actual;
+        }
+
+        public int getSessionId() {
+            return sessionId;
+        }
+
+        public int getStored() {
+            return stored;
+        }
+
+        public int getActual() {
+            return actual;
+        }
+
+        @Override
+        public String toString() {
+            return "Session " + sessionId + ": RegisteredCount " + stored + ", Attend rows " + actual;
+        }
+    }
+
+    private RegistrationCountReconciler() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean fix = args.length > 0 && args[0].equals("fix");
+        if (args.length > 0 && !fix && !args[0].equals("check")) {
+            System.err.println("Usage: RegistrationCountReconciler [check|fix]");
+            System.exit(2);
+        }
+        List<Mismatch> mismatches = fix ? fix() : check();
+        for (Mismatch m : mismatches) {
+            System.out.println(m);
+        }
+        System.out.println(mismatches.size() + " session(s) " + (fix ? "repaired." : "out of step."));
+        if (!fix && !mismatches.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    public static List<Mismatch> check() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return findMismatches(conn);
+        }
+    }
+
+    /**
+     * Sets every drifted counter to the Attend count, in one transaction.
+     * Each Session row is locked before its Attend rows are counted, and the
+     * transaction runs at READ COMMITTED so the count sees every booking
+     * that committed before the lock was granted. (At InnoDB's default
+     * REPEATABLE READ the first count would fix a snapshot, and a booking
+     * committing for a later session would be in its counter but not in the
+     * count, which would then be written back too low.)
+     *
+     * @return the sessions that were repaired
+     */
+    public static List<Mismatch> fix() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // cheap unlocked pass first; most nights there is nothing to do
+            List<Mismatch> candidates = findMismatches(conn);
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+
+            boolean autoCommit = conn.getAutoCommit();
+            int isolation = conn.getTransactionIsolation();
+            conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            conn.setAutoCommit(false);
+            try {
+                List<Mismatch> repaired = new ArrayList<>();
+                try (PreparedStatement lock = conn.prepareStatement(
+                        "SELECT RegisteredCount FROM Session WHERE SessionID = ? FOR UPDATE");
+                     PreparedStatement count = conn.prepareStatement(
+                             "SELECT COUNT(*) FROM Attend WHERE SessionID = ?");
+                     PreparedStatement update = conn.prepareStatement(
+                             "UPDATE Session SET RegisteredCount = ? WHERE SessionID = ?")) {
+                    for (Mismatch candidate : candidates) {
+                        int stored;
+                        lock.setInt(1, candidate.getSessionId());
+                        try (ResultSet rs = lock.executeQuery()) {
+                            if (!rs.next()) {
+                                continue; // cancelled meanwhile
+                            }
+                            stored = rs.getInt(1);
+                        }
+                        int actual;
+                        count.setInt(1, candidate.getSessionId());
+                        try (ResultSet rs = count.executeQuery()) {
+                            rs.next();
+                            actual = rs.getInt(1);
+                        }
+                        if (stored != actual) {
+                            update.setInt(1, actual);
+                            update.setInt(2, candidate.getSessionId());
+                            update.executeUpdate();
+                            repaired.add(new Mismatch(candidate.getSessionId(), stored, actual));
+                        }
+                    }
+                }
+                ChangeLog.recordAll(conn, ChangeLog.Entity.SESSION,
+                        repaired.stream().map(Mismatch::getSessionId).toList(), ChangeLog.Op.UPDATE);
+                conn.commit();
+                if (!repaired.isEmpty()) {
+                    LOG.warning("Repaired RegisteredCount on " + repaired.size() + " session(s)");
+                }
+                return repaired;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+                conn.setTransactionIsolation(isolation);
+            }
+        }
+    }
+
+    private static List<Mismatch> findMismatches(Connection conn) throws SQLException {
+        String sql = """
+                SELECT s.SessionID, s.RegisteredCount, COUNT(a.SystemID) AS Actual
+                FROM Session s
+                LEFT JOIN Attend a ON a.SessionID = s.SessionID
+                GROUP BY s.SessionID, s.RegisteredCount
+                HAVING s.RegisteredCount <> COUNT(a.SystemID)
+                """;
+
+        List<Mismatch> mismatches = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                mismatches.add(new Mismatch(rs.getInt("SessionID"), rs.getInt("RegisteredCount"), rs.getInt("Actual")));
+            }
+        }
+        return mismatches;
+    }
+}
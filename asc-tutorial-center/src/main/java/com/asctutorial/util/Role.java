@@ -0,0 +1,50 @@
+package com.asctutorial.util;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Roles a person can hold, stored together as bits in Person.RoleMask.
+ * Every tutor is also a student, so a tutor's mask is STUDENT | TUTOR.
+ */
+public enum Role {
+
+    STUDENT(1, "Student"),
+    TUTOR(2, "Tutor"),
+    MANAGER(4, "Manager");
+
+    private final int bit;
+    private final String label;
+
+    Role(int bit, String label) {
+        this.bit = bit;
+        this.label = label;
+    }
+
+    public int bit() {
+        return bit;
+    }
+
+    public static Set<Role> fromMask(int mask) {
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        for (Role role : values()) {
+            if ((mask & role.bit) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
+    public static int mask(Role... roles) {
+        int mask = 0;
+        for (Role role : roles) {
+            mask |= role.bit;
+        }
+        return mask;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
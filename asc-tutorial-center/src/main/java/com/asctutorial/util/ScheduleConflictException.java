@@ -0,0 +1,21 @@
+package com.asctutorial.util;
+
+import java.sql.SQLException;
+
+/**
+ * A booking was refused because the tutor or student already has a session
+ * overlapping the requested time.
+ */
+public class ScheduleConflictException extends SQLException {
+
+    private final int conflictingSessionId;
+
+    public ScheduleConflictException(String message, int conflictingSessionId) {
+        super(message);
+        this.conflictingSessionId = conflictingSessionId;
+    }
+
+    public int getConflictingSessionId() {
+        return conflictingSessionId;
+    }
+}
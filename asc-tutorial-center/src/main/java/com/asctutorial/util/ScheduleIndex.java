@@ -0,0 +1,282 @@
+package com.asctutorial.util;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Double-booking checks for tutors and students.
+ *
+ * Sessions have a start but no end column; every session is taken to last
+ * db.sessions.lengthMinutes (default 60), so two sessions of the same person
+ * overlap when their starts are less than that apart on the same day.
+ *
+ * Each person's session starts are kept in memory in a sorted map, loaded on
+ * first use and dropped after db.schedule.ttlMs or when this app books or
+ * cancels for them, so a check is two map lookups. The index can be stale
+ * for bookings made at other desks, which is why it is only a pre-check:
+ * <ul>
+ *   <li>a conflict found in a cached schedule is confirmed against a fresh
+ *       load before it is reported, so a cancelled session never blocks;</li>
+ *   <li>the write transactions call {@link #tutorConflictInDb} /
+ *       {@link #studentConflictInDb}, which lock the Tutor or Student row and
+ *       query Session, as the final guard.</li>
+ * </ul>
+ */
+public final class ScheduleIndex {
+
+    static final int LENGTH_MINUTES = Integer.parseInt(
+            DatabaseConnection.getConfig().getProperty("db.sessions.lengthMinutes", "60"));
+    private static final long TTL_MILLIS = Long.parseLong(
+            DatabaseConnection.getConfig().getProperty("db.schedule.ttlMs", "300000"));
+    private static final int MAX_PEOPLE = Integer.parseInt(
+            DatabaseConnection.getConfig().getProperty("db.schedule.maxPeople", "5000"));
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private enum Kind {
+        TUTOR("""
+                SELECT SessionID, SessionDate, SessionTime
+                FROM Session
+                WHERE SystemID = ?
+                """),
+        STUDENT("""
+                SELECT s.SessionID, s.SessionDate, s.SessionTime
+                FROM Attend a
+                JOIN Session s ON a.SessionID = s.SessionID
+                WHERE a.SystemID = ?
+                """);
+
+        final String sql;
+
+        Kind(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    private static final class Key {
+        final Kind kind;
+        final int systemId;
+
+        Key(Kind kind, int systemId) {
+            this.kind = kind;
+            this.systemId = systemId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && other.kind == kind && other.systemId == systemId;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * kind.hashCode() + systemId;
+        }
+    }
+
+    /**
+     * One person's session starts (minutes since the epoch -> SessionID).
+     */
+    private static final class Schedule {
+        final NavigableMap<Long, Integer> starts;
+        final long loadedAt = System.currentTimeMillis();
+
+        Schedule(NavigableMap<Long, Integer> starts) {
+            this.starts = starts;
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() - loadedAt < TTL_MILLIS;
+        }
+
+        Integer overlapping(long start, int ignoreSessionId) {
+            // same window as conflictInDb: clamped to the day, since sessions don't run past midnight
+            long dayStart = start - Math.floorMod(start, MINUTES_PER_DAY);
+            long low = Math.max(start - LENGTH_MINUTES, dayStart - 1);
+            long high = Math.min(start + LENGTH_MINUTES, dayStart + MINUTES_PER_DAY);
+            // only the nearest start on each side can overlap; look past the ignored session
+            for (Map.Entry<Long, Integer> e = starts.floorEntry(start);
+                 e != null && e.getKey() > low; e = starts.lowerEntry(e.getKey())) {
+                if (e.getValue() != ignoreSessionId) {
+                    return e.getValue();
+                }
+            }
+            for (Map.Entry<Long, Integer> e = starts.higherEntry(start);
+                 e != null && e.getKey() < high; e = starts.higherEntry(e.getKey())) {
+                if (e.getValue() != ignoreSessionId) {
+                    return e.getValue();
+                }
+            }
+            return null;
+        }
+    }
+
+    // access-ordered: the least recently checked person is evicted first
+    private static final QueryMetrics LOAD = QueryMetrics.named("scheduleLoad");
+
+    private static final Map<Key, Schedule> SCHEDULES = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Schedule> eldest) {
+            return size() > MAX_PEOPLE;
+        }
+    };
+
+    private ScheduleIndex() {
+    }
+
+    /**
+     * A session of {@code tutorId} overlapping a session starting at date/time, or null.
+     */
+    public static Integer findTutorConflict(int tutorId, Date date, Time time) throws SQLException {
+        return findConflict(new Key(Kind.TUTOR, tutorId), date, time, -1);
+    }
+
+    /**
+     * A session {@code studentId} is registered for that overlaps one starting
+     * at date/time, or null. {@code ignoreSessionId} is left out (e.g. the
+     * session being joined), pass -1 for none.
+     */
+    public static Integer findStudentConflict(int studentId, Date date, Time time, int ignoreSessionId)
+            throws SQLException {
+        return findConflict(new Key(Kind.STUDENT, studentId), date, time, ignoreSessionId);
+    }
+
+    public static void invalidateTutor(int tutorId) {
+        invalidate(new Key(Kind.TUTOR, tutorId));
+    }
+
+    public static void invalidateStudent(int studentId) {
+        invalidate(new Key(Kind.STUDENT, studentId));
+    }
+
+    /**
+     * Drops every schedule, e.g. after sessions were cancelled in bulk.
+     */
+    public static void invalidateAll() {
+        synchronized (SCHEDULES) {
+            SCHEDULES.clear();
+        }
+    }
+
+    private static void invalidate(Key key) {
+        synchronized (SCHEDULES) {
+            SCHEDULES.remove(key);
+        }
+    }
+
+    private static Integer findConflict(Key key, Date date, Time time, int ignoreSessionId) throws SQLException {
+        long start = minutes(date, time);
+        Schedule cached;
+        synchronized (SCHEDULES) {
+            cached = SCHEDULES.get(key);
+        }
+        if (cached != null && cached.isFresh() && cached.overlapping(start, ignoreSessionId) == null) {
+            return null;
+        }
+        // miss, expired, or a cached conflict that may since have been cancelled
+        Schedule loaded = load(key);
+        synchronized (SCHEDULES) {
+            SCHEDULES.put(key, loaded);
+        }
+        return loaded.overlapping(start, ignoreSessionId);
+    }
+
+    private static Schedule load(Key key) throws SQLException {
+        return LOAD.measure(() -> {
+            NavigableMap<Long, Integer> starts = new TreeMap<>();
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(key.kind.sql)) {
+                ps.setInt(1, key.systemId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Date date = rs.getDate("SessionDate");
+                        Time time = rs.getTime("SessionTime");
+                        if (date != null && time != null) {
+                            starts.put(minutes(date, time), rs.getInt("SessionID"));
+                        }
+                    }
+                }
+            }
+            return new Schedule(starts);
+        });
+    }
+
+    private static long minutes(Date date, Time time) {
+        return LocalDateTime.of(date.toLocalDate(), time.toLocalTime()).toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    // ===================== DATABASE GUARD =====================
+
+    /**
+     * Locks the tutor's row, then looks for an overlapping session of theirs.
+     * Call inside the booking transaction; the lock makes concurrent bookings
+     * for the same tutor check one after the other.
+     */
+    static Integer tutorConflictInDb(Connection conn, int tutorId, Date date, Time time) throws SQLException {
+        lockRow(conn, "SELECT SystemID FROM Tutor WHERE SystemID = ? FOR UPDATE", tutorId);
+        return conflictInDb(conn, """
+                SELECT SessionID FROM Session
+                WHERE SystemID = ? AND SessionDate = ?
+                  AND SessionTime %s ? AND SessionTime %s ?
+                """, tutorId, date, time, -1);
+    }
+
+    /**
+     * Locks the student's row, then looks for an overlapping session they are
+     * registered for, other than {@code ignoreSessionId}.
+     */
+    static Integer studentConflictInDb(Connection conn, int studentId, Date date, Time time, int ignoreSessionId)
+            throws SQLException {
+        lockRow(conn, "SELECT SystemID FROM Student WHERE SystemID = ? FOR UPDATE", studentId);
+        return conflictInDb(conn, """
+                SELECT s.SessionID FROM Attend a
+                JOIN Session s ON a.SessionID = s.SessionID
+                WHERE a.SystemID = ? AND s.SessionDate = ?
+                  AND s.SessionTime %s ? AND s.SessionTime %s ?
+                """, studentId, date, time, ignoreSessionId);
+    }
+
+    private static void lockRow(Connection conn, String sql, int systemId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, systemId);
+            ps.executeQuery().close();
+        }
+    }
+
+    private static Integer conflictInDb(Connection conn, String sqlTemplate, int systemId,
+                                        Date date, Time time, int ignoreSessionId) throws SQLException {
+        // window of starts that overlap, clamped to the day (sessions don't run past midnight)
+        LocalTime start = time.toLocalTime();
+        int minuteOfDay = start.getHour() * 60 + start.getMinute();
+        boolean clampLow = minuteOfDay < LENGTH_MINUTES;
+        boolean clampHigh = minuteOfDay + LENGTH_MINUTES >= MINUTES_PER_DAY;
+        LocalTime low = clampLow ? LocalTime.MIN : start.minusMinutes(LENGTH_MINUTES);
+        LocalTime high = clampHigh ? LocalTime.MAX.withNano(0) : start.plusMinutes(LENGTH_MINUTES);
+
+        String sql = sqlTemplate.formatted(clampLow ? ">=" : ">", clampHigh ? "<=" : "<");
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, systemId);
+            ps.setDate(2, date);
+            ps.setTime(3, Time.valueOf(low));
+            ps.setTime(4, Time.valueOf(high));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int sessionId = rs.getInt(1);
+                    if (sessionId != ignoreSessionId) {
+                        return sessionId;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,298 @@
+package com.asctutorial.util;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Applies the numbered SQL scripts under db/migration (listed in
+ * db/migration/migrations.txt) that the database hasn't seen yet, and
+ * records each one in the SchemaVersion table.
+ *
+ * Runs at startup when db.migrate.onStartup=true, or from the command line:
+ * <pre>
+ *   java -cp ... com.asctutorial.util.SchemaMigrator [migrate|status]
+ * </pre>
+ */
+public class SchemaMigrator {
+
+    private static final Logger LOG = Logger.getLogger(SchemaMigrator.class.getName());
+
+    private static final String BASE = "/db/migration/";
+
+    /**
+     * Backfills that need Java, run right after their migration's script.
+     */
+    private static final Map<Integer, Backfill> BACKFILLS = Map.of(
+            8, AttendanceRollup::rebuild // week starts are computed in Java
+    );
+
+    @FunctionalInterface
+    private interface Backfill {
+        void run(Connection conn) throws SQLException;
+    }
+
+    /**
+     * One script from migrations.txt, e.g. V3__add_roles.sql.
+     */
+    public static class Migration {
+        private final int version;
+        private final String description;
+        private final String script;
+        private final String sql;
+
+        Migration(String script, String sql) {
+            this.script = script;
+            this.sql = sql;
+            String name = script.substring(0, script.length() - ".sql".length());
+            int sep = name.indexOf("__");
+            this.version = Integer.parseInt(name.substring(1, sep));
+            this.description = name.substring(sep + 2).replace('_', ' ');
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getScript() {
+            return script;
+        }
+
+        String checksum() {
+            try {
+                MessageDigest md = MessageDigest.getInstance("SHA-256");
+                return HexFormat.of().formatHex(md.digest(sql.getBytes(StandardCharsets.UTF_8)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private SchemaMigrator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String command = args.length > 0 ? args[0] : "migrate";
+        switch (command) {
+            case "migrate" -> {
+                List<Migration> applied = migrate();
+                System.out.println(applied.isEmpty()
+                        ? "Schema is up to date."
+                        : "Applied " + applied.size() + " migration(s).");
+            }
+            case "status" -> {
+                Map<Integer, String> done = appliedVersions();
+                for (Migration m : loadMigrations()) {
+                    System.out.printf("V%-4d %-8s %s%n", m.getVersion(),
+                            done.containsKey(m.getVersion()) ? "applied" : "pending", m.getDescription());
+                }
+            }
+            default -> {
+                System.err.println("Usage: SchemaMigrator [migrate|status]");
+                System.exit(2);
+            }
+        }
+    }
+
+    /**
+     * Runs migrations if db.migrate.onStartup is true (the default).
+     */
+    public static void migrateOnStartup() {
+        if (!Boolean.parseBoolean(DatabaseConnection.getConfig().getProperty("db.migrate.onStartup", "true"))) {
+            return;
+        }
+        try {
+            migrate();
+        } catch (Exception e) {
+            // the login screen will report the connection problem
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Applies every pending migration in order.
+     *
+     * @return the migrations that were applied by this call
+     */
+    public static List<Migration> migrate() throws SQLException, IOException {
+        return migrate(DatabaseConnection.getDataSource());
+    }
+
+    /**
+     * Same as {@link #migrate()} against a specific database, e.g. one that is
+     * still being set up and not yet published through DatabaseConnection.
+     */
+    public static List<Migration> migrate(DataSource dataSource) throws SQLException, IOException {
+        List<Migration> migrations = loadMigrations();
+        List<Migration> applied = new ArrayList<>();
+
+        try (Connection lockConn = dataSource.getConnection();
+             Connection conn = dataSource.getConnection()) {
+            ensureVersionTable(conn);
+
+            // Row 0 is a lock: a second desk starting at the same moment waits
+            // here instead of running the same DDL twice.
+            lockConn.setAutoCommit(false);
+            try (PreparedStatement ps = lockConn.prepareStatement(
+                    "SELECT Version FROM SchemaVersion WHERE Version = 0 FOR UPDATE");
+                 ResultSet rs = ps.executeQuery()) {
+                rs.next();
+            }
+
+            try {
+                Map<Integer, String> done = appliedVersions(conn);
+                for (Migration m : migrations) {
+                    String checksum = done.get(m.getVersion());
+                    if (checksum != null) {
+                        if (!checksum.equals(m.checksum())) {
+                            LOG.warning("Migration " + m.getScript() + " was modified after it was applied");
+                        }
+                        continue;
+                    }
+                    apply(conn, m);
+                    applied.add(m);
+                }
+            } finally {
+                lockConn.commit();
+            }
+        }
+        return applied;
+    }
+
+    private static void apply(Connection conn, Migration m) throws SQLException {
+        LOG.info("Applying " + m.getScript());
+        try (Statement st = conn.createStatement()) {
+            for (String statement : splitStatements(m.sql)) {
+                st.execute(statement);
+            }
+            Backfill backfill = BACKFILLS.get(m.getVersion());
+            if (backfill != null) {
+                backfill.run(conn);
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Migration " + m.getScript() + " failed: " + e.getMessage(),
+                    e.getSQLState(), e.getErrorCode(), e);
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO SchemaVersion (Version, Description, Script, Checksum, AppliedAt) VALUES (?, ?, ?, ?, ?)")) {
+            ps.setInt(1, m.getVersion());
+            ps.setString(2, m.getDescription());
+            ps.setString(3, m.getScript());
+            ps.setString(4, m.checksum());
+            ps.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+            ps.executeUpdate();
+        }
+    }
+
+    private static void ensureVersionTable(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                    CREATE TABLE IF NOT EXISTS SchemaVersion (
+                        Version INT PRIMARY KEY,
+                        Description VARCHAR(200),
+                        Script VARCHAR(200),
+                        Checksum VARCHAR(64),
+                        AppliedAt TIMESTAMP
+                    )
+                    """);
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO SchemaVersion (Version, Description, Script, Checksum, AppliedAt) VALUES (0, 'baseline', 'DB initialize.sql', NULL, ?)")) {
+            ps.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            // 23xxx = integrity constraint violation: the baseline row already exists
+            if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                throw e;
+            }
+        }
+    }
+
+    private static Map<Integer, String> appliedVersions() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            ensureVersionTable(conn);
+            return appliedVersions(conn);
+        }
+    }
+
+    private static Map<Integer, String> appliedVersions(Connection conn) throws SQLException {
+        Map<Integer, String> done = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT Version, Checksum FROM SchemaVersion WHERE Version > 0");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                done.put(rs.getInt("Version"), rs.getString("Checksum"));
+            }
+        }
+        return done;
+    }
+
+    public static List<Migration> loadMigrations() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        for (String line : readLines(BASE + "migrations.txt")) {
+            String script = line.trim();
+            if (script.isEmpty() || script.startsWith("#")) {
+                continue;
+            }
+            migrations.add(new Migration(script, String.join("\n", readLines(BASE + script))));
+        }
+        return migrations;
+    }
+
+    /**
+     * Splits a script into statements on ';' at end of line, dropping "--" comment lines.
+     */
+    static List<String> splitStatements(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            if (trimmed.endsWith(";")) {
+                current.append(trimmed, 0, trimmed.length() - 1);
+                statements.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(line).append('\n');
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static List<String> readLines(String resource) throws IOException {
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing resource " + resource);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            return reader.lines().toList();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.asctutorial.util;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.LocalDate;
+
+/**
+ * Registers students into existing sessions without ever going past
+ * Session.StudLim, however many desks book the same session at once.
+ *
+ * A reservation is one short transaction: a conditional UPDATE takes a seat
+ * (RegisteredCount + 1, only while below StudLim), then the Attend row is
+ * inserted. The UPDATE holds the Session row lock until commit, so bookers
+ * of the same session queue on that one row and the rest of the database
+ * is untouched. A NULL StudLim means the session has no limit.
+ *
+ * The student must not already have an overlapping session; that is checked
+ * in the same transaction with the Student row locked (see {@link ScheduleIndex}).
+ */
+public class SeatReservations {
+
+    public enum Result {
+        RESERVED,
+        FULL,
+        ALREADY_REGISTERED,
+        SCHEDULE_CONFLICT,
+        NO_SUCH_SESSION
+    }
+
+    private static final String TAKE_SEAT = """
+            UPDATE Session
+            SET RegisteredCount = RegisteredCount + 1
+            WHERE SessionID = ?
+              AND (StudLim IS NULL OR RegisteredCount < StudLim)
+            """;
+
+    private static final QueryMetrics RESERVE = QueryMetrics.named("seatReservation");
+
+    private SeatReservations() {
+    }
+
+    public static Result reserve(int studentId, int sessionId) throws SQLException {
+        return RESERVE.measure(() -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    Result result = reserve(conn, studentId, sessionId);
+                    if (result == Result.RESERVED) {
+                        conn.commit();
+                        ScheduleIndex.invalidateStudent(studentId);
+                    } else {
+                        conn.rollback();
+                    }
+                    return result;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+        });
+    }
+
+    private static Result reserve(Connection conn, int studentId, int sessionId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(TAKE_SEAT)) {
+            ps.setInt(1, sessionId);
+            if (ps.executeUpdate() == 0) {
+                return sessionExists(conn, sessionId) ? Result.FULL : Result.NO_SUCH_SESSION;
+            }
+        }
+
+        // We hold the Session row lock now, so a second reservation by the
+        // same student for this session can't slip in between check and insert.
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT 1 FROM Attend WHERE SystemID = ? AND SessionID = ?")) {
+            ps.setInt(1, studentId);
+            ps.setInt(2, sessionId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return Result.ALREADY_REGISTERED;
+                }
+            }
+        }
+
+        Date date;
+        Time time;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT SessionDate, SessionTime FROM Session WHERE SessionID = ?")) {
+            ps.setInt(1, sessionId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                date = rs.getDate("SessionDate");
+                time = rs.getTime("SessionTime");
+            }
+        }
+        if (date != null && time != null
+                && ScheduleIndex.studentConflictInDb(conn, studentId, date, time, sessionId) != null) {
+            return Result.SCHEDULE_CONFLICT;
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO Attend (SystemID, SessionID, DateReg, Status) VALUES (?, ?, ?, ?)")) {
+            ps.setInt(1, studentId);
+            ps.setInt(2, sessionId);
+            ps.setDate(3, Date.valueOf(LocalDate.now()));
+            ps.setString(4, AttendanceRollup.REGISTERED);
+            ps.executeUpdate();
+        }
+        AttendanceRollup.statusChanged(conn, sessionId, null, AttendanceRollup.REGISTERED);
+
+        ChangeLog.record(conn, ChangeLog.Entity.SESSION, sessionId, ChangeLog.Op.UPDATE);
+        return Result.RESERVED;
+    }
+
+    private static boolean sessionExists(Connection conn, int sessionId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM Session WHERE SessionID = ?")) {
+            ps.setInt(1, sessionId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package com.asctutorial.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes sessions with their registrations (Session / Attend / Person) to a
+ * file, one line per registration and one for each session nobody has
+ * registered for, in list order.
+ *
+ * Rows are streamed: the query runs forward-only with the backend's
+ * streaming fetch size, and each row goes straight into a fixed-size
+ * buffer in front of a FileChannel, so memory use doesn't grow with the
+ * export. Output goes to "&lt;target&gt;.part" and is renamed when complete,
+ * so a cancelled or failed export never leaves a truncated file behind.
+ * Run the export under a {@link QueryHandle} to be able to cancel it.
+ *
+ * From the command line:
+ * <pre>
+ *   java -cp ... com.asctutorial.util.SessionExporter csv|columnar &lt;file&gt; [from yyyy-mm-dd] [to yyyy-mm-dd]
+ * </pre>
+ */
+public class SessionExporter {
+
+    public enum Format {
+        /**
+         * RFC 4180 CSV, UTF-8, with a header line.
+         */
+        CSV(".csv"),
+        /**
+         * Typed columns in blocks of BLOCK_ROWS rows; see {@link ColumnarSink}.
+         */
+        COLUMNAR(".ascx");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Told how far the export is, from the exporting thread. {@code totalRows}
+     * is an estimate taken from the registration counters before the export starts.
+     */
+    @FunctionalInterface
+    public interface Progress {
+        void update(long rowsWritten, long totalRows);
+    }
+
+    private static final int REPORT_EVERY = 1000;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int BLOCK_ROWS = 4096;
+
+    private static final byte INT = 1;
+    private static final byte DATE = 2;
+    private static final byte TIME = 3;
+    private static final byte STRING = 4;
+
+    private static final String[] NAMES = {
+            "SessionID", "Date", "Time", "Location", "Subject", "Language",
+            "TutorID", "Tutor", "StudentID", "Student", "StudentEmail", "DateReg", "Status"
+    };
+    private static final byte[] TYPES = {
+            INT, DATE, TIME, STRING, STRING, STRING,
+            INT, STRING, INT, STRING, STRING, DATE, STRING
+    };
+
+    private static final String SELECT = """
+            SELECT
+                s.SessionID, s.SessionDate, s.SessionTime, s.Location,
+                subj.SubjectName, lang.Language,
+                s.SystemID AS TutorID, tp.FirstName AS TutorFirst, tp.LastName AS TutorLast,
+                a.SystemID AS StudentID, sp.FirstName AS StudentFirst, sp.LastName AS StudentLast,
+                sp.Email AS StudentEmail, a.DateReg, a.Status
+            FROM Session s
+            LEFT JOIN SubjectsOffered subj ON subj.SubjectID = s.SubjectID
+            LEFT JOIN AvailableLanguage lang ON lang.LanguageID = s.LanguageID
+            LEFT JOIN Person tp ON tp.SystemID = s.SystemID
+            LEFT JOIN Attend a ON a.SessionID = s.SessionID
+            LEFT JOIN Person sp ON sp.SystemID = a.SystemID
+            """;
+
+    private SessionExporter() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || !(args[0].equals("csv") || args[0].equals("columnar"))) {
+            System.err.println("Usage: SessionExporter csv|columnar <file> [from yyyy-mm-dd] [to yyyy-mm-dd]");
+            System.exit(2);
+        }
+        Format format = args[0].equals("csv") ? Format.CSV : Format.COLUMNAR;
+        Date from = args.length > 2 ? Date.valueOf(args[2]) : null;
+        Date to = args.length > 3 ? Date.valueOf(args[3]) : null;
+        SessionFilter filter = new SessionFilter(false, from, to, null, null, null, null);
+        long rows = export(filter, format, Path.of(args[1]), null);
+        System.out.println(rows + " row(s) written to " + args[1]);
+    }
+
+    /**
+     * Exports the sessions matching {@code filter}.
+     *
+     * @param progress may be null
+     * @return the number of rows written
+     */
+    public static long export(SessionFilter filter, Format format, Path target, Progress progress)
+            throws SQLException, IOException {
+        List<Object> params = new ArrayList<>();
+        String where = filter.where(params);
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+
+        long written = 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            long total = estimateRows(conn, where, params);
+            if (progress != null) {
+                progress.update(0, total);
+            }
+
+            try (PreparedStatement ps = QueryHandle.prepare(conn,
+                    SELECT + where + " ORDER BY s.SessionDate, s.SessionTime, s.SessionID, a.SystemID")) {
+                ps.setFetchSize(DatabaseConnection.getBackend().streamingFetchSize());
+                for (int i = 0; i < params.size(); i++) {
+                    ps.setObject(i + 1, params.get(i));
+                }
+                try (ChannelOut out = new ChannelOut(part);
+                     ResultSet rs = ps.executeQuery()) {
+                    RowSink sink = format == Format.CSV ? new CsvSink(out) : new ColumnarSink(out);
+                    Object[] row = new Object[NAMES.length];
+                    while (rs.next()) {
+                        read(rs, row);
+                        sink.row(row);
+                        if (++written % REPORT_EVERY == 0) {
+                            checkCancelled();
+                            if (progress != null) {
+                                progress.update(written, Math.max(total, written));
+                            }
+                        }
+                    }
+                    checkCancelled();
+                    sink.finish();
+                }
+            }
+            if (progress != null) {
+                progress.update(written, written);
+            }
+            publish(part, target);
+            return written;
+        } catch (SQLException | IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+    }
+
+    /**
+     * One row per registration, one per session without any: the stored
+     * counters give that without touching Attend.
+     */
+    private static long estimateRows(Connection conn, String where, List<Object> params) throws SQLException {
+        String sql = "SELECT SUM(CASE WHEN s.RegisteredCount > 0 THEN s.RegisteredCount ELSE 1 END) FROM Session s"
+                + where;
+        try (PreparedStatement ps = QueryHandle.prepare(conn, sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private static void read(ResultSet rs, Object[] row) throws SQLException {
+        row[0] = rs.getInt("SessionID");
+        row[1] = rs.getDate("SessionDate");
+        row[2] = rs.getTime("SessionTime");
+        row[3] = rs.getString("Location");
+        row[4] = rs.getString("SubjectName");
+        row[5] = rs.getString("Language");
+        row[6] = rs.getObject("TutorID", Integer.class);
+        row[7] = fullName(rs.getString("TutorFirst"), rs.getString("TutorLast"));
+        row[8] = rs.getObject("StudentID", Integer.class);
+        row[9] = fullName(rs.getString("StudentFirst"), rs.getString("StudentLast"));
+        row[10] = rs.getString("StudentEmail");
+        row[11] = rs.getDate("DateReg");
+        row[12] = rs.getString("Status");
+    }
+
+    private static String fullName(String first, String last) {
+        if (first == null && last == null) {
+            return null;
+        }
+        return ((first == null ? "" : first) + " " + (last == null ? "" : last)).trim();
+    }
+
+    private static void checkCancelled() throws SQLException {
+        if (QueryHandle.cancelRequested() || Thread.currentThread().isInterrupted()) {
+            throw new SQLException("Export cancelled");
+        }
+    }
+
+    private static void publish(Path part, Path target) throws IOException {
+        try {
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // ===================== OUTPUT =====================
+
+    private interface RowSink {
+        void row(Object[] row) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * Fixed-size buffer in front of a FileChannel.
+     */
+    private static final class ChannelOut implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+        ChannelOut(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+
+        void put(byte b) throws IOException {
+            room(1);
+            buffer.put(b);
+        }
+
+        void putShort(int v) throws IOException {
+            room(2);
+            buffer.putShort((short) v);
+        }
+
+        void putInt(int v) throws IOException {
+            room(4);
+            buffer.putInt(v);
+        }
+
+        void put(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.remaining()) {
+                flush();
+                if (bytes.length > buffer.capacity()) {
+                    write(ByteBuffer.wrap(bytes));
+                    return;
+                }
+            }
+            buffer.put(bytes);
+        }
+
+        private void room(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            write(buffer);
+            buffer.clear();
+        }
+
+        private void write(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private static final class CsvSink implements RowSink {
+        private final ChannelOut out;
+        private final StringBuilder line = new StringBuilder(256);
+
+        CsvSink(ChannelOut out) throws IOException {
+            this.out = out;
+            write(NAMES);
+        }
+
+        @Override
+        public void row(Object[] row) throws IOException {
+            write(row);
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        private void write(Object[] values) throws IOException {
+            line.setLength(0);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                if (values[i] != null) {
+                    appendField(values[i].toString());
+                }
+            }
+            line.append("\r\n");
+            out.put(line.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void appendField(String value) {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                line.append(value);
+                return;
+            }
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    line.append('"');
+                }
+                line.append(c);
+            }
+            line.append('"');
+        }
+    }
+
+    /**
+     * Layout (big-endian):
+     * <pre>
+     *   header  "ASCX", int version 1, short column count,
+     *           per column: byte type (1 int, 2 date, 3 time, 4 string), short name length, UTF-8 name
+     *   blocks  int row count n (0 ends the file), then per column:
+     *             null bitmap, (n + 7) / 8 bytes, bit i set = row i is null
+     *             int / date / time: n x int (value, epoch day, second of day; 0 when null)
+     *             string: int dictionary size d, d x (int length, UTF-8 bytes),
+     *                     n x dictionary index as byte (d &lt;= 256), short (d &lt;= 65536) or int
+     * </pre>
+     * Only one block is held in memory; the per-block dictionaries keep the
+     * repetitive columns (subject, language, location, status) small.
+     */
+    private static final class ColumnarSink implements RowSink {
+        private final ChannelOut out;
+        private final Object[][] block = new Object[NAMES.length][BLOCK_ROWS];
+        private int rows = 0;
+
+        ColumnarSink(ChannelOut out) throws IOException {
+            this.out = out;
+            out.put("ASCX".getBytes(StandardCharsets.US_ASCII));
+            out.putInt(1);
+            out.putShort(NAMES.length);
+            for (int c = 0; c < NAMES.length; c++) {
+                out.put(TYPES[c]);
+                byte[] name = NAMES[c].getBytes(StandardCharsets.UTF_8);
+                out.putShort(name.length);
+                out.put(name);
+            }
+        }
+
+        @Override
+        public void row(Object[] row) throws IOException {
+            for (int c = 0; c < row.length; c++) {
+                block[c][rows] = row[c];
+            }
+            if (++rows == BLOCK_ROWS) {
+                writeBlock();
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (rows > 0) {
+                writeBlock();
+            }
+            out.putInt(0);
+        }
+
+        private void writeBlock() throws IOException {
+            out.putInt(rows);
+            for (int c = 0; c < NAMES.length; c++) {
+                Object[] values = block[c];
+                writeNulls(values);
+                if (TYPES[c] == STRING) {
+                    writeStrings(values);
+                } else {
+                    for (int r = 0; r < rows; r++) {
+                        out.putInt(values[r] == null ? 0 : encode(TYPES[c], values[r]));
+                    }
+                }
+                Arrays.fill(values, 0, rows, null);
+            }
+            rows = 0;
+        }
+
+        private void writeNulls(Object[] values) throws IOException {
+            for (int r = 0; r < rows; r += 8) {
+                int bits = 0;
+                for (int b = 0; b < 8 && r + b < rows; b++) {
+                    if (values[r + b] == null) {
+                        bits |= 1 << b;
+                    }
+                }
+                out.put((byte) bits);
+            }
+        }
+
+        private void writeStrings(Object[] values) throws IOException {
+            Map<Object, Integer> dictionary = new HashMap<>();
+            int[] indexes = new int[rows];
+            for (int r = 0; r < rows; r++) {
+                if (values[r] != null) {
+                    indexes[r] = dictionary.computeIfAbsent(values[r], v -> dictionary.size());
+                }
+            }
+            Object[] entries = new Object[dictionary.size()];
+            dictionary.forEach((value, index) -> entries[index] = value);
+            out.putInt(entries.length);
+            for (Object entry : entries) {
+                byte[] bytes = entry.toString().getBytes(StandardCharsets.UTF_8);
+                out.putInt(bytes.length);
+                out.put(bytes);
+            }
+            for (int r = 0; r < rows; r++) {
+                if (entries.length <= 256) {
+                    out.put((byte) indexes[r]);
+                } else if (entries.length <= 65536) {
+                    out.putShort(indexes[r]);
+                } else {
+                    out.putInt(indexes[r]);
+                }
+            }
+        }
+
+        private static int encode(byte type, Object value) {
+            return switch (type) {
+                case DATE -> (int) ((Date) value).toLocalDate().toEpochDay();
+                case TIME -> ((Time) value).toLocalTime().toSecondOfDay();
+                default -> (Integer) value;
+            };
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.asctutorial.util;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Search criteria for the session lists. Every criterion is optional (null
+ * means "any"); the ones that are set are ANDed together.
+ *
+ * Only Session columns are compared, so the conditions can be used in the
+ * COUNT and keyset queries without extra joins, and each one can use an
+ * index: tutor via (SystemID, SessionDate, SessionTime), subject, language
+ * and location via the V7 indexes, the date range via the list's own
+ * (SessionDate, SessionTime, SessionID) order. Location matches by prefix.
+ */
+public class SessionFilter {
+
+    private final boolean upcomingOnly;
+    private final Date from;
+    private final Date to;
+    private final Integer subjectId;
+    private final Integer languageId;
+    private final Integer tutorId;
+    private final String location;
+
+    public SessionFilter(boolean upcomingOnly, Date from, Date to,
+                         Integer subjectId, Integer languageId, Integer tutorId, String location) {
+        this.upcomingOnly = upcomingOnly;
+        this.from = from;
+        this.to = to;
+        this.subjectId = subjectId;
+        this.languageId = languageId;
+        this.tutorId = tutorId;
+        this.location = location == null || location.isBlank() ? null : location.trim();
+    }
+
+    /**
+     * No criteria besides (optionally) today onwards.
+     */
+    public static SessionFilter all(boolean upcomingOnly) {
+        return new SessionFilter(upcomingOnly, null, null, null, null, null, null);
+    }
+
+    public boolean isUpcomingOnly() {
+        return upcomingOnly;
+    }
+
+    /**
+     * Conditions on alias {@code s} as " WHERE ..." (or "" when there are none),
+     * adding their values to {@code params} in order.
+     */
+    String where(List<Object> params) {
+        List<String> conditions = conditions(params);
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    /**
+     * Like {@link #where}, for appending to a query that already has a WHERE clause.
+     */
+    String and(List<Object> params) {
+        List<String> conditions = conditions(params);
+        return conditions.isEmpty() ? "" : " AND " + String.join(" AND ", conditions);
+    }
+
+    private List<String> conditions(List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        Date lower = from;
+        if (upcomingOnly) {
+            Date today = Date.valueOf(LocalDate.now());
+            lower = lower == null || lower.before(today) ? today : lower;
+        }
+        if (lower != null) {
+            conditions.add("s.SessionDate >= ?");
+            params.add(lower);
+        }
+        if (to != null) {
+            conditions.add("s.SessionDate <= ?");
+            params.add(to);
+        }
+        if (subjectId != null) {
+            conditions.add("s.SubjectID = ?");
+            params.add(subjectId);
+        }
+        if (languageId != null) {
+            conditions.add("s.LanguageID = ?");
+            params.add(languageId);
+        }
+        if (tutorId != null) {
+            conditions.add("s.SystemID = ?");
+            params.add(tutorId);
+        }
+        if (location != null) {
+            conditions.add("s.Location LIKE ? ESCAPE '!'");
+            params.add(location.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%");
+        }
+        return conditions;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SessionFilter other)) {
+            return false;
+        }
+        return upcomingOnly == other.upcomingOnly
+                && Objects.equals(from, other.from)
+                && Objects.equals(to, other.to)
+                && Objects.equals(subjectId, other.subjectId)
+                && Objects.equals(languageId, other.languageId)
+                && Objects.equals(tutorId, other.tutorId)
+                && Objects.equals(location, other.location);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(upcomingOnly, from, to, subjectId, languageId, tutorId, location);
+    }
+}
@@ -0,0 +1,57 @@
+package com.asctutorial.util;
+
+import java.sql.Date;
+import java.sql.Time;
+
+/**
+ * Sort key of the session lists: (SessionDate, SessionTime, SessionID).
+ * Used as the keyset-pagination cursor.
+ */
+public class SessionKey implements Comparable<SessionKey> {
+    private final Date date;
+    private final Time time;
+    private final int sessionId;
+
+    public SessionKey(Date date, Time time, int sessionId) {
+        this.date = date;
+        this.time = time;
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * Key of a session table row laid out as SessionID, Date, Time, ...
+     */
+    public static SessionKey ofRow(Object[] row) {
+        return new SessionKey((Date) row[1], (Time) row[2], (Integer) row[0]);
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public Time getTime() {
+        return time;
+    }
+
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    @Override
+    public int compareTo(SessionKey o) {
+        int c = date.compareTo(o.date);
+        if (c != 0) {
+            return c;
+        }
+        c = time.compareTo(o.time);
+        if (c != 0) {
+            return c;
+        }
+        return Integer.compare(sessionId, o.sessionId);
+    }
+
+    @Override
+    public String toString() {
+        return date + " " + time + " #" + sessionId;
+    }
+}
@@ -0,0 +1,589 @@
+package com.asctutorial.util;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Session and registration queries used by the dashboards.
+ *
+ * Rows are returned as Object[] in the same column order as the
+ * dashboard tables, so they can be added to a table model directly.
+ */
+public class SessionQueries {
+
+    // ids per IN-list; keeps statements well under driver and server placeholder limits
+    private static final int CANCEL_CHUNK = 500;
+
+    private static final QueryMetrics MANAGER_COUNT = QueryMetrics.named("managerSessionCount");
+    private static final QueryMetrics MANAGER_PAGE = QueryMetrics.named("managerSessionPage");
+    private static final QueryMetrics MANAGER_PAGE_AT = QueryMetrics.named("managerSessionPageAt");
+    private static final QueryMetrics MANAGER_BY_ID = QueryMetrics.named("managerSessionsById");
+    private static final QueryMetrics TUTOR_SESSIONS = QueryMetrics.named("tutorSessions");
+    private static final QueryMetrics STUDENT_SESSIONS = QueryMetrics.named("studentSessions");
+    private static final QueryMetrics OPEN_SESSIONS = QueryMetrics.named("openSessions");
+    private static final QueryMetrics ROSTER = QueryMetrics.named("sessionRoster");
+    private static final QueryMetrics ATTENDANCE_STATUS = QueryMetrics.named("attendanceStatus");
+    private static final QueryMetrics CANCEL = QueryMetrics.named("cancelSessions");
+    private static final QueryMetrics BOOKING = QueryMetrics.named("booking");
+
+    private SessionQueries() {
+    }
+
+    private static final String MANAGER_SESSION_COLUMNS = """
+            SELECT
+                s.SessionID,
+                s.SessionDate,
+                s.SessionTime,
+                subj.SubjectName,
+                CONCAT(p.FirstName, ' ', p.LastName) AS TutorName,
+                s.Location,
+                s.StudLim
+            FROM Session s
+            JOIN SubjectsOffered subj ON s.SubjectID = subj.SubjectID
+            JOIN Tutor t ON s.SystemID = t.SystemID
+            JOIN Person p ON t.SystemID = p.SystemID
+            """;
+
+    /**
+     * Number of rows the manager's session list has with {@code filter}.
+     */
+    public static int countManagerSessions(SessionFilter filter) throws SQLException {
+        return MANAGER_COUNT.measure(() -> {
+            List<Object> params = new ArrayList<>();
+            String sql = "SELECT COUNT(*) FROM Session s" + filter.where(params);
+
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement ps = QueryHandle.prepare(conn, sql)) {
+                bindAll(ps, params);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }
+        });
+    }
+
+    /**
+     * One page of the manager's session list, starting right after {@code after}
+     * (or at it, when {@code inclusive}). A null key starts at the beginning.
+     * Rows: SessionID, Date, Time, Subject, Tutor, Location, Limit
+     */
+    public static List<Object[]> loadManagerSessionPage(SessionFilter filter, SessionKey after,
+                                                        boolean inclusive, int limit) throws SQLException {
+        return MANAGER_PAGE.measure(() -> {
+            List<Object> params = new ArrayList<>();
+            StringBuilder sql = new StringBuilder(MANAGER_SESSION_COLUMNS);
+            String where = filter.where(params);
+            sql.append(where);
+            if (after != null) {
+                // keyset seek: walks the (SessionDate, SessionTime, SessionID) index from the cursor
+                sql.append(where.isEmpty() ? " WHERE " : " AND ")
+                        .append("(s.SessionDate, s.SessionTime, s.SessionID) ")
+                        .append(inclusive ? ">=" : ">").append(" (?, ?, ?)");
+                params.add(after.getDate());
+                params.add(after.getTime());
+                params.add(after.getSessionId());
+            }
+            sql.append(" ORDER BY s.SessionDate, s.SessionTime, s.SessionID LIMIT ?");
+            params.add(limit);
+            return loadManagerRows(sql.toString(), params);
+        });
+    }
+
+    /**
+     * Page of the manager's session list at an absolute row offset. Only used
+     * when the user jumps into a region that hasn't been paged through yet, so
+     * there is no cursor to seek from.
+     */
+    public static List<Object[]> loadManagerSessionPageAt(SessionFilter filter, int offset, int limit)
+            throws SQLException {
+        return MANAGER_PAGE_AT.measure(() -> {
+            List<Object> params = new ArrayList<>();
+            StringBuilder sql = new StringBuilder(MANAGER_SESSION_COLUMNS).append(filter.where(params));
+            sql.append(" ORDER BY s.SessionDate, s.SessionTime, s.SessionID LIMIT ? OFFSET ?");
+            params.add(limit);
+            params.add(offset);
+            return loadManagerRows(sql.toString(), params);
+        });
+    }
+
+    /**
+     * Current manager-list rows for specific sessions (for applying polled
+     * changes). Sessions that no longer exist, or don't match the filter,
+     * are simply absent from the result.
+     */
+    public static List<Object[]> loadManagerSessionsById(SessionFilter filter, Collection<Integer> sessionIds)
+            throws SQLException {
+        return MANAGER_BY_ID.measure(() -> {
+            if (sessionIds.isEmpty()) {
+                return new ArrayList<>();
+            }
+            StringBuilder sql = new StringBuilder(MANAGER_SESSION_COLUMNS);
+            List<Object> params = new ArrayList<>(sessionIds);
+            sql.append(" WHERE s.SessionID IN (").append(placeholders(sessionIds.size())).append(")");
+            sql.append(filter.and(params));
+            return loadManagerRows(sql.toString(), params);
+        });
+    }
+
+    private static List<Object[]> loadManagerRows(String sql, List<Object> params) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = QueryHandle.prepare(conn, sql)) {
+
+            bindAll(ps, params);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Object[]{
+                            rs.getInt("SessionID"),
+                            rs.getDate("SessionDate"),
+                            rs.getTime("SessionTime"),
+                            rs.getString("SubjectName"),
+                            rs.getString("TutorName"),
+                            rs.getString("Location"),
+                            rs.getInt("StudLim")
+                    });
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * SessionID, Date, Time, Subject, Language, Location, # Students
+     */
+    public static List<Object[]> loadTutorSessions(int tutorId) throws SQLException {
+        return loadTutorSessions(tutorId, null);
+    }
+
+    /**
+     * Like {@link #loadTutorSessions(int)}, limited to {@code onlySessionIds} when not null.
+     */
+    public static List<Object[]> loadTutorSessions(int tutorId, Collection<Integer> onlySessionIds)
+            throws SQLException {
+        return TUTOR_SESSIONS.measure(() -> {
+            String filter = onlySessionIds == null ? ""
+                    : " AND s.SessionID IN (" + placeholders(onlySessionIds.size()) + ")";
+            String sql = """
+                    SELECT 
+                        s.SessionID,
+                        s.SessionDate,
+                        s.SessionTime,
+                        subj.SubjectName,
+                        lang.Language,
+                        s.Location,
+                        s.RegisteredCount
+                    FROM Session s
+                    JOIN SubjectsOffered subj ON s.SubjectID = subj.SubjectID
+                    JOIN AvailableLanguage lang ON s.LanguageID = lang.LanguageID
+                    WHERE s.SystemID = ?%s
+                    ORDER BY s.SessionDate, s.SessionTime
+                    """.formatted(filter);
+
+            List<Object[]> rows = new ArrayList<>();
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, tutorId);
+                if (onlySessionIds != null) {
+                    bindIds(ps, 2, onlySessionIds);
+                }
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(new Object[]{
+                                rs.getInt("SessionID"),
+                                rs.getDate("SessionDate"),
+                                rs.getTime("SessionTime"),
+                                rs.getString("SubjectName"),
+                                rs.getString("Language"),
+                                rs.getString("Location"),
+                                rs.getInt("RegisteredCount")
+                        });
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * StudentID, Name, Status of everyone registered for a session, by name.
+     */
+    public static List<Object[]> loadSessionRoster(int sessionId) throws SQLException {
+        return ROSTER.measure(() -> {
+            String sql = """
+                    SELECT a.SystemID, p.FirstName, p.LastName, a.Status
+                    FROM Attend a
+                    JOIN Person p ON p.SystemID = a.SystemID
+                    WHERE a.SessionID = ?
+                    ORDER BY p.LastName, p.FirstName
+                    """;
+
+            List<Object[]> rows = new ArrayList<>();
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, sessionId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(new Object[]{
+                                rs.getInt("SystemID"),
+                                rs.getString("FirstName") + " " + rs.getString("LastName"),
+                                rs.getString("Status")
+                        });
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Marks a student's registration as Registered, Attended or No-Show,
+     * keeping the attendance rollup in step.
+     *
+     * @return false if the student is not registered for the session
+     */
+    public static boolean setAttendanceStatus(int sessionId, int studentId, String status) throws SQLException {
+        return ATTENDANCE_STATUS.measure(() -> {
+            if (!AttendanceRollup.STATUSES.contains(status)) {
+                throw new IllegalArgumentException("Unknown attendance status: " + status);
+            }
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    String previous;
+                    try (PreparedStatement ps = conn.prepareStatement(
+                            "SELECT Status FROM Attend WHERE SystemID = ? AND SessionID = ? FOR UPDATE")) {
+                        ps.setInt(1, studentId);
+                        ps.setInt(2, sessionId);
+                        try (ResultSet rs = ps.executeQuery()) {
+                            if (!rs.next()) {
+                                conn.rollback();
+                                return false;
+                            }
+                            previous = rs.getString("Status");
+                        }
+                    }
+                    if (status.equals(previous)) {
+                        conn.rollback();
+                        return true;
+                    }
+                    try (PreparedStatement ps = conn.prepareStatement(
+                            "UPDATE Attend SET Status = ? WHERE SystemID = ? AND SessionID = ?")) {
+                        ps.setString(1, status);
+                        ps.setInt(2, studentId);
+                        ps.setInt(3, sessionId);
+                        ps.executeUpdate();
+                    }
+                    AttendanceRollup.statusChanged(conn, sessionId, previous, status);
+                    ChangeLog.record(conn, ChangeLog.Entity.SESSION, sessionId, ChangeLog.Op.UPDATE);
+                    conn.commit();
+                    return true;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+        });
+    }
+
+    /**
+     * SessionID, Date, Time, Subject, Language, Location, Status
+     */
+    public static List<Object[]> loadStudentSessions(int studentId) throws SQLException {
+        return loadStudentSessions(studentId, null);
+    }
+
+    /**
+     * Like {@link #loadStudentSessions(int)}, limited to {@code onlySessionIds} when not null.
+     */
+    public static List<Object[]> loadStudentSessions(int studentId, Collection<Integer> onlySessionIds)
+            throws SQLException {
+        return STUDENT_SESSIONS.measure(() -> {
+            String filter = onlySessionIds == null ? ""
+                    : " AND a.SessionID IN (" + placeholders(onlySessionIds.size()) + ")";
+            // Use the actual column name 'Status'
+            String sql = """
+                    SELECT
+                        s.SessionID,
+                        s.SessionDate,
+                        s.SessionTime,
+                        subj.SubjectName,
+                        lang.Language,
+                        s.Location,
+                        a.Status AS Status
+                    FROM Attend a
+                    JOIN Session s ON a.SessionID = s.SessionID
+                    JOIN SubjectsOffered subj ON s.SubjectID = subj.SubjectID
+                    JOIN AvailableLanguage lang ON s.LanguageID = lang.LanguageID
+                    WHERE a.SystemID = ?%s
+                    ORDER BY s.SessionDate, s.SessionTime
+                    """.formatted(filter);
+
+            List<Object[]> rows = new ArrayList<>();
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, studentId);
+                if (onlySessionIds != null) {
+                    bindIds(ps, 2, onlySessionIds);
+                }
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(studentSessionRow(
+                                rs.getInt("SessionID"),
+                                rs.getDate("SessionDate"),
+                                rs.getTime("SessionTime"),
+                                rs.getString("SubjectName"),
+                                rs.getString("Language"),
+                                rs.getString("Location"),
+                                rs.getString("Status")
+                        ));
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Upcoming sessions the student could join: seats left, not already
+     * registered, and matching {@code filter}; at most {@code limit} rows.
+     * Rows: SessionID, Date, Time, Subject, Tutor, Language, Location, Seats Left
+     * (Seats Left is null when the session has no limit).
+     */
+    public static List<Object[]> loadOpenSessions(int studentId, SessionFilter filter, int limit)
+            throws SQLException {
+        return OPEN_SESSIONS.measure(() -> {
+            List<Object> params = new ArrayList<>();
+            params.add(Date.valueOf(LocalDate.now()));
+            params.add(studentId);
+            String conditions = filter.and(params);
+            params.add(limit);
+            String sql = """
+                    SELECT
+                        s.SessionID,
+                        s.SessionDate,
+                        s.SessionTime,
+                        subj.SubjectName,
+                        CONCAT(p.FirstName, ' ', p.LastName) AS TutorName,
+                        lang.Language,
+                        s.Location,
+                        s.StudLim - s.RegisteredCount AS SeatsLeft
+                    FROM Session s
+                    JOIN SubjectsOffered subj ON s.SubjectID = subj.SubjectID
+                    JOIN AvailableLanguage lang ON s.LanguageID = lang.LanguageID
+                    JOIN Person p ON s.SystemID = p.SystemID
+                    WHERE s.SessionDate >= ?
+                      AND (s.StudLim IS NULL OR s.RegisteredCount < s.StudLim)
+                      AND NOT EXISTS (SELECT 1 FROM Attend a
+                                      WHERE a.SessionID = s.SessionID AND a.SystemID = ?)%s
+                    ORDER BY s.SessionDate, s.SessionTime, s.SessionID
+                    LIMIT ?
+                    """.formatted(conditions);
+
+            List<Object[]> rows = new ArrayList<>();
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement ps = QueryHandle.prepare(conn, sql)) {
+
+                bindAll(ps, params);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(new Object[]{
+                                rs.getInt("SessionID"),
+                                rs.getDate("SessionDate"),
+                                rs.getTime("SessionTime"),
+                                rs.getString("SubjectName"),
+                                rs.getString("TutorName"),
+                                rs.getString("Language"),
+                                rs.getString("Location"),
+                                rs.getObject("SeatsLeft") == null ? null : rs.getInt("SeatsLeft")
+                        });
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * One row of the student's session table, in loadStudentSessions column order.
+     * Lets a write path hand the table the row it just created without re-reading it.
+     */
+    public static Object[] studentSessionRow(int sessionId, Date date, Time time, String subjectName,
+                                             String language, String location, String status) {
+        return new Object[]{sessionId, date, time, subjectName, language, location, status};
+    }
+
+    /**
+     * Deletes a session and all student registrations for it in one transaction.
+     */
+    public static void cancelSession(int sessionId) throws SQLException {
+        cancelSessions(List.of(sessionId));
+    }
+
+    /**
+     * Deletes several sessions and their registrations in one transaction,
+     * using IN-list DELETEs (at most CANCEL_CHUNK ids per statement).
+     *
+     * @return how many Session rows were deleted
+     */
+    public static int cancelSessions(Collection<Integer> sessionIds) throws SQLException {
+        return CANCEL.measure(() -> {
+            if (sessionIds.isEmpty()) {
+                return 0;
+            }
+            List<Integer> ids = new ArrayList<>(sessionIds);
+            int removed = 0;
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    for (int from = 0; from < ids.size(); from += CANCEL_CHUNK) {
+                        List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + CANCEL_CHUNK));
+                        String in = placeholders(chunk.size());
+
+                        // registrations first (Attend.SessionID references Session)
+                        AttendanceRollup.sessionsRemoved(conn, chunk);
+                        try (PreparedStatement ps = conn.prepareStatement(
+                                "DELETE FROM Attend WHERE SessionID IN (" + in + ")")) {
+                            bindIds(ps, 1, chunk);
+                            ps.executeUpdate();
+                        }
+                        try (PreparedStatement ps = conn.prepareStatement(
+                                "DELETE FROM Session WHERE SessionID IN (" + in + ")")) {
+                            bindIds(ps, 1, chunk);
+                            removed += ps.executeUpdate();
+                        }
+                        ChangeLog.recordAll(conn, ChangeLog.Entity.SESSION, chunk, ChangeLog.Op.DELETE);
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+            SummaryStatsCache.sessionsRemoved(removed);
+            ScheduleIndex.invalidateAll();
+            return removed;
+        });
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static void bindAll(PreparedStatement ps, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            ps.setObject(i + 1, params.get(i));
+        }
+    }
+
+    private static void bindIds(PreparedStatement ps, int firstIndex, Collection<Integer> ids) throws SQLException {
+        int i = firstIndex;
+        for (int id : ids) {
+            ps.setInt(i++, id);
+        }
+    }
+
+    /**
+     * Creates a one-seat session with the given tutor and registers the student in it.
+     *
+     * @return the new SessionID
+     * @throws ScheduleConflictException if the tutor or the student already has
+     *                                   a session at that time
+     */
+    public static int createAppointment(int studentId, int tutorId, int subjectId, int languageId,
+                                        Date date, Time time, String location) throws SQLException {
+        return BOOKING.measure(() -> {
+            // cheap in-memory check first; the locked re-check below is the one that counts
+            checkNoConflict(ScheduleIndex.findTutorConflict(tutorId, date, time),
+                    ScheduleIndex.findStudentConflict(studentId, date, time, -1));
+
+            int newSessionId = IdGenerator.get().next(IdGenerator.Sequence.SESSION);
+
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    checkNoConflict(ScheduleIndex.tutorConflictInDb(conn, tutorId, date, time),
+                            ScheduleIndex.studentConflictInDb(conn, studentId, date, time, -1));
+                    insertAppointment(conn, newSessionId, studentId, tutorId, subjectId, languageId,
+                            date, time, location);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+            ScheduleIndex.invalidateTutor(tutorId);
+            ScheduleIndex.invalidateStudent(studentId);
+            SummaryStatsCache.sessionsAdded(1);
+            return newSessionId;
+        });
+    }
+
+    private static void checkNoConflict(Integer tutorConflict, Integer studentConflict)
+            throws ScheduleConflictException {
+        if (tutorConflict != null) {
+            throw new ScheduleConflictException(
+                    "The tutor already has a session at that time.", tutorConflict);
+        }
+        if (studentConflict != null) {
+            throw new ScheduleConflictException(
+                    "You already have a session at that time.", studentConflict);
+        }
+    }
+
+    private static void insertAppointment(Connection conn, int newSessionId, int studentId, int tutorId,
+                                          int subjectId, int languageId, Date date, Time time,
+                                          String location) throws SQLException {
+        // Insert into Session (StudLim set to 1 for a single appointment).
+        // RegisteredCount starts at 1 for the Attend row inserted below.
+        String insertSession = """
+                INSERT INTO Session
+                    (SessionID, SessionDate, SessionTime, Location,
+                     StudLim, SubjectID, SystemID, LanguageID, RegisteredCount)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, 1)
+                """;
+
+        try (PreparedStatement ps = conn.prepareStatement(insertSession)) {
+            ps.setInt(1, newSessionId);
+            ps.setDate(2, date);
+            ps.setTime(3, time);
+            ps.setString(4, location);
+            ps.setInt(5, 1);                            // StudLim = 1
+            ps.setInt(6, subjectId);
+            ps.setInt(7, tutorId);                      // tutor SystemID
+            ps.setInt(8, languageId);
+            ps.executeUpdate();
+        }
+
+        // Insert into Attend (student registers, Status set as 'Registered')
+        String insertAttend = """
+                INSERT INTO Attend (SystemID, SessionID, DateReg, Status)
+                VALUES (?, ?, ?, ?)
+                """;
+
+        try (PreparedStatement ps = conn.prepareStatement(insertAttend)) {
+            ps.setInt(1, studentId);
+            ps.setInt(2, newSessionId);
+            ps.setDate(3, Date.valueOf(LocalDate.now()));
+            ps.setString(4, AttendanceRollup.REGISTERED);
+            ps.executeUpdate();
+        }
+        AttendanceRollup.registered(conn, date, tutorId, subjectId, languageId, AttendanceRollup.REGISTERED, 1);
+
+        ChangeLog.record(conn, ChangeLog.Entity.SESSION, newSessionId, ChangeLog.Op.INSERT);
+    }
+}
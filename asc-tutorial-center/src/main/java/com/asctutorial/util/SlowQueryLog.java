@@ -0,0 +1,536 @@
+package com.asctutorial.util;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes the named queries (see {@link QueryMetrics}) that take longer than
+ * db.slowlog.thresholdMs to a rolling log file: the name, duration, rows,
+ * and each SQL statement the query ran with its bound parameters and time.
+ * Parameters bound to password columns are written as "***".
+ *
+ * The first time a query name is slow, the EXPLAIN plan of its slowest
+ * statement is captured as well (db.slowlog.explain). EXPLAIN runs on a
+ * background thread with its own connection, so the slow caller is not
+ * held up any further.
+ *
+ * Statements are seen through {@link #trace}, which {@link PooledDataSource}
+ * applies to every prepareStatement() while the log is on. A statement run
+ * outside any named query is logged as "(unnamed)" when its execute call
+ * alone is slow.
+ */
+public final class SlowQueryLog {
+
+    private static final Logger LOG = Logger.getLogger(SlowQueryLog.class.getName());
+    // the file log; not passed on to the console handlers
+    private static final Logger FILE_LOG = Logger.getLogger("com.asctutorial.slowquery");
+
+    private static final Properties CONFIG = DatabaseConnection.getConfig();
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            Long.parseLong(CONFIG.getProperty("db.slowlog.thresholdMs", "500").trim()));
+    private static final boolean EXPLAIN = Boolean.parseBoolean(
+            CONFIG.getProperty("db.slowlog.explain", "true").trim());
+
+    private static final int MAX_STATEMENTS = 20;   // per logged query; the rest are only counted
+    private static final int MAX_VALUE_CHARS = 200;
+    private static final int MAX_SHAPES = 2000;     // cached SQL texts (IN lists vary in length)
+
+    // column names whose values never reach the log
+    private static final Pattern SENSITIVE = Pattern.compile("(?i)passw|pwd|secret|token");
+    private static final Pattern INSERT_COLUMNS = Pattern.compile(
+            "(?is)^\\s*(?:INSERT|REPLACE)\\s+(?:IGNORE\\s+)?INTO\\s+\\S+\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\(");
+    private static final Pattern EXPLAINABLE = Pattern.compile("(?is)^\\s*(SELECT|UPDATE|DELETE|INSERT|WITH)\\b");
+    private static final Pattern IDENTIFIER_BEFORE = Pattern.compile(
+            "(?is)([A-Za-z_][\\w.]*)\\W*(?:=|<>|!=|<=|>=|<|>|\\bLIKE|\\bIN\\s*\\(|\\bBETWEEN)[\\s(?,]*$");
+
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+    private static final Map<String, Shape> SHAPES = new ConcurrentHashMap<>();
+    private static final Set<String> EXPLAINED = ConcurrentHashMap.newKeySet();
+
+    private static volatile ThreadPoolExecutor explainer;
+
+    private SlowQueryLog() {
+    }
+
+    /**
+     * Whether slow queries are logged (db.slowlog.thresholdMs above 0).
+     */
+    public static boolean isEnabled() {
+        return THRESHOLD_NANOS > 0;
+    }
+
+    // ===================== NAMED QUERIES =====================
+
+    /**
+     * Starts collecting the statements of a named query on this thread.
+     * Returns null when the log is off.
+     */
+    static Trace begin() {
+        if (THRESHOLD_NANOS <= 0) {
+            return null;
+        }
+        Trace trace = new Trace(CURRENT.get());
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * Ends {@code trace} and logs the query if it was slow.
+     */
+    static void end(Trace trace, String name, long nanos, long rows, boolean failed) {
+        if (trace.outer == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(trace.outer);
+        }
+        if (nanos >= THRESHOLD_NANOS) {
+            logSlow(name, nanos, rows, failed, trace);
+        }
+    }
+
+    /**
+     * Statements run by one named query.
+     */
+    static final class Trace {
+        private final Trace outer;
+        private final List<Executed> statements = new ArrayList<>();
+        private int total;
+
+        private Trace(Trace outer) {
+            this.outer = outer;
+        }
+
+        private void add(Executed executed) {
+            total++;
+            if (statements.size() < MAX_STATEMENTS) {
+                statements.add(executed);
+            } else {
+                // keep the slowest ones
+                int fastest = 0;
+                for (int i = 1; i < statements.size(); i++) {
+                    if (statements.get(i).nanos < statements.get(fastest).nanos) {
+                        fastest = i;
+                    }
+                }
+                if (executed.nanos > statements.get(fastest).nanos) {
+                    statements.remove(fastest);
+                    statements.add(executed);
+                }
+            }
+        }
+    }
+
+    /**
+     * One execute call: the statement text, its parameters at the time and how long it took.
+     */
+    private static final class Executed {
+        final Shape shape;
+        final Object[] parameters;
+        final int batchSize;
+        final long nanos;
+
+        Executed(Shape shape, Object[] parameters, int batchSize, long nanos) {
+            this.shape = shape;
+            this.parameters = parameters;
+            this.batchSize = batchSize;
+            this.nanos = nanos;
+        }
+    }
+
+    // ===================== STATEMENTS =====================
+
+    /**
+     * Wraps {@code ps} so its executions are timed and reported to the
+     * named query running on the calling thread. Returns {@code ps} itself
+     * when the log is off.
+     */
+    static PreparedStatement trace(PreparedStatement ps, String sql) {
+        if (THRESHOLD_NANOS <= 0) {
+            return ps;
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new TracedStatement(ps, shapeOf(sql))
+        );
+    }
+
+    private static final class TracedStatement implements InvocationHandler {
+        private final PreparedStatement target;
+        private final Shape shape;
+        private Object[] parameters;
+        private int batchSize;
+
+        TracedStatement(PreparedStatement target, Shape shape) {
+            this.target = target;
+            this.shape = shape;
+            this.parameters = new Object[shape.parameterCount];
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "TracedStatement[" + target + "]";
+                }
+                case "clearParameters" -> Arrays.fill(parameters, null);
+                case "addBatch" -> batchSize++;
+                case "clearBatch" -> batchSize = 0;
+                default -> {
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        bind(index, name.equals("setNull") ? null : args[1]);
+                    } else if (name.startsWith("execute")) {
+                        return execute(method, args);
+                    }
+                }
+            }
+            return call(method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, index); // more ? than counted (e.g. in comments)
+            }
+            if (index >= 1) {
+                parameters[index - 1] = value;
+            }
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            long start = System.nanoTime();
+            try {
+                return call(method, args);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                int batch = method.getName().startsWith("executeBatch") || method.getName().startsWith("executeLargeBatch")
+                        ? batchSize : 0;
+                if (batch > 0) {
+                    batchSize = 0;
+                }
+                executed(new Executed(shape, parameters.clone(), batch, nanos));
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static void executed(Executed executed) {
+        Trace trace = CURRENT.get();
+        if (trace != null) {
+            trace.add(executed);
+        } else if (executed.nanos >= THRESHOLD_NANOS) {
+            Trace alone = new Trace(null);
+            alone.add(executed);
+            logSlow("(unnamed)", executed.nanos, -1, false, alone);
+        }
+    }
+
+    // ===================== SQL SHAPES =====================
+
+    /**
+     * What the log needs to know about one SQL text, worked out once.
+     */
+    private static final class Shape {
+        final String sql;
+        final int parameterCount;
+        final boolean[] redacted;   // by parameter position, 0-based
+        final boolean explainable;
+
+        Shape(String sql) {
+            this.sql = sql;
+            List<Integer> marks = parameterPositions(sql);
+            this.parameterCount = marks.size();
+            this.redacted = sensitiveParameters(sql, marks);
+            this.explainable = EXPLAINABLE.matcher(sql).find();
+        }
+
+        boolean isRedacted(int index) {
+            // parameters beyond those counted are hidden if the statement touches a password at all
+            return index < redacted.length ? redacted[index] : SENSITIVE.matcher(sql).find();
+        }
+    }
+
+    private static Shape shapeOf(String sql) {
+        Shape shape = SHAPES.get(sql);
+        if (shape == null) {
+            shape = new Shape(sql);
+            if (SHAPES.size() < MAX_SHAPES) {
+                SHAPES.putIfAbsent(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * Offsets of the ? placeholders, skipping quoted literals and identifiers.
+     */
+    private static List<Integer> parameterPositions(String sql) {
+        List<Integer> marks = new ArrayList<>();
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '?') {
+                marks.add(i);
+            }
+        }
+        return marks;
+    }
+
+    /**
+     * Which placeholders carry a password: INSERT values are matched to the
+     * column list by position, anything else to the column just before its
+     * comparison ("Password = ?"). If the statement names a sensitive column
+     * and a placeholder can't be attributed, it is hidden too.
+     */
+    private static boolean[] sensitiveParameters(String sql, List<Integer> marks) {
+        boolean[] redacted = new boolean[marks.size()];
+        if (!SENSITIVE.matcher(sql).find()) {
+            return redacted;
+        }
+        String[] insertColumns = null;
+        int valuesStart = -1;
+        Matcher insert = INSERT_COLUMNS.matcher(sql);
+        if (insert.find()) {
+            insertColumns = insert.group(1).split(",");
+            valuesStart = insert.end();
+        }
+        for (int p = 0; p < marks.size(); p++) {
+            int at = marks.get(p);
+            String column = null;
+            if (insertColumns != null && at >= valuesStart) {
+                int position = tuplePosition(sql, valuesStart, at);
+                if (position >= 0 && position < insertColumns.length) {
+                    column = insertColumns[position].trim();
+                }
+            }
+            if (column == null) {
+                Matcher before = IDENTIFIER_BEFORE.matcher(sql.substring(Math.max(0, at - 120), at));
+                column = before.find() ? before.group(1) : null;
+            }
+            redacted[p] = column == null || SENSITIVE.matcher(column).find();
+        }
+        return redacted;
+    }
+
+    /**
+     * Position of the value at {@code at} within the VALUES tuple that opens
+     * at {@code start} (just after its "("), or -1 when it is outside it.
+     */
+    private static int tuplePosition(String sql, int start, int at) {
+        int depth = 0;
+        int position = 0;
+        for (int i = start; i < at; i++) {
+            char c = sql.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (depth == 0) {
+                    return -1;
+                }
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                position++;
+            }
+        }
+        return position;
+    }
+
+    // ===================== LOGGING =====================
+
+    private static void logSlow(String name, long nanos, long rows, boolean failed, Trace trace) {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "SLOW %s %.1f ms, %s%s, %d statement(s)",
+                name, nanos / 1e6, rows < 0 ? "rows n/a" : rows + " rows",
+                failed ? ", FAILED" : "", trace.total));
+        Executed slowest = null;
+        for (Executed executed : trace.statements) {
+            text.append(String.format(Locale.ROOT, "%n  [%.1f ms%s] %s%n    params: %s",
+                    executed.nanos / 1e6,
+                    executed.batchSize > 0 ? ", batch of " + executed.batchSize : "",
+                    oneLine(executed.shape.sql), formatParameters(executed)));
+            if (slowest == null || executed.nanos > slowest.nanos) {
+                slowest = executed;
+            }
+        }
+        if (trace.total > trace.statements.size()) {
+            text.append(String.format("%n  ... %d faster statement(s) not shown", trace.total - trace.statements.size()));
+        }
+        write(text.toString());
+
+        if (EXPLAIN && slowest != null && slowest.shape.explainable) {
+            String key = "(unnamed)".equals(name) ? slowest.shape.sql : name;
+            if (EXPLAINED.add(key)) {
+                explainLater(key, name, slowest);
+            }
+        }
+    }
+
+    private static String formatParameters(Executed executed) {
+        if (executed.parameters.length == 0) {
+            return "(none)";
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < executed.parameters.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(i + 1).append('=');
+            Object value = executed.parameters[i];
+            if (executed.shape.isRedacted(i)) {
+                text.append("***");
+            } else if (value == null) {
+                text.append("NULL");
+            } else if (value instanceof CharSequence || value instanceof java.util.Date
+                    || value instanceof java.time.temporal.Temporal) {
+                String s = value.toString();
+                text.append('\'').append(s.length() > MAX_VALUE_CHARS ? s.substring(0, MAX_VALUE_CHARS) + "..." : s).append('\'');
+            } else if (value instanceof Number || value instanceof Boolean) {
+                text.append(value);
+            } else {
+                text.append('<').append(value.getClass().getSimpleName()).append('>');
+            }
+        }
+        return text.toString();
+    }
+
+    private static String oneLine(String sql) {
+        return sql.strip().replaceAll("\\s+", " ");
+    }
+
+    private static void write(String message) {
+        FileLog.init();
+        FILE_LOG.warning(message);
+    }
+
+    /**
+     * The rolling file handler, opened the first time something is slow.
+     */
+    private static final class FileLog {
+        static {
+            String pattern = CONFIG.getProperty("db.slowlog.file", "asc-slow-queries.%g.log");
+            int limit = Integer.parseInt(CONFIG.getProperty("db.slowlog.fileLimitBytes", "5000000").trim());
+            int count = Integer.parseInt(CONFIG.getProperty("db.slowlog.fileCount", "5").trim());
+            FILE_LOG.setUseParentHandlers(false);
+            try {
+                Handler handler = new FileHandler(pattern, limit, Math.max(1, count), true);
+                handler.setFormatter(new Formatter() {
+                    @Override
+                    public String format(LogRecord record) {
+                        return Instant.ofEpochMilli(record.getMillis()) + " " + record.getMessage()
+                                + System.lineSeparator();
+                    }
+                });
+                FILE_LOG.addHandler(handler);
+            } catch (IOException | RuntimeException e) {
+                // still better than losing the entries
+                LOG.log(Level.WARNING, "Slow-query log file " + pattern + " could not be opened; logging to the console", e);
+                FILE_LOG.setUseParentHandlers(true);
+            }
+        }
+
+        static void init() {
+            // loading the class opens the file
+        }
+    }
+
+    // ===================== EXPLAIN =====================
+
+    private static void explainLater(String key, String name, Executed executed) {
+        ThreadPoolExecutor executor = explainer;
+        if (executor == null) {
+            synchronized (SlowQueryLog.class) {
+                executor = explainer;
+                if (executor == null) {
+                    executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<>(16), r -> {
+                        Thread t = new Thread(r, "slow-query-explain");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    explainer = executor;
+                }
+            }
+        }
+        try {
+            executor.execute(() -> write(explain(name, executed)));
+        } catch (RejectedExecutionException e) {
+            EXPLAINED.remove(key); // try again next time it is slow
+        }
+    }
+
+    private static String explain(String name, Executed executed) {
+        StringBuilder text = new StringBuilder("EXPLAIN " + name + ": " + oneLine(executed.shape.sql));
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement("EXPLAIN " + executed.shape.sql)) {
+            for (int i = 0; i < executed.parameters.length; i++) {
+                ps.setObject(i + 1, executed.parameters[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                text.append(System.lineSeparator()).append("  ");
+                for (int c = 1; c <= columns; c++) {
+                    text.append(c > 1 ? " | " : "").append(meta.getColumnLabel(c));
+                }
+                while (rs.next()) {
+                    text.append(System.lineSeparator()).append("  ");
+                    for (int c = 1; c <= columns; c++) {
+                        String value = String.valueOf(rs.getString(c)); // H2 plans span several lines
+                        text.append(c > 1 ? " | " : "").append(value.replaceAll("\\R", System.lineSeparator() + "    "));
+                    }
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            text.append(System.lineSeparator()).append("  (no plan: ").append(e.getMessage()).append(')');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,28 @@
+package com.asctutorial.util;
+
+/**
+ * Head counts shown in the manager dashboard's summary panel.
+ */
+public class SummaryStats {
+    private final int students;
+    private final int tutors;
+    private final int sessions;
+
+    public SummaryStats(int students, int tutors, int sessions) {
+        this.students = students;
+        this.tutors = tutors;
+        this.sessions = sessions;
+    }
+
+    public int getStudents() {
+        return students;
+    }
+
+    public int getTutors() {
+        return tutors;
+    }
+
+    public int getSessions() {
+        return sessions;
+    }
+}
@@ -0,0 +1,122 @@
+package com.asctutorial.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-process cache of the manager summary counts.
+ *
+ * Loaded with one combined COUNT query, then kept current by the app's own
+ * writes (see PersonQueries / SessionQueries) and re-read once the TTL
+ * (db.stats.ttlMs, default 60s) expires so other desks' changes show up.
+ */
+public class SummaryStatsCache {
+
+    private static final long TTL_MILLIS = Long.parseLong(
+            DatabaseConnection.getConfig().getProperty("db.stats.ttlMs", "60000"));
+
+    private static final String SQL = """
+            SELECT
+                (SELECT COUNT(*) FROM Student) AS Students,
+                (SELECT COUNT(*) FROM Tutor)   AS Tutors,
+                (SELECT COUNT(*) FROM Session) AS Sessions
+            """;
+
+    private static class Entry {
+        final SummaryStats stats;
+        final long loadedAt;
+
+        Entry(SummaryStats stats, long loadedAt) {
+            this.stats = stats;
+            this.loadedAt = loadedAt;
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() - loadedAt < TTL_MILLIS;
+        }
+    }
+
+    private static final AtomicReference<Entry> CURRENT = new AtomicReference<>();
+    private static final AtomicLong WRITES = new AtomicLong();
+    private static final QueryMetrics LOAD = QueryMetrics.named("summaryStats");
+
+    private SummaryStatsCache() {
+    }
+
+    /**
+     * Cached counts if still within the TTL, otherwise null. Never touches the database.
+     */
+    public static SummaryStats peek() {
+        Entry e = CURRENT.get();
+        return e != null && e.isFresh() ? e.stats : null;
+    }
+
+    /**
+     * Cached counts, or one round trip to reload them when missing/expired.
+     */
+    public static SummaryStats get() throws SQLException {
+        SummaryStats cached = peek();
+        return cached != null ? cached : refresh();
+    }
+
+    public static SummaryStats refresh() throws SQLException {
+        return LOAD.measure(() -> {
+            long writesBefore = WRITES.get();
+            SummaryStats stats;
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL);
+                 ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                stats = new SummaryStats(rs.getInt("Students"), rs.getInt("Tutors"), rs.getInt("Sessions"));
+            }
+            // If one of our own writes raced the query we can't tell whether it was
+            // counted, so keep the result but mark it stale for the next caller.
+            long loadedAt = WRITES.get() == writesBefore ? System.currentTimeMillis() : 0;
+            CURRENT.set(new Entry(stats, loadedAt));
+            return stats;
+        });
+    }
+
+    public static void invalidate() {
+        WRITES.incrementAndGet();
+        CURRENT.set(null);
+    }
+
+    // ===================== INCREMENTAL UPDATES =====================
+
+    public static void studentAdded() {
+        apply(s -> new SummaryStats(s.getStudents() + 1, s.getTutors(), s.getSessions()));
+    }
+
+    /**
+     * A tutor is also a Student row, so both counters move.
+     */
+    public static void tutorAdded() {
+        apply(s -> new SummaryStats(s.getStudents() + 1, s.getTutors() + 1, s.getSessions()));
+    }
+
+    /**
+     * A bulk import added {@code students} Student rows, {@code tutors} of which are also tutors.
+     */
+    public static void peopleAdded(int students, int tutors) {
+        apply(s -> new SummaryStats(s.getStudents() + students, s.getTutors() + tutors, s.getSessions()));
+    }
+
+    public static void sessionsAdded(int count) {
+        apply(s -> new SummaryStats(s.getStudents(), s.getTutors(), s.getSessions() + count));
+    }
+
+    public static void sessionsRemoved(int count) {
+        apply(s -> new SummaryStats(s.getStudents(), s.getTutors(), Math.max(0, s.getSessions() - count)));
+    }
+
+    private static void apply(UnaryOperator<SummaryStats> change) {
+        WRITES.incrementAndGet();
+        CURRENT.updateAndGet(e -> e == null ? null : new Entry(change.apply(e.stats), e.loadedAt));
+    }
+}
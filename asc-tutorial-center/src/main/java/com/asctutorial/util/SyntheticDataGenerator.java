@@ -0,0 +1,791 @@
+package com.asctutorial.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.logging.Logger;
+
+/**
+ * Fills a database with synthetic but referentially valid people, tutors,
+ * sessions and registrations, to see how the dashboards behave at scale.
+ *
+ * Everything is drawn from the seed: the same options (including
+ * today=...) always produce the same rows, whatever the load mode or batch
+ * size. Rows are appended above the highest existing ids, existing
+ * subjects and languages are reused (topped up from built-in lists), and
+ * the IdSequence table is moved past the new rows.
+ *
+ * The data follows the rules the app enforces: every tutor is a student,
+ * a session's subject and language are ones its tutor has Expertise and
+ * Fluency in, nobody is in two sessions at the same time (as tutor or
+ * student; sessions start on the hour and last one), a session never has
+ * more registrations than its StudLim, RegisteredCount matches Attend, and
+ * past registrations are mostly Attended or No-Show. The attendance rollup
+ * is rebuilt at the end. Every generated user's password is the password option.
+ *
+ * skew sets how uneven popularity is: 0 spreads sessions evenly over
+ * tutors, subjects and languages and registrations evenly over students;
+ * around 1 a few tutors and students account for much of the activity and
+ * session sizes vary widely.
+ *
+ * Loading is either JDBC batches (mode=batch) or, for large runs, a
+ * tab-separated file per table handed to the database's bulk loader
+ * (mode=file: LOAD DATA LOCAL INFILE on MySQL, CSVREAD on H2).
+ *
+ * Headless use, e.g.:
+ * <pre>
+ *   java -cp ... com.asctutorial.util.SyntheticDataGenerator students=100000 sessions=1000000 \
+ *        registrations=10000000 skew=1.1 seed=7 mode=file
+ * </pre>
+ */
+public class SyntheticDataGenerator {
+
+    private static final Logger LOG = Logger.getLogger(SyntheticDataGenerator.class.getName());
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+            "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Carlos", "Karen",
+            "Daniel", "Lisa", "Matthew", "Nancy", "Anthony", "Sofia", "Mark", "Ana", "Luis", "Emily",
+            "Wei", "Mei", "Ahmed", "Fatima", "Hiroshi", "Yuki", "Ivan", "Olga", "Kwame", "Amara"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+            "Nguyen", "Kim", "Chen", "Patel", "Khan", "Tanaka", "Ivanov", "Mensah", "Okafor", "Schmidt"};
+    // most popular first: with skew > 0 the first names here get most of the demand
+    private static final String[] SUBJECTS = {
+            "Math", "English Writing", "Biology", "Chemistry", "Computer Science", "Physics", "Statistics",
+            "Accounting", "History", "Psychology", "Economics", "Calculus", "Spanish", "Philosophy",
+            "Nursing", "Sociology", "Government", "Art History", "Music Theory", "Geology"};
+    private static final String[] LANGUAGES = {
+            "English", "Spanish", "Vietnamese", "Chinese", "Arabic", "French", "Hindi", "Korean",
+            "Tagalog", "Portuguese", "Urdu", "German"};
+
+    private static final int FIRST_HOUR = 9;
+    private static final int HOURS = 12;         // sessions start on the hour, 9:00 to 20:00
+    private static final int OPEN_DAYS_PER_WEEK = 6; // Monday to Saturday
+    private static final int ROOMS = 40;
+
+    // per-phase seeds, so each table's rows don't depend on how many numbers earlier phases drew
+    private static final long PEOPLE = 1, TUTORS = 2, SESSIONS = 3, REGISTRATIONS = 4;
+
+    public enum LoadMode {
+        BATCH, FILE
+    }
+
+    // ===================== OPTIONS =====================
+
+    /**
+     * Sizes and knobs; see {@link #parse} for the command-line names.
+     */
+    public static class Options {
+        int students = 1000;
+        int tutors = -1;          // default students / 20
+        int managers = -1;        // default tutors / 25
+        int sessions = 5000;
+        long registrations = -1;  // default 6 per session
+        int subjects = 12;        // at least this many subjects exist afterwards
+        int languages = 6;
+        double skew = 1.0;
+        long seed = 42;
+        int pastDays = 600;       // open days of history before today
+        int futureDays = 60;      // open days of upcoming sessions
+        LocalDate today = LocalDate.now();
+        LoadMode mode = LoadMode.BATCH;
+        int batchSize = 1000;
+        String password = "pass";
+
+        /**
+         * Parses name=value arguments (students, tutors, managers, sessions,
+         * registrations, subjects, languages, skew, seed, pastDays,
+         * futureDays, today, mode, batchSize, password).
+         */
+        public static Options parse(String... args) {
+            Options o = new Options();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq <= 0) {
+                    throw new IllegalArgumentException("Expected name=value, got '" + arg + "'");
+                }
+                String value = arg.substring(eq + 1).trim();
+                switch (arg.substring(0, eq).trim()) {
+                    case "students" -> o.students = Integer.parseInt(value);
+                    case "tutors" -> o.tutors = Integer.parseInt(value);
+                    case "managers" -> o.managers = Integer.parseInt(value);
+                    case "sessions" -> o.sessions = Integer.parseInt(value);
+                    case "registrations" -> o.registrations = Long.parseLong(value);
+                    case "subjects" -> o.subjects = Integer.parseInt(value);
+                    case "languages" -> o.languages = Integer.parseInt(value);
+                    case "skew" -> o.skew = Double.parseDouble(value);
+                    case "seed" -> o.seed = Long.parseLong(value);
+                    case "pastDays" -> o.pastDays = Integer.parseInt(value);
+                    case "futureDays" -> o.futureDays = Integer.parseInt(value);
+                    case "today" -> o.today = LocalDate.parse(value);
+                    case "mode" -> o.mode = LoadMode.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "batchSize" -> o.batchSize = Integer.parseInt(value);
+                    case "password" -> o.password = value;
+                    default -> throw new IllegalArgumentException("Unknown option '" + arg.substring(0, eq) + "'");
+                }
+            }
+            return o.validate();
+        }
+
+        private Options validate() {
+            if (tutors < 0) {
+                tutors = Math.max(1, students / 20);
+            }
+            if (managers < 0) {
+                managers = Math.max(1, tutors / 25);
+            }
+            if (registrations < 0) {
+                registrations = 6L * sessions;
+            }
+            if (students < 1 || tutors < 1 || tutors > students || managers < 1) {
+                throw new IllegalArgumentException("Need at least one student, tutor and manager, and tutors <= students");
+            }
+            if (sessions < 0 || registrations < 0 || skew < 0 || batchSize < 1) {
+                throw new IllegalArgumentException("sessions, registrations, skew and batchSize must not be negative");
+            }
+            if (pastDays < 0 || futureDays < 0 || pastDays + futureDays < 1) {
+                throw new IllegalArgumentException("pastDays and futureDays must not be negative, nor both 0");
+            }
+            if (subjects < 1 || subjects > SUBJECTS.length || languages < 1 || languages > LANGUAGES.length) {
+                throw new IllegalArgumentException("subjects must be 1-" + SUBJECTS.length
+                        + " and languages 1-" + LANGUAGES.length);
+            }
+            if ((long) (pastDays + futureDays) * HOURS * tutors < sessions) {
+                throw new IllegalArgumentException("Not enough tutor hours for " + sessions
+                        + " sessions; add tutors or days");
+            }
+            if ((long) (pastDays + futureDays) * HOURS * students < sessions + registrations) {
+                throw new IllegalArgumentException("Not enough student hours for " + registrations
+                        + " registrations (tutors teaching count too); add students or days");
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Rows written per table, in load order.
+     */
+    public static class Result {
+        private final Map<String, Long> rows = new LinkedHashMap<>();
+
+        public Map<String, Long> getRows() {
+            return rows;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            rows.forEach((table, n) -> text.append(String.format("%n  %-18s %,12d", table, n)));
+            return text.toString();
+        }
+    }
+
+    private final Options options;
+    private final DatabaseBackend backend = DatabaseConnection.getBackend();
+
+    // filled as the phases run
+    private final List<LookupItem> subjects = new ArrayList<>();
+    private final List<LookupItem> languages = new ArrayList<>();
+    private int firstManagerId;
+    private int firstStudentId;
+    private int firstSessionId;
+    private int[][] tutorSubjects;   // tutor index -> SubjectIDs
+    private int[][] tutorLanguages;  // tutor index -> LanguageIDs
+    private int[] sessionDays;       // session index -> epoch day
+    private int[] sessionSlots;      // session index -> open day * HOURS + hour
+    private int[] sessionTutors;     // session index -> tutor index
+    private short[] sessionSizes;    // session index -> registrations
+
+    public SyntheticDataGenerator(Options options) {
+        this.options = options;
+    }
+
+    /**
+     * SystemID of the first generated student (tutors come first); set by {@link #generate}.
+     */
+    public int getFirstStudentId() {
+        return firstStudentId;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: SyntheticDataGenerator [students=N] [tutors=N] [managers=N] [sessions=N]"
+                    + " [registrations=N] [subjects=N] [languages=N] [skew=X] [seed=N] [pastDays=N]"
+                    + " [futureDays=N] [today=yyyy-mm-dd] [mode=batch|file] [batchSize=N] [password=S]");
+            System.exit(2);
+            return;
+        }
+        long start = System.nanoTime();
+        Result result = new SyntheticDataGenerator(options).generate();
+        System.out.printf("Generated in %.1f s:%s%n", (System.nanoTime() - start) / 1e9, result);
+    }
+
+    // ===================== GENERATE =====================
+
+    public Result generate() throws SQLException, IOException {
+        Result result = new Result();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            reserveIds(conn);
+            topUp(conn, result, "SubjectsOffered", "SubjectID", "SubjectName", SUBJECTS, options.subjects, subjects);
+            topUp(conn, result, "AvailableLanguage", "LanguageID", "Language", LANGUAGES, options.languages, languages);
+            writePeople(conn, result);
+            writeTutors(conn, result);
+            writeSessions(conn, result);
+            writeRegistrations(conn, result);
+            advanceIdSequences(conn);
+            conn.commit();
+        }
+        AttendanceRollup.rebuild(); // the registrations above bypassed the incremental updates
+        return result;
+    }
+
+    /**
+     * New ids start above both the existing rows and any block the app has reserved.
+     */
+    private void reserveIds(Connection conn) throws SQLException {
+        firstManagerId = nextId(conn, "Person", "SELECT MAX(SystemID) FROM Person");
+        firstStudentId = firstManagerId + options.managers;
+        firstSessionId = nextId(conn, "Session", "SELECT MAX(SessionID) FROM Session");
+    }
+
+    private static int nextId(Connection conn, String sequence, String maxQuery) throws SQLException {
+        int next = 1;
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(maxQuery)) {
+            if (rs.next()) {
+                next = rs.getInt(1) + 1;
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement("SELECT NextValue FROM IdSequence WHERE Name = ?")) {
+            ps.setString(1, sequence);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    next = Math.max(next, rs.getInt(1));
+                }
+            }
+        }
+        return next;
+    }
+
+    private void advanceIdSequences(Connection conn) throws SQLException {
+        int subjectNext = subjects.stream().mapToInt(LookupItem::getId).max().orElse(0) + 1;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "UPDATE IdSequence SET NextValue = GREATEST(NextValue, ?) WHERE Name = ?")) {
+            ps.setInt(1, firstStudentId + options.students);
+            ps.setString(2, "Person");
+            ps.addBatch();
+            ps.setInt(1, firstSessionId + options.sessions);
+            ps.setString(2, "Session");
+            ps.addBatch();
+            ps.setInt(1, subjectNext);
+            ps.setString(2, "SubjectsOffered");
+            ps.addBatch();
+            ps.executeBatch();
+        }
+    }
+
+    // ===================== REFERENCE DATA =====================
+
+    /**
+     * Reads the existing rows of a lookup table into {@code into} and adds
+     * names from {@code names} (not already there) until it has {@code wanted}.
+     */
+    private void topUp(Connection conn, Result result, String table, String idColumn, String nameColumn,
+                       String[] names, int wanted, List<LookupItem> into) throws SQLException, IOException {
+        int maxId = 0;
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT " + idColumn + ", " + nameColumn + " FROM " + table
+                     + " ORDER BY " + idColumn)) {
+            while (rs.next()) {
+                into.add(new LookupItem(rs.getInt(1), rs.getString(2)));
+                maxId = Math.max(maxId, rs.getInt(1));
+            }
+        }
+        try (RowSink sink = open(conn, table, idColumn, nameColumn)) {
+            for (int i = 0; i < names.length && into.size() < wanted; i++) {
+                String name = names[i];
+                if (into.stream().noneMatch(item -> item.getLabel().equalsIgnoreCase(name))) {
+                    LookupItem item = new LookupItem(++maxId, name);
+                    sink.add(item.getId(), item.getLabel());
+                    into.add(item);
+                }
+            }
+            result.rows.put(table, sink.count());
+        }
+    }
+
+    // ===================== PEOPLE =====================
+
+    private void writePeople(Connection conn, Result result) throws SQLException, IOException {
+        SplittableRandom random = new SplittableRandom(options.seed * 31 + PEOPLE);
+        Skewed language = new Skewed(languages.size(), options.skew, random, false);
+        String passwordHash = PasswordHasher.hash(options.password); // shared: hashing each row would take hours
+        int lastId = firstStudentId + options.students - 1;
+        int lastTutorId = firstStudentId + options.tutors - 1;
+        Date managerHired = Date.valueOf(options.today.minusYears(6));
+
+        try (RowSink person = open(conn, "Person",
+                "SystemID, FirstName, LastName, Email, PhoneNum, UserName, Password, RoleMask")) {
+            for (int id = firstManagerId; id <= lastId; id++) {
+                String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                String userName = (first.charAt(0) + last).toLowerCase(Locale.ROOT) + id;
+                int roleMask = id < firstStudentId ? Role.mask(Role.MANAGER)
+                        : id <= lastTutorId ? Role.mask(Role.STUDENT, Role.TUTOR)
+                        : Role.mask(Role.STUDENT);
+                person.add(id, first, last, userName + "@example.edu",
+                        String.format("555-%03d-%04d", random.nextInt(1000), random.nextInt(10000)),
+                        userName, passwordHash, roleMask);
+            }
+            result.rows.put("Person", person.count());
+        }
+        try (RowSink manager = open(conn, "Manager", "SystemID, DateHired")) {
+            for (int id = firstManagerId; id < firstStudentId; id++) {
+                manager.add(id, managerHired);
+            }
+            result.rows.put("Manager", manager.count());
+        }
+        try (RowSink student = open(conn, "Student", "SystemID, PreferredLanguage")) {
+            for (int id = firstStudentId; id <= lastId; id++) {
+                student.add(id, languages.get(language.next(random)).getLabel());
+            }
+            result.rows.put("Student", student.count());
+        }
+        try (RowSink tutor = open(conn, "Tutor", "SystemID, DateHired, ManagedBy")) {
+            for (int id = firstStudentId; id <= lastTutorId; id++) {
+                Date hired = Date.valueOf(options.today.minusDays(30 + random.nextInt(5 * 365)));
+                tutor.add(id, hired, firstManagerId + random.nextInt(options.managers));
+            }
+            result.rows.put("Tutor", tutor.count());
+        }
+    }
+
+    /**
+     * Expertise in 1-3 subjects and Fluency in 1-2 languages per tutor, the
+     * popular ones more often.
+     */
+    private void writeTutors(Connection conn, Result result) throws SQLException, IOException {
+        SplittableRandom random = new SplittableRandom(options.seed * 31 + TUTORS);
+        Skewed subject = new Skewed(subjects.size(), options.skew, random, false);
+        Skewed language = new Skewed(languages.size(), options.skew, random, false);
+        tutorSubjects = new int[options.tutors][];
+        tutorLanguages = new int[options.tutors][];
+
+        try (RowSink expertise = open(conn, "Expertise", "SystemID, SubjectID, YearsOfExperience")) {
+            for (int t = 0; t < options.tutors; t++) {
+                tutorSubjects[t] = distinct(subject, random, 1 + random.nextInt(3), subjects);
+                for (int subjectId : tutorSubjects[t]) {
+                    expertise.add(firstStudentId + t, subjectId, 1 + random.nextInt(12));
+                }
+            }
+            result.rows.put("Expertise", expertise.count());
+        }
+        try (RowSink fluency = open(conn, "Fluency", "LanguageID, SystemID, Fluent")) {
+            for (int t = 0; t < options.tutors; t++) {
+                tutorLanguages[t] = distinct(language, random, 1 + random.nextInt(2), languages);
+                for (int i = 0; i < tutorLanguages[t].length; i++) {
+                    String level = i == 0 ? (random.nextInt(3) == 0 ? "Native" : "Yes")
+                            : (random.nextBoolean() ? "Yes" : "Some");
+                    fluency.add(tutorLanguages[t][i], firstStudentId + t, level);
+                }
+            }
+            result.rows.put("Fluency", fluency.count());
+        }
+    }
+
+    private static int[] distinct(Skewed from, SplittableRandom random, int wanted, List<LookupItem> items) {
+        int[] ids = new int[Math.min(wanted, items.size())];
+        int n = 0;
+        for (int attempt = 0; n < ids.length && attempt < 20 * ids.length; attempt++) {
+            int id = items.get(from.next(random)).getId();
+            if (!contains(ids, n, id)) {
+                ids[n++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, Math.max(1, n));
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ===================== SESSIONS =====================
+
+    /**
+     * Gives each session a tutor (busy tutors get more), one of that tutor's
+     * subjects and languages, and a free hour in the tutor's calendar: the
+     * tutor's k-th session takes slot (offset + k * step) mod slots, which
+     * never repeats while k < slots because step is coprime to slots.
+     * Sessions in the same hour share one pool of students, so their sizes
+     * are capped to leave everyone teaching or registered distinct; an hour
+     * with no student left is skipped.
+     */
+    private void writeSessions(Connection conn, Result result) throws SQLException, IOException {
+        SplittableRandom random = new SplittableRandom(options.seed * 31 + SESSIONS);
+        Skewed tutor = new Skewed(options.tutors, options.skew, random, true);
+        int slots = (options.pastDays + options.futureDays) * HOURS;
+        long step = coprime(slots, random);
+        int[] used = new int[options.tutors];
+        int[] offset = new int[options.tutors];
+        int[] load = new int[slots]; // students busy in each hour, teaching or registered
+        long booked = 0;
+        for (int t = 0; t < options.tutors; t++) {
+            offset[t] = random.nextInt(slots);
+        }
+        LocalDate firstMonday = AttendanceRollup.weekStart(options.today)
+                .minusWeeks((options.pastDays + OPEN_DAYS_PER_WEEK - 1) / OPEN_DAYS_PER_WEEK);
+        double perSession = options.sessions == 0 ? 0 : (double) options.registrations / options.sessions;
+
+        sessionDays = new int[options.sessions];
+        sessionSlots = new int[options.sessions];
+        sessionTutors = new int[options.sessions];
+        sessionSizes = new short[options.sessions];
+        long registered = 0;
+        try (RowSink session = open(conn, "Session",
+                "SessionID, SessionDate, SessionTime, Location, StudLim, SubjectID, SystemID, LanguageID, RegisteredCount")) {
+            for (int i = 0; i < options.sessions; i++) {
+                int t = tutor.next(random);
+                int slot = -1;
+                while (slot < 0) {
+                    if (booked == (long) slots * options.tutors) {
+                        throw new IllegalStateException("No free tutor hours left for session " + (i + 1)
+                                + "; add tutors, students or days");
+                    }
+                    while (used[t] >= slots) {
+                        t = (t + 1) % options.tutors; // fully booked
+                    }
+                    booked++;
+                    int candidate = (int) ((offset[t] + used[t]++ * step) % slots);
+                    if (load[candidate] < options.students) {
+                        slot = candidate;
+                    }
+                }
+                int openDay = slot / HOURS;
+                LocalDate date = firstMonday.plusWeeks(openDay / OPEN_DAYS_PER_WEEK)
+                        .plusDays(openDay % OPEN_DAYS_PER_WEEK);
+
+                // mean-1 lognormal demand factor; skew 0 gives every session about the average
+                double demand = Math.exp(options.skew * random.nextGaussian() - options.skew * options.skew / 2);
+                int size = (int) Math.min(Math.min(Short.MAX_VALUE, options.students - load[slot] - 1),
+                        Math.floor(perSession * demand + random.nextDouble()));
+                // popular sessions get bigger rooms, so the total stays close to what was asked for
+                int studLim = (int) Math.min(Short.MAX_VALUE,
+                        Math.max(Math.max(2, size), Math.ceil(perSession * (1.5 + random.nextDouble()))));
+
+                sessionDays[i] = (int) date.toEpochDay();
+                sessionSlots[i] = slot;
+                sessionTutors[i] = t;
+                sessionSizes[i] = (short) Math.max(0, size);
+                load[slot] += 1 + sessionSizes[i];
+                registered += sessionSizes[i];
+                session.add(firstSessionId + i, Date.valueOf(date),
+                        Time.valueOf((FIRST_HOUR + slot % HOURS) + ":00:00"),
+                        "Room " + (100 + random.nextInt(ROOMS)), studLim,
+                        pick(tutorSubjects[t], random), firstStudentId + t,
+                        pick(tutorLanguages[t], random), (int) sessionSizes[i]);
+            }
+            result.rows.put("Session", session.count());
+        }
+        if (registered != options.registrations) {
+            LOG.info(String.format("%,d registrations requested, %,d drawn",
+                    options.registrations, registered));
+        }
+    }
+
+    private static int pick(int[] ids, SplittableRandom random) {
+        return ids[random.nextInt(ids.length)];
+    }
+
+    private static long coprime(int n, SplittableRandom random) {
+        if (n <= 2) {
+            return 1;
+        }
+        while (true) {
+            long candidate = 1 + random.nextInt(n - 1);
+            if (gcd(candidate, n) == 1) {
+                return candidate;
+            }
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    // ===================== REGISTRATIONS =====================
+
+    /**
+     * Fills each session with its planned number of students (the active
+     * ones more often). Sessions are filled hour by hour, and a student
+     * taken in an hour, or teaching in it, is not drawn again for that hour.
+     * Past registrations are mostly marked Attended or No-Show.
+     */
+    private void writeRegistrations(Connection conn, Result result) throws SQLException, IOException {
+        SplittableRandom random = new SplittableRandom(options.seed * 31 + REGISTRATIONS);
+        Skewed student = new Skewed(options.students, options.skew, random, true);
+        long today = options.today.toEpochDay();
+        int slots = (options.pastDays + options.futureDays) * HOURS;
+
+        // sessions grouped by hour: those of hour h are bySlot[first[h] .. first[h + 1])
+        int[] first = new int[slots + 1];
+        for (int slot : sessionSlots) {
+            first[slot + 1]++;
+        }
+        for (int h = 0; h < slots; h++) {
+            first[h + 1] += first[h];
+        }
+        int[] bySlot = new int[options.sessions];
+        int[] filled = Arrays.copyOf(first, slots);
+        for (int i = 0; i < options.sessions; i++) {
+            bySlot[filled[sessionSlots[i]]++] = i;
+        }
+        int[] busyIn = new int[options.students]; // student index -> last hour busy in, plus 1
+
+        try (RowSink attend = open(conn, "Attend", "SystemID, SessionID, DateReg, Status")) {
+            for (int h = 0; h < slots; h++) {
+                int mark = h + 1;
+                for (int k = first[h]; k < first[h + 1]; k++) {
+                    busyIn[sessionTutors[bySlot[k]]] = mark; // tutors are the first students
+                }
+                for (int k = first[h]; k < first[h + 1]; k++) {
+                    int i = bySlot[k];
+                    for (int n = 0; n < sessionSizes[i]; n++) {
+                        int s = student.next(random);
+                        for (int retry = 0; retry < 8 && busyIn[s] == mark; retry++) {
+                            s = student.next(random);
+                        }
+                        // crowded by popular students: take the next free one (there is one, since
+                        // writeSessions capped the hour's sizes to the students not otherwise busy)
+                        while (busyIn[s] == mark) {
+                            s = (s + 1) % options.students;
+                        }
+                        busyIn[s] = mark;
+
+                        long day = sessionDays[i];
+                        String status = day >= today ? AttendanceRollup.REGISTERED : pastStatus(random);
+                        long registeredOn = Math.min(today, day - 1 - random.nextInt(21));
+                        attend.add(firstStudentId + s, firstSessionId + i,
+                                Date.valueOf(LocalDate.ofEpochDay(registeredOn)), status);
+                    }
+                }
+            }
+            result.rows.put("Attend", attend.count());
+        }
+    }
+
+    private static String pastStatus(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        return roll < 82 ? AttendanceRollup.ATTENDED
+                : roll < 95 ? AttendanceRollup.NO_SHOW
+                : AttendanceRollup.REGISTERED; // never marked
+    }
+
+    // ===================== LOADING =====================
+
+    /**
+     * Rows for one table, written with batches or through a bulk-load file.
+     * Tables are written one after another, parents first.
+     */
+    private interface RowSink extends AutoCloseable {
+        void add(Object... values) throws SQLException, IOException;
+
+        long count();
+
+        @Override
+        void close() throws SQLException, IOException;
+    }
+
+    private RowSink open(Connection conn, String table, String... columns) throws SQLException, IOException {
+        String columnList = String.join(", ", columns);
+        return options.mode == LoadMode.FILE
+                ? new FileSink(conn, table, columnList)
+                : new BatchSink(conn, table, columnList);
+    }
+
+    /**
+     * INSERT batches of batchSize rows, committed one by one.
+     */
+    private class BatchSink implements RowSink {
+        private final Connection conn;
+        private final String table;
+        private final PreparedStatement ps;
+        private final long start = System.nanoTime();
+        private long rows;
+
+        BatchSink(Connection conn, String table, String columns) throws SQLException {
+            this.conn = conn;
+            this.table = table;
+            int count = columns.split(",").length;
+            this.ps = conn.prepareStatement("INSERT INTO " + table + " (" + columns + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(count, "?")) + ")");
+        }
+
+        @Override
+        public void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                ps.setObject(i + 1, values[i]);
+            }
+            ps.addBatch();
+            if (++rows % options.batchSize == 0) {
+                ps.executeBatch();
+                conn.commit();
+            }
+        }
+
+        @Override
+        public long count() {
+            return rows;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try (ps) {
+                ps.executeBatch();
+                conn.commit();
+            }
+            logLoaded(table, rows, start);
+        }
+    }
+
+    /**
+     * Writes the rows to a temporary tab-separated file, then loads it with
+     * the backend's bulk loader in one statement.
+     */
+    private class FileSink implements RowSink {
+        private final Connection conn;
+        private final String table;
+        private final String columns;
+        private final Path file;
+        private final BufferedWriter out;
+        private final long start = System.nanoTime();
+        private long rows;
+
+        FileSink(Connection conn, String table, String columns) throws IOException {
+            this.conn = conn;
+            this.table = table;
+            this.columns = columns;
+            this.file = Files.createTempFile("asc-" + table + "-", ".tsv");
+            this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            out.write(columns.replace(", ", "\t"));
+            out.write('\n');
+        }
+
+        @Override
+        public void add(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write('\t');
+                }
+                out.write(String.valueOf(values[i])); // generated values contain no tabs or line breaks
+            }
+            out.write('\n');
+            rows++;
+        }
+
+        @Override
+        public long count() {
+            return rows;
+        }
+
+        @Override
+        public void close() throws SQLException, IOException {
+            try {
+                out.close();
+                if (rows > 0) {
+                    try (Statement st = conn.createStatement()) {
+                        st.execute(backend.bulkLoadStatement(table, columns, file));
+                    } catch (SQLException e) {
+                        throw new SQLException("Bulk load of " + table + " failed (with MySQL, db.url needs"
+                                + " allowLoadLocalInfile=true and the server local_infile=ON): " + e.getMessage(),
+                                e.getSQLState(), e);
+                    }
+                    conn.commit();
+                }
+            } finally {
+                Files.deleteIfExists(file);
+            }
+            logLoaded(table, rows, start);
+        }
+    }
+
+    private static void logLoaded(String table, long rows, long start) {
+        if (rows > 0) {
+            LOG.info(String.format("%s: %,d rows in %.1f s", table, rows, (System.nanoTime() - start) / 1e9));
+        }
+    }
+
+    // ===================== DISTRIBUTIONS =====================
+
+    /**
+     * Draws indexes 0..n-1 with Zipf-like popularity: rank r has weight
+     * 1 / (r + 1)^skew (skew 0 = uniform). With {@code scatter} the ranks
+     * are spread over the indexes by a fixed permutation, so the busiest
+     * people aren't simply the lowest ids; without it index order is
+     * popularity order (the subject and language lists).
+     */
+    private static final class Skewed {
+        private final int n;
+        private final double[] cumulative; // null when uniform
+        private final long multiplier;
+        private final long shift;
+
+        Skewed(int n, double skew, SplittableRandom random, boolean scatter) {
+            this.n = n;
+            if (skew > 0 && n > 1) {
+                cumulative = new double[n];
+                double total = 0;
+                for (int r = 0; r < n; r++) {
+                    total += Math.pow(r + 1, -skew);
+                    cumulative[r] = total;
+                }
+                for (int r = 0; r < n; r++) {
+                    cumulative[r] /= total;
+                }
+            } else {
+                cumulative = null;
+            }
+            this.multiplier = scatter ? coprime(n, random) : 1;
+            this.shift = scatter ? random.nextInt(n) : 0;
+        }
+
+        int next(SplittableRandom random) {
+            if (cumulative == null) {
+                return random.nextInt(n);
+            }
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            rank = Math.min(n - 1, rank >= 0 ? rank : -rank - 1);
+            return (int) ((rank * multiplier + shift) % n);
+        }
+    }
+}
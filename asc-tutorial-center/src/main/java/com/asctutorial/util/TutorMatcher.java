@@ -0,0 +1,231 @@
+package com.asctutorial.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Finds the tutors who teach a subject (Expertise) and speak a language
+ * (Fluency), best first: most YearsOfExperience in the subject, then the
+ * strongest fluency, then by name.
+ *
+ * Expertise and Fluency are read once into an index over the tutors of the
+ * current {@link ReferenceDataCache} snapshot: tutors get dense positions,
+ * and each subject and language has a BitSet of the tutors that match it,
+ * so a lookup is one AND of two bitsets plus a sort of the few survivors.
+ * The index is rebuilt whenever that snapshot is replaced (expiry, a tutor
+ * or subject added here or seen in the change log).
+ */
+public final class TutorMatcher {
+
+    /**
+     * A tutor who matches, with what they were ranked by.
+     */
+    public static class Match {
+        private final LookupItem tutor;
+        private final int yearsOfExperience;
+        private final int fluency;
+
+        Match(LookupItem tutor, int yearsOfExperience, int fluency) {
+            this.tutor = tutor;
+            this.yearsOfExperience = yearsOfExperience;
+            this.fluency = fluency;
+        }
+
+        public LookupItem getTutor() {
+            return tutor;
+        }
+
+        public int getYearsOfExperience() {
+            return yearsOfExperience;
+        }
+
+        /**
+         * 3 native, 2 fluent, 1 some knowledge.
+         */
+        public int getFluency() {
+            return fluency;
+        }
+    }
+
+    private static final Comparator<Match> BEST_FIRST = Comparator
+            .comparingInt(Match::getYearsOfExperience).reversed()
+            .thenComparing(Comparator.comparingInt(Match::getFluency).reversed());
+
+    /**
+     * Bitsets over the tutors of one reference snapshot.
+     */
+    public static class Index {
+        private final ReferenceDataCache.Snapshot source;
+        private final List<LookupItem> tutors;                   // position -> tutor, by name
+        private final Map<Integer, BitSet> bySubject = new HashMap<>();
+        private final Map<Integer, BitSet> byLanguage = new HashMap<>();
+        private final Map<Integer, int[]> years = new HashMap<>();    // subject -> years per position
+        private final Map<Integer, byte[]> fluency = new HashMap<>(); // language -> level per position
+
+        private Index(ReferenceDataCache.Snapshot source) {
+            this.source = source;
+            this.tutors = source.getTutors();
+        }
+
+        /**
+         * The tutor/subject/language lists this index was built over.
+         */
+        public ReferenceDataCache.Snapshot getReferenceData() {
+            return source;
+        }
+
+        /**
+         * Tutors teaching {@code subjectId} who speak {@code languageId}, best first.
+         */
+        public List<Match> match(int subjectId, int languageId) {
+            BitSet subject = bySubject.get(subjectId);
+            BitSet language = byLanguage.get(languageId);
+            if (subject == null || language == null) {
+                return List.of();
+            }
+            BitSet both = (BitSet) subject.clone();
+            both.and(language);
+
+            int[] subjectYears = years.get(subjectId);
+            byte[] languageLevels = fluency.get(languageId);
+            List<Match> matches = new ArrayList<>(both.cardinality());
+            for (int i = both.nextSetBit(0); i >= 0; i = both.nextSetBit(i + 1)) {
+                matches.add(new Match(tutors.get(i), subjectYears[i], languageLevels[i]));
+            }
+            matches.sort(BEST_FIRST); // stable: equal ranks stay in name order
+            return matches;
+        }
+    }
+
+    private static volatile Index current;
+    private static final Object BUILD_LOCK = new Object();
+
+    private TutorMatcher() {
+    }
+
+    /**
+     * The index if it is built for the current reference snapshot, otherwise null.
+     * Never touches the database.
+     */
+    public static Index peek() {
+        ReferenceDataCache.Snapshot reference = ReferenceDataCache.peek();
+        Index index = current;
+        return reference != null && index != null && index.source == reference ? index : null;
+    }
+
+    /**
+     * The index, (re)building it when the reference snapshot has changed.
+     */
+    public static Index get() throws SQLException {
+        ReferenceDataCache.Snapshot reference = ReferenceDataCache.get();
+        Index index = current;
+        if (index != null && index.source == reference) {
+            return index;
+        }
+        synchronized (BUILD_LOCK) {
+            index = current;
+            if (index == null || index.source != reference) {
+                index = build(reference);
+                current = index;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Warms the reference lists and the index in the background, e.g. right after login.
+     */
+    public static void preloadAsync() {
+        DbExecutor.submit(TutorMatcher::get, null, Exception::printStackTrace);
+    }
+
+    /**
+     * LanguageID of Student.PreferredLanguage (stored as a language name), or
+     * null when it is not set or not one of the available languages.
+     */
+    public static Integer preferredLanguageId(int studentId) throws SQLException {
+        String preferred;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT PreferredLanguage FROM Student WHERE SystemID = ?")) {
+            ps.setInt(1, studentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                preferred = rs.next() ? rs.getString("PreferredLanguage") : null;
+            }
+        }
+        if (preferred == null) {
+            return null;
+        }
+        for (LookupItem language : ReferenceDataCache.get().getLanguages()) {
+            if (language.getLabel().equalsIgnoreCase(preferred.trim())) {
+                return language.getId();
+            }
+        }
+        return null;
+    }
+
+    private static Index build(ReferenceDataCache.Snapshot reference) throws SQLException {
+        Index index = new Index(reference);
+        Map<Integer, Integer> position = new HashMap<>();
+        for (int i = 0; i < index.tutors.size(); i++) {
+            position.put(index.tutors.get(i).getId(), i);
+        }
+        int n = index.tutors.size();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT SystemID, SubjectID, YearsOfExperience FROM Expertise");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Integer i = position.get(rs.getInt("SystemID"));
+                    if (i == null) {
+                        continue; // tutor added after the reference snapshot was read
+                    }
+                    int subjectId = rs.getInt("SubjectID");
+                    index.bySubject.computeIfAbsent(subjectId, k -> new BitSet(n)).set(i);
+                    index.years.computeIfAbsent(subjectId, k -> new int[n])[i] = rs.getInt("YearsOfExperience");
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT LanguageID, SystemID, Fluent FROM Fluency");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Integer i = position.get(rs.getInt("SystemID"));
+                    int level = fluencyLevel(rs.getString("Fluent"));
+                    if (i == null || level == 0) {
+                        continue;
+                    }
+                    int languageId = rs.getInt("LanguageID");
+                    index.byLanguage.computeIfAbsent(languageId, k -> new BitSet(n)).set(i);
+                    index.fluency.computeIfAbsent(languageId, k -> new byte[n])[i] = (byte) level;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Fluency.Fluent is free text ("Yes" in the sample data): "No" or blank
+     * means the tutor doesn't speak it.
+     */
+    static int fluencyLevel(String fluent) {
+        if (fluent == null) {
+            return 0;
+        }
+        return switch (fluent.trim().toLowerCase(Locale.ROOT)) {
+            case "", "no", "n", "false" -> 0;
+            case "native" -> 3;
+            case "yes", "y", "true", "fluent" -> 2;
+            default -> 1;
+        };
+    }
+}
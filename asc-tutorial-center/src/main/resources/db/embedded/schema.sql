@@ -0,0 +1,106 @@
+-- Tables and view from "DB initialize.sql", typos fixed, for the embedded backend.
+
+CREATE TABLE Person (
+    SystemID INT PRIMARY KEY,
+    FirstName VARCHAR(100),
+    LastName VARCHAR(100),
+    Email VARCHAR(100),
+    PhoneNum VARCHAR(25),
+    UserName VARCHAR(50),
+    Password VARCHAR(50)
+);
+
+CREATE TABLE Student (
+    SystemID INT PRIMARY KEY,
+    PreferredLanguage VARCHAR(100),
+    FOREIGN KEY (SystemID)
+        REFERENCES Person (SystemID)
+);
+
+CREATE TABLE Manager (
+    SystemID INT PRIMARY KEY,
+    DateHired DATE,
+    FOREIGN KEY (SystemID)
+        REFERENCES Person (SystemID)
+);
+
+CREATE TABLE Tutor (
+    SystemID INT PRIMARY KEY,
+    DateHired DATE,
+    ManagedBy INT,
+    FOREIGN KEY (SystemID)
+        REFERENCES Student (SystemID),
+    FOREIGN KEY (ManagedBy)
+        REFERENCES Manager (SystemID)
+);
+
+CREATE TABLE SubjectsOffered (
+    SubjectID INT PRIMARY KEY,
+    SubjectName VARCHAR(100)
+);
+
+CREATE TABLE Expertise (
+    SystemID INT,
+    SubjectID INT,
+    YearsOfExperience INT,
+    PRIMARY KEY (SystemID , SubjectID),
+    FOREIGN KEY (SystemID)
+        REFERENCES Tutor (SystemID),
+    FOREIGN KEY (SubjectID)
+        REFERENCES SubjectsOffered (SubjectID)
+);
+
+CREATE TABLE AvailableLanguage (
+    LanguageID INT PRIMARY KEY,
+    Language VARCHAR(100)
+);
+
+
+CREATE TABLE Fluency (
+    LanguageID INT,
+    SystemID INT,
+    Fluent VARCHAR(20),
+    PRIMARY KEY (LanguageID , SystemID),
+    FOREIGN KEY (LanguageID)
+        REFERENCES AvailableLanguage (LanguageID),
+    FOREIGN KEY (SystemID)
+        REFERENCES Tutor (SystemID)
+);
+
+CREATE TABLE Session (
+    SessionID INT PRIMARY KEY,
+    SessionDate DATE,
+    SessionTime TIME,
+    Location VARCHAR(50),
+    StudLim INT,
+    SubjectID INT,
+    SystemID INT,
+    LanguageID INT,
+    FOREIGN KEY (SubjectID)
+        REFERENCES SubjectsOffered (SubjectID),
+    FOREIGN KEY (SystemID)
+        REFERENCES Tutor (SystemID),
+    FOREIGN KEY (LanguageID)
+        REFERENCES AvailableLanguage (LanguageID)
+);
+
+CREATE TABLE Attend (
+    SystemID INT,
+    SessionID INT,
+    DateReg DATE,
+    Status VARCHAR(50),
+    PRIMARY KEY (SystemID , SessionID),
+    FOREIGN KEY (SystemID)
+        REFERENCES Student (SystemID),
+    FOREIGN KEY (SessionID)
+        REFERENCES Session (SessionID)
+);
+
+CREATE VIEW SubjectTutorCount AS
+    SELECT
+        s.SubjectID, s.SubjectName, COUNT(e.SystemID) AS TutorCount
+    FROM
+        SubjectsOffered AS s
+            LEFT JOIN
+        Expertise AS e ON s.subjectID = e.subjectID
+    GROUP BY s.subjectID , s.SubjectName;
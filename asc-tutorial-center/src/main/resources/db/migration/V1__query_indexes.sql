@@ -0,0 +1,13 @@
+-- Secondary indexes for the login, dashboard and paging queries
+
+-- login: authenticateAndGetPerson probes by UserName; usernames must be unique
+CREATE UNIQUE INDEX ux_person_username ON Person (UserName);
+
+-- manager session list: ORDER BY and keyset paging on (SessionDate, SessionTime, SessionID)
+CREATE INDEX ix_session_date_time ON Session (SessionDate, SessionTime, SessionID);
+
+-- tutor dashboard: WHERE SystemID = ? ORDER BY SessionDate, SessionTime
+CREATE INDEX ix_session_tutor_date ON Session (SystemID, SessionDate, SessionTime);
+
+-- registrations per session (JOIN / COUNT); the primary key leads with SystemID
+CREATE INDEX ix_attend_session ON Attend (SessionID, SystemID);
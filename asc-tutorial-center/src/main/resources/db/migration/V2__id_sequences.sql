@@ -0,0 +1,15 @@
+-- Block-allocated primary keys (replaces SELECT MAX(id) + 1 on every insert)
+
+CREATE TABLE IdSequence (
+    Name VARCHAR(50) PRIMARY KEY,
+    NextValue INT NOT NULL
+);
+
+INSERT INTO IdSequence (Name, NextValue)
+SELECT 'Person', COALESCE(MAX(SystemID), 0) + 1 FROM Person;
+
+INSERT INTO IdSequence (Name, NextValue)
+SELECT 'Session', COALESCE(MAX(SessionID), 0) + 1 FROM Session;
+
+INSERT INTO IdSequence (Name, NextValue)
+SELECT 'SubjectsOffered', COALESCE(MAX(SubjectID), 0) + 1 FROM SubjectsOffered;
@@ -0,0 +1,10 @@
+-- Roles as bits on Person (STUDENT = 1, TUTOR = 2, MANAGER = 4) so login
+-- resolves them from the one UserName probe instead of joining three tables.
+-- Kept up to date by PersonQueries and BulkPersonImporter.
+
+ALTER TABLE Person ADD COLUMN RoleMask INT NOT NULL DEFAULT 0;
+
+UPDATE Person SET RoleMask =
+      (CASE WHEN SystemID IN (SELECT SystemID FROM Student) THEN 1 ELSE 0 END)
+    + (CASE WHEN SystemID IN (SELECT SystemID FROM Tutor) THEN 2 ELSE 0 END)
+    + (CASE WHEN SystemID IN (SELECT SystemID FROM Manager) THEN 4 ELSE 0 END);
@@ -0,0 +1,4 @@
+-- Room for salted hashes (pbkdf2$<iterations>$<salt>$<hash>, about 90 characters).
+-- Existing plain-text passwords are rehashed one by one as people sign in.
+
+ALTER TABLE Person MODIFY Password VARCHAR(255);
@@ -0,0 +1,15 @@
+-- Append-only log of writes, so open dashboards can poll for what changed
+-- since the last Version they saw instead of re-running their full queries.
+-- EntityKey is the changed row's id (SessionID for anything that changes a
+-- session or its registrations, SystemID for people, SubjectID for subjects).
+
+CREATE TABLE ChangeLog (
+    Version BIGINT AUTO_INCREMENT PRIMARY KEY,
+    EntityName VARCHAR(30) NOT NULL,
+    EntityKey INT NOT NULL,
+    Operation CHAR(1) NOT NULL,
+    ChangedAt TIMESTAMP NOT NULL
+);
+
+-- retention cleanup deletes by age
+CREATE INDEX ix_changelog_changed_at ON ChangeLog (ChangedAt);
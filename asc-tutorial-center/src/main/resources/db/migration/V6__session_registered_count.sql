@@ -0,0 +1,8 @@
+-- Registrations per session, kept in the same transaction as the Attend
+-- inserts/deletes so the tutor list and capacity checks read one column
+-- instead of aggregating Attend. RegistrationCountReconciler checks it.
+
+ALTER TABLE Session ADD COLUMN RegisteredCount INT NOT NULL DEFAULT 0;
+
+UPDATE Session SET RegisteredCount =
+    (SELECT COUNT(*) FROM Attend a WHERE a.SessionID = Session.SessionID);
@@ -0,0 +1,10 @@
+-- Session search (SessionFilter): each criterion can seek an index and then
+-- read rows already in list order, so a filtered page with LIMIT stops early.
+-- Tutor filtering uses ix_session_tutor_date from V1.
+
+CREATE INDEX ix_session_subject_date ON Session (SubjectID, SessionDate, SessionTime, SessionID);
+
+CREATE INDEX ix_session_language_date ON Session (LanguageID, SessionDate, SessionTime, SessionID);
+
+-- location prefix search (LIKE 'Room 1%')
+CREATE INDEX ix_session_location ON Session (Location);
@@ -0,0 +1,18 @@
+-- Registrations per week (Monday of the session date), tutor, subject and
+-- language, split by Attend.Status, so the manager's attendance report
+-- sums a few rows per week instead of grouping the whole Attend history.
+-- Kept in the same transactions as the Attend writes (AttendanceRollup);
+-- filled and re-verified by "AttendanceRollup rebuild", which should run
+-- once after this migration and then nightly. SubjectID/LanguageID 0 stand
+-- for a session without one.
+
+CREATE TABLE AttendanceRollup (
+    WeekStart DATE NOT NULL,
+    TutorID INT NOT NULL,
+    SubjectID INT NOT NULL,
+    LanguageID INT NOT NULL,
+    Registered INT NOT NULL DEFAULT 0,
+    Attended INT NOT NULL DEFAULT 0,
+    NoShow INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (WeekStart, TutorID, SubjectID, LanguageID)
+);